@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.lang.management.*;
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.benchmark.synthetic.*;
+
+/**
+ * Allocation-per-operation regression check against the synthetic driver. Each scenario is warmed up and then measured with the
+ * per-thread allocation counter of HotSpot. Exits with status 1 if any scenario allocates more than its budget.<p>
+ *
+ * Usage: java -cp target/benchmarks.jar net.jextra.fauxjo.benchmark.AllocationCheck [-Dfauxjo.alloc.&lt;scenario&gt;=maxBytes ...]
+ */
+public class AllocationCheck
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int WARMUP_OPS = 50_000;
+    private static final int MEASURED_OPS = 50_000;
+    private static final int ROW_CN = 100;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String... args )
+        throws Exception
+    {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if ( !threads.isThreadAllocatedMemorySupported() )
+        {
+            System.err.println( "Thread allocation measurement is not supported by this JVM." );
+            System.exit( 2 );
+        }
+        threads.setThreadAllocatedMemoryEnabled( true );
+
+        Connection conn = new SyntheticConnection( BenchDatabase.syntheticTable( 0, ROW_CN ) );
+        Table<BenchItem> table = new Table<>( BenchDatabase.TABLE_NAME, BenchItem.class );
+        table.setConnection( conn );
+        BenchItem item = new BenchItem( 1 );
+        PreparedStatement query = conn.prepareStatement( BenchDatabase.SELECT_SQL );
+        BeanBuilder<BenchItem> builder = new BeanBuilder<>( BenchItem.class, false );
+        StatementCache statementCache = new StatementCache();
+
+        // Budgets are roughly twice what was measured when added so that only real regressions fail.
+        Map<String, Scenario> scenarios = new LinkedHashMap<>();
+        scenarios.put( "buildBeanPerRow", new Scenario( 160, ROW_CN, () ->
+        {
+            ResultSet rs = query.executeQuery();
+            while ( rs.next() )
+            {
+                builder.buildBean( rs );
+            }
+            rs.close();
+        } ) );
+        scenarios.put( "insert", new Scenario( 1400, 1, () -> table.insert( item ) ) );
+        scenarios.put( "update", new Scenario( 1500, 1, () -> table.update( item ) ) );
+        scenarios.put( "statementCacheHit", new Scenario( 64, 1, () -> statementCache.prepareStatement( conn, BenchDatabase.SELECT_SQL,
+            false ) ) );
+        scenarios.put( "hashCode", new Scenario( 16, 1, item::hashCode ) );
+
+        boolean failed = false;
+        long threadId = Thread.currentThread().getId();
+        for ( Map.Entry<String, Scenario> entry : scenarios.entrySet() )
+        {
+            Scenario scenario = entry.getValue();
+            long budget = Long.getLong( "fauxjo.alloc." + entry.getKey(), scenario.budgetBytes );
+
+            run( scenario.operation, WARMUP_OPS / scenario.rowsPerOp );
+            long before = threads.getThreadAllocatedBytes( threadId );
+            run( scenario.operation, MEASURED_OPS / scenario.rowsPerOp );
+            long allocated = threads.getThreadAllocatedBytes( threadId ) - before;
+            long perOp = allocated / ( MEASURED_OPS / scenario.rowsPerOp * (long) scenario.rowsPerOp );
+
+            boolean over = perOp > budget;
+            failed |= over;
+            System.out.println( String.format( "%-20s %8d bytes/op (budget %d)%s", entry.getKey(), perOp, budget, over ? " FAILED" : "" ) );
+        }
+
+        System.exit( failed ? 1 : 0 );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static void run( Operation operation, int count )
+        throws Exception
+    {
+        for ( int i = 0; i < count; i++ )
+        {
+            operation.run();
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private interface Operation
+    {
+        void run()
+            throws Exception;
+    }
+
+    private static class Scenario
+    {
+        private final long budgetBytes;
+        private final int rowsPerOp;
+        private final Operation operation;
+
+        public Scenario( long budgetBytes, int rowsPerOp, Operation operation )
+        {
+            this.budgetBytes = budgetBytes;
+            this.rowsPerOp = rowsPerOp;
+            this.operation = operation;
+        }
+    }
+}
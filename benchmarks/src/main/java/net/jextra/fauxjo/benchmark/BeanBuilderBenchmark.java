@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+/**
+ * Mapping of ResultSet rows to beans. buildBean replays an already executed scrollable ResultSet so it excludes the database, getList
+ * includes executing the query.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BeanBuilderBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "1", "100" } )
+    public int rowCn;
+
+    private Connection conn;
+    private PreparedStatement queryStatement;
+    private PreparedStatement scrollStatement;
+    private ResultSet scrollRs;
+    private BeanBuilder<BenchItem> builder;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        conn = BenchDatabase.open( "beanbuilder" );
+        BenchDatabase.populate( conn, 1000 );
+
+        queryStatement = conn.prepareStatement( BenchDatabase.SELECT_SQL );
+        queryStatement.setLong( 1, 1 );
+        queryStatement.setLong( 2, rowCn );
+
+        scrollStatement = conn.prepareStatement( BenchDatabase.SELECT_SQL, ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY );
+        scrollStatement.setLong( 1, 1 );
+        scrollStatement.setLong( 2, rowCn );
+        scrollRs = scrollStatement.executeQuery();
+
+        builder = new BeanBuilder<>( BenchItem.class, true );
+    }
+
+    @TearDown
+    public void tearDown()
+        throws SQLException
+    {
+        scrollRs.close();
+        scrollStatement.close();
+        queryStatement.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public void buildBean( Blackhole blackhole )
+        throws SQLException
+    {
+        scrollRs.beforeFirst();
+        while ( scrollRs.next() )
+        {
+            blackhole.consume( builder.buildBean( scrollRs ) );
+        }
+    }
+
+    @Benchmark
+    public List<BenchItem> getList()
+        throws SQLException
+    {
+        return builder.getList( queryStatement.executeQuery() );
+    }
+}
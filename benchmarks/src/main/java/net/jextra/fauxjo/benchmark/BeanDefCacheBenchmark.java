@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.beandef.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Lookups of the cached bean definitions done for every bean built, bound, hashed and compared.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class BeanDefCacheBenchmark
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Benchmark
+    public BeanDef getBeanDef()
+        throws FauxjoException
+    {
+        return BeanDefCache.getBeanDef( BenchItem.class );
+    }
+
+    @Benchmark
+    public Map<String, FieldDef> getFieldDefs()
+        throws FauxjoException
+    {
+        return BeanDefCache.getFieldDefs( BenchItem.class );
+    }
+
+    @Benchmark
+    @Threads( 4 )
+    public BeanDef getBeanDefContended()
+        throws FauxjoException
+    {
+        return BeanDefCache.getBeanDef( BenchItem.class );
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.benchmark.synthetic.*;
+
+/**
+ * Embedded in-memory H2 database holding the bench_item table, or its synthetic equivalent to factor out the database.
+ */
+public class BenchDatabase
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String TABLE_NAME = "bench_item";
+    public static final String SELECT_SQL = "select * from bench_item where id between ? and ?";
+
+    // DATABASE_TO_LOWER so that the metadata lookups of Table find the lower case table name.
+    private static final String URL = "jdbc:h2:mem:%s;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE";
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return a Connection to a new database with an empty bench_item table. Each name is a separate database.
+     */
+    public static Connection open( String name )
+        throws SQLException
+    {
+        Connection conn = DriverManager.getConnection( getUrl( name ) );
+        try ( Statement statement = conn.createStatement() )
+        {
+            statement.execute( "drop table if exists bench_item" );
+            statement.execute( "create table bench_item (id bigint primary key, name varchar(64), qty int, price decimal(12,2), " +
+                "created timestamp, active boolean)" );
+        }
+
+        return conn;
+    }
+
+    /**
+     * Return the url of the named database, e.g. to open more Connections to a database created by open.
+     */
+    public static String getUrl( String name )
+    {
+        return String.format( URL, name );
+    }
+
+    public static void truncate( Connection conn )
+        throws SQLException
+    {
+        try ( Statement statement = conn.createStatement() )
+        {
+            statement.execute( "truncate table bench_item" );
+        }
+    }
+
+    /**
+     * Insert rows with ids from 1 to rowCn.
+     */
+    public static void populate( Connection conn, int rowCn )
+        throws SQLException
+    {
+        try ( PreparedStatement statement = conn.prepareStatement( "insert into bench_item values (?, ?, ?, ?, ?, ?)" ) )
+        {
+            for ( BenchItem item : items( 1, rowCn ) )
+            {
+                statement.setLong( 1, item.getId() );
+                statement.setString( 2, item.getName() );
+                statement.setInt( 3, item.getQty() );
+                statement.setBigDecimal( 4, item.getPrice() );
+                statement.setTimestamp( 5, item.getCreated() );
+                statement.setBoolean( 6, item.getActive() );
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Return the bench_item table for a {@link SyntheticConnection} with extra unmapped varchar columns to vary the row width.
+     */
+    public static SyntheticTable syntheticTable( int extraColumnCn, int rowCn )
+    {
+        SyntheticTable table = new SyntheticTable( TABLE_NAME ).column( "id", Types.BIGINT ).column( "name", Types.VARCHAR ).column( "qty",
+            Types.INTEGER ).column( "price", Types.DECIMAL ).column( "created", Types.TIMESTAMP ).column( "active", Types.BOOLEAN );
+        for ( int i = 1; i <= extraColumnCn; i++ )
+        {
+            table.column( "extra" + i, Types.VARCHAR );
+        }
+
+        return table.rows( rowCn );
+    }
+
+    public static List<BenchItem> items( long firstId, int count )
+    {
+        List<BenchItem> items = new ArrayList<>( count );
+        for ( int i = 0; i < count; i++ )
+        {
+            items.add( new BenchItem( firstId + i ) );
+        }
+
+        return items;
+    }
+}
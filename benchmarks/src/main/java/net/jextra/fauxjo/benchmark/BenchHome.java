@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Home of the bench_item table used by the load harness.
+ */
+public class BenchHome extends Home<BenchItem>
+{
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public BenchHome()
+    {
+        super( BenchDatabase.TABLE_NAME, BenchItem.class );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public BenchItem findById( long id )
+        throws SQLException
+    {
+        PreparedStatement statement = prepareStatement( buildBasicSelect( "where id = ?" ) );
+        statement.setLong( 1, id );
+
+        return getFirst( statement.executeQuery() );
+    }
+
+    public List<BenchItem> findRange( long firstId, long lastId )
+        throws SQLException
+    {
+        PreparedStatement statement = prepareStatement( BenchDatabase.SELECT_SQL );
+        statement.setLong( 1, firstId );
+        statement.setLong( 2, lastId );
+
+        return getList( statement.executeQuery() );
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.util.concurrent.atomic.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * HomeGroup of the load harness. Counts its instances so that lost HomeGroupCache updates (more instances than names used) show up.
+ */
+public class BenchHomeGroup extends HomeGroup
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final AtomicInteger instanceCn = new AtomicInteger();
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public BenchHomeGroup()
+    {
+        instanceCn.incrementAndGet();
+        // The StatementCache is what is being stressed so always enable it.
+        BenchHome home = new BenchHome();
+        home.setStatementCacheEnabled( true );
+        addHome( BenchHome.class, home );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static int getInstanceCount()
+    {
+        return instanceCn.get();
+    }
+
+    public BenchHome getBenchHome()
+    {
+        return getHome( BenchHome.class );
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.math.*;
+import java.sql.*;
+import net.jextra.fauxjo.bean.*;
+
+/**
+ * Bean of the bench_item table used by all benchmarks.
+ */
+public class BenchItem extends Fauxjo
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @FauxjoPrimaryKey
+    @FauxjoField( "id" )
+    private Long id;
+
+    @FauxjoField( "name" )
+    private String name;
+
+    @FauxjoField( "qty" )
+    private Integer qty;
+
+    @FauxjoField( "price" )
+    private BigDecimal price;
+
+    @FauxjoField( "created" )
+    private Timestamp created;
+
+    @FauxjoField( "active" )
+    private Boolean active;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public BenchItem()
+    {
+    }
+
+    public BenchItem( long id )
+    {
+        this.id = id;
+        name = "item-" + id;
+        qty = (int) ( id % 1000 );
+        price = BigDecimal.valueOf( id % 10000, 2 );
+        created = new Timestamp( 1500000000000L + id * 1000 );
+        active = id % 2 == 0;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public Long getId()
+    {
+        return id;
+    }
+
+    public void setId( Long id )
+    {
+        this.id = id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public void setName( String name )
+    {
+        this.name = name;
+    }
+
+    public Integer getQty()
+    {
+        return qty;
+    }
+
+    public void setQty( Integer qty )
+    {
+        this.qty = qty;
+    }
+
+    public BigDecimal getPrice()
+    {
+        return price;
+    }
+
+    public void setPrice( BigDecimal price )
+    {
+        this.price = price;
+    }
+
+    public Timestamp getCreated()
+    {
+        return created;
+    }
+
+    public void setCreated( Timestamp created )
+    {
+        this.created = created;
+    }
+
+    public Boolean getActive()
+    {
+        return active;
+    }
+
+    public void setActive( Boolean active )
+    {
+        this.active = active;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import org.openjdk.jmh.profile.*;
+import org.openjdk.jmh.results.format.*;
+import org.openjdk.jmh.runner.*;
+import org.openjdk.jmh.runner.options.*;
+
+/**
+ * Run the benchmarks with the GC profiler to report allocation rates (gc.alloc.rate.norm is bytes allocated per operation).<p>
+ *
+ * Usage: java -cp target/benchmarks.jar net.jextra.fauxjo.benchmark.BenchmarkMain [include regex] [result json file]
+ */
+public class BenchmarkMain
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String... args )
+        throws RunnerException
+    {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include( args.length > 0 ? args[0] : BenchmarkMain.class.getPackage().getName() + ".*" )
+            .addProfiler( GCProfiler.class );
+
+        if ( args.length > 1 )
+        {
+            options.resultFormat( ResultFormatType.JSON ).result( args[1] );
+        }
+
+        new Runner( options.build() ).run();
+    }
+}
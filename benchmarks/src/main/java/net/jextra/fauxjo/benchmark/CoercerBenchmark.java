@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.math.*;
+import java.sql.*;
+import java.time.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.coercer.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Coercer.convertTo across the type pairs typically seen between jdbc values and bean fields.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class CoercerBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "Integer>Integer", "Integer>Long", "Long>Integer", "String>Integer", "BigDecimal>Double", "Timestamp>Date", "Timestamp>Instant",
+        "Timestamp>LocalDateTime" } )
+    public String pair;
+
+    private Coercer coercer;
+    private Object value;
+    private Class<?> targetClass;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+    {
+        coercer = new Coercer();
+
+        String[] classes = pair.split( ">" );
+        value = sampleValue( classes[0] );
+        targetClass = sampleValue( classes[1] ).getClass();
+    }
+
+    @Benchmark
+    public Object convertTo()
+        throws FauxjoException
+    {
+        return coercer.convertTo( value, targetClass );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static Object sampleValue( String simpleClassName )
+    {
+        switch ( simpleClassName )
+        {
+            case "Integer":
+                return 42;
+            case "Long":
+                return 42L;
+            case "String":
+                return "42";
+            case "BigDecimal":
+                return new BigDecimal( "42.50" );
+            case "Double":
+                return 42.5;
+            case "Timestamp":
+                return new Timestamp( 1500000000000L );
+            case "Date":
+                return new java.util.Date( 1500000000000L );
+            case "Instant":
+                return Instant.ofEpochMilli( 1500000000000L );
+            case "LocalDateTime":
+                return LocalDateTime.of( 2017, 7, 14, 2, 40 );
+            default:
+                throw new IllegalArgumentException( "Unknown class " + simpleClassName );
+        }
+    }
+}
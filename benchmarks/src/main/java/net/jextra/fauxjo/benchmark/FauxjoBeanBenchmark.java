@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.util.concurrent.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Fauxjo.hashCode and equals which are based on the primary key.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class FauxjoBeanBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private BenchItem item;
+    private BenchItem sameKeyItem;
+    private BenchItem otherKeyItem;
+    private CachedHashItem cachedItem;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+    {
+        item = new BenchItem( 7 );
+        sameKeyItem = new BenchItem( 7 );
+        otherKeyItem = new BenchItem( 8 );
+        cachedItem = new CachedHashItem( 7 );
+    }
+
+    @Benchmark
+    public int hashCodeUncached()
+    {
+        return item.hashCode();
+    }
+
+    @Benchmark
+    public int hashCodeCached()
+    {
+        return cachedItem.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalsSameKey()
+    {
+        return item.equals( sameKeyItem );
+    }
+
+    @Benchmark
+    public boolean equalsOtherKey()
+    {
+        return item.equals( otherKeyItem );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public static class CachedHashItem extends BenchItem
+    {
+        public CachedHashItem()
+        {
+        }
+
+        public CachedHashItem( long id )
+        {
+            super( id );
+        }
+
+        @Override
+        protected boolean isHashCodeCacheable()
+        {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.benchmark.synthetic.*;
+
+/**
+ * Multi-threaded load harness that reports throughput and latency percentiles by thread count to show where fauxjo stops scaling.<p>
+ *
+ * Every worker thread has its own Connection and on every operation looks up its HomeGroup by name in a shared
+ * {@link HomeGroupCache}, then reads by id, inserts or batch updates through a {@link BenchHome}. This exercises the ThreadLocal maps of
+ * the StatementCache, the BeanDefCache and HomeGroupCache.use concurrently. With --synthetic the database is factored out (the
+ * embedded H2 database serializes much of its work so it limits scaling by itself). Note that virtual threads are not preempted, with
+ * the cpu bound synthetic driver and few carrier threads some workers may not get to run before the deadline.<p>
+ *
+ * Usage: java -cp target/benchmarks.jar net.jextra.fauxjo.benchmark.LoadHarness [--threads 1,2,4,8] [--seconds 5] [--warmup 3]
+ * [--mix read,insert,batchUpdate percents e.g. 70,20,10] [--virtual] [--synthetic]
+ */
+public class LoadHarness
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int ROWS_PER_WORKER = 100;
+    private static final int BATCH_SIZE = 10;
+    private static final long INSERT_FIRST_ID = 1_000_000_000L;
+    private static final String[] OP_NAMES = { "read", "insert", "batchUpdate" };
+
+    private int[] threadCounts;
+    private int seconds = 5;
+    private int warmupSeconds = 3;
+    private int readPercent = 70;
+    private int insertPercent = 20;
+    private boolean virtual;
+    private boolean synthetic;
+
+    private String url;
+    private HomeGroupCache<BenchHomeGroup> homeGroupCache;
+    private final AtomicLong nextInsertId = new AtomicLong( INSERT_FIRST_ID );
+    private final AtomicInteger reconnectCn = new AtomicInteger();
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String... args )
+        throws Exception
+    {
+        LoadHarness harness = new LoadHarness();
+        harness.parseArgs( args );
+        harness.run();
+    }
+
+    public void run()
+        throws Exception
+    {
+        int maxThreads = Arrays.stream( threadCounts ).max().orElse( 1 );
+        setupDatabase( maxThreads );
+        homeGroupCache = new HomeGroupCache<>( BenchHomeGroup.class );
+
+        System.out.println( String.format( "cores: %d, %s threads %s, %s, mix: read %d%% insert %d%% batchUpdate %d%%",
+            Runtime.getRuntime().availableProcessors(), virtual ? "virtual" : "platform", Arrays.toString( threadCounts ), synthetic ?
+                "synthetic driver" : "h2 in-memory", readPercent, insertPercent, 100 - readPercent - insertPercent ) );
+
+        if ( warmupSeconds > 0 )
+        {
+            runLoad( maxThreads, warmupSeconds );
+        }
+
+        System.out.println( String.format( "%8s %-12s %12s %10s %10s %10s %10s", "threads", "op", "ops/s", "p50Us", "p99Us", "p999Us",
+            "errors" ) );
+        for ( int threadCn : threadCounts )
+        {
+            LoadResult result = runLoad( threadCn, seconds );
+            result.print( threadCn );
+        }
+
+        System.out.println( String.format( "HomeGroups created: %d for %d names, reconnects after lost HomeGroupCache updates: %d",
+            BenchHomeGroup.getInstanceCount(), maxThreads, reconnectCn.get() ) );
+        System.out.println( "StatementCache: " + StatementCache.getMetrics().getHitRatio() + " hit ratio, " + StatementCache.getMetrics()
+            .getLiveStatements() + " live statements" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void parseArgs( String... args )
+    {
+        int cores = Runtime.getRuntime().availableProcessors();
+        List<Integer> counts = new ArrayList<>();
+        for ( int n = 1; n <= cores * 2; n *= 2 )
+        {
+            counts.add( n );
+        }
+        threadCounts = counts.stream().mapToInt( Integer::intValue ).toArray();
+
+        for ( int i = 0; i < args.length; i++ )
+        {
+            switch ( args[i] )
+            {
+                case "--threads":
+                    threadCounts = Arrays.stream( args[++i].split( "," ) ).mapToInt( Integer::parseInt ).toArray();
+                    break;
+                case "--seconds":
+                    seconds = Integer.parseInt( args[++i] );
+                    break;
+                case "--warmup":
+                    warmupSeconds = Integer.parseInt( args[++i] );
+                    break;
+                case "--mix":
+                    String[] mix = args[++i].split( "," );
+                    readPercent = Integer.parseInt( mix[0] );
+                    insertPercent = Integer.parseInt( mix[1] );
+                    break;
+                case "--virtual":
+                    virtual = true;
+                    break;
+                case "--synthetic":
+                    synthetic = true;
+                    break;
+                default:
+                    throw new IllegalArgumentException( "Unknown argument " + args[i] );
+            }
+        }
+    }
+
+    private void setupDatabase( int maxThreads )
+        throws SQLException
+    {
+        if ( synthetic )
+        {
+            // One row so that reads by id find exactly one bean.
+            url = SyntheticDriver.register( "load", BenchDatabase.syntheticTable( 0, 1 ) );
+            return;
+        }
+
+        // Kept open for the life of the harness, DB_CLOSE_DELAY keeps the database anyway.
+        Connection conn = BenchDatabase.open( "load" );
+        BenchDatabase.populate( conn, maxThreads * ROWS_PER_WORKER );
+        url = BenchDatabase.getUrl( "load" );
+    }
+
+    private LoadResult runLoad( int threadCn, int runSeconds )
+        throws Exception
+    {
+        LoadResult result = new LoadResult();
+        CountDownLatch ready = new CountDownLatch( threadCn );
+        CountDownLatch start = new CountDownLatch( 1 );
+        CountDownLatch done = new CountDownLatch( threadCn );
+        AtomicLong deadline = new AtomicLong();
+
+        ThreadFactory threadFactory = getThreadFactory();
+        for ( int i = 0; i < threadCn; i++ )
+        {
+            int workerIndex = i;
+            threadFactory.newThread( () ->
+            {
+                try ( Connection conn = DriverManager.getConnection( url ) )
+                {
+                    ready.countDown();
+                    start.await();
+                    work( workerIndex, conn, deadline.get(), result );
+                }
+                catch ( Exception ex )
+                {
+                    result.error( ex );
+                }
+                finally
+                {
+                    done.countDown();
+                }
+            } ).start();
+        }
+
+        ready.await();
+        long startNanos = System.nanoTime();
+        deadline.set( startNanos + TimeUnit.SECONDS.toNanos( runSeconds ) );
+        start.countDown();
+        done.await();
+        result.elapsedNanos = System.nanoTime() - startNanos;
+
+        return result;
+    }
+
+    private void work( int workerIndex, Connection conn, long deadline, LoadResult result )
+        throws SQLException
+    {
+        String instanceName = "worker-" + workerIndex;
+        long firstId = (long) workerIndex * ROWS_PER_WORKER + 1;
+        BenchItem insertItem = new BenchItem( 0 );
+        List<BenchItem> updateItems = BenchDatabase.items( firstId, BATCH_SIZE );
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while ( System.nanoTime() < deadline )
+        {
+            int roll = random.nextInt( 100 );
+            int op = roll < readPercent ? 0 : roll < readPercent + insertPercent ? 1 : 2;
+            long opStart = System.nanoTime();
+            try
+            {
+                BenchHomeGroup homeGroup = homeGroupCache.use( instanceName );
+                if ( homeGroup.getConnection() != conn )
+                {
+                    // First use in this run, or a HomeGroup lost to a concurrent HomeGroupCache update.
+                    if ( homeGroup.getConnection() != null && !homeGroup.getConnection().isClosed() )
+                    {
+                        reconnectCn.incrementAndGet();
+                    }
+                    homeGroup.setConnection( conn );
+                }
+                BenchHome home = homeGroup.getBenchHome();
+
+                switch ( op )
+                {
+                    case 0:
+                        home.findById( firstId + random.nextInt( ROWS_PER_WORKER ) );
+                        break;
+                    case 1:
+                        insertItem.setId( nextInsertId.getAndIncrement() );
+                        home.insert( insertItem );
+                        break;
+                    default:
+                        for ( BenchItem item : updateItems )
+                        {
+                            item.setQty( item.getQty() + 1 );
+                        }
+                        home.update( updateItems );
+                        break;
+                }
+                result.latencies[op].record( System.nanoTime() - opStart );
+            }
+            catch ( SQLException | RuntimeException ex )
+            {
+                result.error( ex );
+            }
+        }
+    }
+
+    /*
+     * Virtual threads (Java 21+) are looked up reflectively so that the harness still builds and runs on Java 8 (with platform threads).
+     */
+    private ThreadFactory getThreadFactory()
+    {
+        if ( virtual )
+        {
+            try
+            {
+                Object builder = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+                Method factory = Class.forName( "java.lang.Thread$Builder" ).getMethod( "factory" );
+
+                return (ThreadFactory) factory.invoke( builder );
+            }
+            catch ( ReflectiveOperationException ex )
+            {
+                System.err.println( "Virtual threads are not available in Java " + System.getProperty( "java.version" ) +
+                    ", using platform threads." );
+                virtual = false;
+            }
+        }
+
+        AtomicInteger threadCn = new AtomicInteger();
+        return runnable -> new Thread( runnable, "fauxjo-load-" + threadCn.incrementAndGet() );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class LoadResult
+    {
+        private final LatencyHistogram[] latencies = new LatencyHistogram[OP_NAMES.length];
+        private final LongAdder errorCn = new LongAdder();
+        private final AtomicBoolean errorPrinted = new AtomicBoolean();
+        private long elapsedNanos;
+
+        public LoadResult()
+        {
+            for ( int i = 0; i < latencies.length; i++ )
+            {
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+
+        public void error( Exception ex )
+        {
+            errorCn.increment();
+            if ( errorPrinted.compareAndSet( false, true ) )
+            {
+                ex.printStackTrace();
+            }
+        }
+
+        public void print( int threadCn )
+        {
+            long count = 0;
+            for ( int i = 0; i < latencies.length; i++ )
+            {
+                print( threadCn, OP_NAMES[i], latencies[i] );
+                count += latencies[i].getCount();
+            }
+            System.out.println( String.format( "%8d %-12s %12.1f %10s %10s %10s %10d", threadCn, "all", count * 1e9 / elapsedNanos, "", "",
+                "", errorCn.sum() ) );
+        }
+
+        private void print( int threadCn, String op, LatencyHistogram latency )
+        {
+            System.out.println( String.format( "%8d %-12s %12.1f %10.1f %10.1f %10.1f %10s", threadCn, op, latency.getCount() * 1e9 /
+                elapsedNanos, latency.getPercentileNanos( 50 ) / 1000.0, latency.getPercentileNanos( 99 ) / 1000.0, latency
+                .getPercentileNanos( 99.9 ) / 1000.0, "" ) );
+        }
+    }
+}
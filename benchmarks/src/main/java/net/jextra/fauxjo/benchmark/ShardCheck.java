@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Functional check of a {@link ShardedHomeGroup} across several separate h2 in-memory databases. Writes are routed by the shard
+ * function, every bean must be found on its own shard only and cross-shard queries must see all of them. Exits with status 1 if any
+ * check fails.<p>
+ *
+ * Usage: java -cp target/benchmarks.jar net.jextra.fauxjo.benchmark.ShardCheck
+ */
+public class ShardCheck
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int SHARD_CN = 3;
+    private static final int ROW_CN = 300;
+
+    private static boolean failed;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static void main( String... args )
+        throws Exception
+    {
+        List<BenchHomeGroup> shards = new ArrayList<>();
+        Connection[] conns = new Connection[SHARD_CN];
+        for ( int i = 0; i < SHARD_CN; i++ )
+        {
+            shards.add( new BenchHomeGroup() );
+            conns[i] = BenchDatabase.open( "shard" + i );
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool( SHARD_CN );
+        try ( ShardedHomeGroup<BenchHomeGroup> group = new ShardedHomeGroup<>( shards ).setExecutor( executor ) )
+        {
+            group.setConnections( conns );
+            ShardedHome<BenchItem> home = group.getHome( BenchHome.class );
+
+            List<BenchItem> items = BenchDatabase.items( 1, ROW_CN );
+            home.insertBatch( items );
+
+            int[] counts = new int[SHARD_CN];
+            for ( BenchItem item : items )
+            {
+                int shard = home.shardOf( item );
+                counts[shard]++;
+                for ( int i = 0; i < SHARD_CN; i++ )
+                {
+                    BenchItem found = ( (BenchHome) home.getHome( i ) ).findById( item.getId() );
+                    if ( ( found != null ) != ( i == shard ) )
+                    {
+                        fail( String.format( "Item %d expected on shard %d only but %s on shard %d", item.getId(), shard,
+                            found == null ? "missing" : "found", i ) );
+                    }
+                }
+            }
+            System.out.println( "rows per shard " + Arrays.toString( counts ) );
+            for ( int count : counts )
+            {
+                check( count > 0, "Every shard should get some rows" );
+            }
+
+            List<BenchItem> all = home.queryAll( shardHome -> ( (BenchHome) shardHome ).findRange( 1, ROW_CN ) );
+            check( all.size() == ROW_CN, "queryAll returned " + all.size() + " rows" );
+
+            List<Long> merged = home.queryMerged( shardHome -> ( (BenchHome) shardHome ).findRange( 1, ROW_CN ),
+                Comparator.comparing( BenchItem::getId ) ).map( BenchItem::getId ).collect( Collectors.toList() );
+            check( merged.equals( LongStream.rangeClosed( 1, ROW_CN ).boxed().collect( Collectors.toList() ) ),
+                "queryMerged is not in id order" );
+
+            List<BenchItem> deleted = items.subList( 0, ROW_CN / 2 );
+            home.deleteBatch( deleted );
+            all = home.queryAll( shardHome -> ( (BenchHome) shardHome ).findRange( 1, ROW_CN ) );
+            check( all.size() == ROW_CN - deleted.size(), "after deleteBatch queryAll returned " + all.size() + " rows" );
+
+            try
+            {
+                group.setShardFunction( ShardFunction.hash() );
+                fail( "setShardFunction after getHome should throw" );
+            }
+            catch ( IllegalStateException ex )
+            {
+                // Expected, the ShardedHome already handed out keeps its shard function.
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+
+        System.out.println( failed ? "FAILED" : "OK" );
+        System.exit( failed ? 1 : 0 );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static void check( boolean condition, String message )
+    {
+        if ( !condition )
+        {
+            fail( message );
+        }
+    }
+
+    private static void fail( String message )
+    {
+        System.out.println( "FAILED: " + message );
+        failed = true;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * StatementCache.prepareStatement when the sql is cached (hit) and when every prepare evicts (miss, cycling through more distinct sql than
+ * the cache holds).
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class StatementCacheBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_ENTRIES = 16;
+    private static final int MISS_SQL_CN = MAX_ENTRIES * 4;
+
+    @Param( { "Lru", "TinyLfu" } )
+    public StatementCache.Admission admission;
+
+    private Connection conn;
+    private StatementCache cache;
+    private String[] missSqls;
+    private int missIndex;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        conn = BenchDatabase.open( "statementcache" );
+        cache = new StatementCache();
+        cache.setAdmission( admission );
+        cache.setPerConCache_Maximums( MAX_ENTRIES, null );
+
+        // Differ by column alias rather than literal so that they have distinct fingerprints.
+        missSqls = new String[MISS_SQL_CN];
+        for ( int i = 0; i < MISS_SQL_CN; i++ )
+        {
+            missSqls[i] = "select id as c" + i + " from bench_item where id = ?";
+        }
+    }
+
+    @TearDown
+    public void tearDown()
+        throws SQLException
+    {
+        cache.clear();
+        conn.close();
+    }
+
+    @Benchmark
+    public PreparedStatement hit()
+        throws SQLException
+    {
+        return cache.prepareStatement( conn, BenchDatabase.SELECT_SQL, false );
+    }
+
+    @Benchmark
+    public PreparedStatement miss()
+        throws SQLException
+    {
+        missIndex = ( missIndex + 1 ) % MISS_SQL_CN;
+
+        return cache.prepareStatement( conn, missSqls[missIndex], false );
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.benchmark.synthetic.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.*;
+
+/**
+ * BeanBuilder against the synthetic driver so the score and gc.alloc.rate.norm are the mapping overhead alone. One operation maps all
+ * rows of a query, extra columns are returned but not mapped.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SyntheticBeanBuilderBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "100" } )
+    public int rowCn;
+
+    @Param( { "0", "24" } )
+    public int extraColumnCn;
+
+    private PreparedStatement statement;
+    private BeanBuilder<BenchItem> builder;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        Connection conn = new SyntheticConnection( BenchDatabase.syntheticTable( extraColumnCn, rowCn ) );
+        statement = conn.prepareStatement( BenchDatabase.SELECT_SQL );
+        builder = new BeanBuilder<>( BenchItem.class, false );
+    }
+
+    @Benchmark
+    public void buildBeans( Blackhole blackhole )
+        throws SQLException
+    {
+        ResultSet rs = statement.executeQuery();
+        while ( rs.next() )
+        {
+            blackhole.consume( builder.buildBean( rs ) );
+        }
+        rs.close();
+    }
+}
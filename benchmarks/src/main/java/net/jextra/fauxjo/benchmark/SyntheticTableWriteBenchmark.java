@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import net.jextra.fauxjo.benchmark.synthetic.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Table write methods and StatementCache against the synthetic driver so the scores are the binding and caching overhead alone.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class SyntheticTableWriteBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    @Param( { "100" } )
+    public int batchSize;
+
+    private Table<BenchItem> table;
+    private StatementCache statementCache;
+    private Connection conn;
+    private BenchItem item;
+    private List<BenchItem> items;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup
+    public void setup()
+        throws SQLException
+    {
+        conn = new SyntheticConnection( BenchDatabase.syntheticTable( 0, 0 ) );
+        table = new Table<>( BenchDatabase.TABLE_NAME, BenchItem.class );
+        table.setConnection( conn );
+        statementCache = new StatementCache();
+
+        item = new BenchItem( 1 );
+        items = BenchDatabase.items( 1, batchSize );
+    }
+
+    @TearDown
+    public void tearDown()
+        throws SQLException
+    {
+        table.close();
+        statementCache.clear();
+    }
+
+    @Benchmark
+    public int insert()
+        throws SQLException
+    {
+        return table.insert( item );
+    }
+
+    @Benchmark
+    public int update()
+        throws SQLException
+    {
+        return table.update( item );
+    }
+
+    @Benchmark
+    public int[] insertBatch()
+        throws SQLException
+    {
+        return table.insertBatch( items );
+    }
+
+    @Benchmark
+    public int[] updateBatch()
+        throws SQLException
+    {
+        return table.updateBatch( items );
+    }
+
+    @Benchmark
+    public PreparedStatement statementCacheHit()
+        throws SQLException
+    {
+        return statementCache.prepareStatement( conn, BenchDatabase.SELECT_SQL, false );
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Parameter binding of the Table write methods. The beans are built once in setup so only the binding and execute are measured.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 3, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TableWriteBenchmark
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Ids of inserted beans start here to not collide with the populated rows being updated.
+    private static final long INSERT_FIRST_ID = 1_000_000;
+
+    @Param( { "100" } )
+    public int batchSize;
+
+    @Param( { "true", "false" } )
+    public boolean statementCache;
+
+    private Connection conn;
+    private Table<BenchItem> table;
+    private BenchItem insertItem;
+    private List<BenchItem> insertItems;
+    private List<BenchItem> updateItems;
+    private long nextId;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Setup( Level.Trial )
+    public void setup()
+        throws SQLException
+    {
+        conn = BenchDatabase.open( "tablewrite" );
+        table = new Table<>( BenchDatabase.TABLE_NAME, BenchItem.class );
+        table.setStatementCacheEnabled( statementCache );
+        table.setConnection( conn );
+
+        insertItem = new BenchItem( INSERT_FIRST_ID );
+        insertItems = BenchDatabase.items( INSERT_FIRST_ID, batchSize );
+        updateItems = BenchDatabase.items( 1, batchSize );
+    }
+
+    @Setup( Level.Iteration )
+    public void setupIteration()
+        throws SQLException
+    {
+        BenchDatabase.truncate( conn );
+        BenchDatabase.populate( conn, batchSize );
+        nextId = INSERT_FIRST_ID;
+    }
+
+    @TearDown( Level.Trial )
+    public void tearDown()
+        throws SQLException
+    {
+        table.close();
+        conn.close();
+    }
+
+    @Benchmark
+    public int insert()
+        throws SQLException
+    {
+        insertItem.setId( nextId++ );
+
+        return table.insert( insertItem );
+    }
+
+    @Benchmark
+    public int insertMultiRow()
+        throws SQLException
+    {
+        assignIds( insertItems );
+
+        return table.insert( insertItems );
+    }
+
+    @Benchmark
+    public int[] insertBatch()
+        throws SQLException
+    {
+        assignIds( insertItems );
+
+        return table.insertBatch( insertItems );
+    }
+
+    @Benchmark
+    public int[] updateBatch()
+        throws SQLException
+    {
+        for ( BenchItem item : updateItems )
+        {
+            item.setQty( item.getQty() + 1 );
+        }
+
+        return table.updateBatch( updateItems );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void assignIds( List<BenchItem> items )
+    {
+        for ( BenchItem item : items )
+        {
+            item.setId( nextId++ );
+        }
+    }
+}
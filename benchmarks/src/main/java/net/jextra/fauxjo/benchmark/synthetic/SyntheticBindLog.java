@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Bind and execute calls received by the statements of a synthetic Connection. Counting never allocates, the individual calls
+ * (e.g. "setInt(1, 42)") are only kept while recording is enabled.
+ */
+public class SyntheticBindLog
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final AtomicLong prepareCn = new AtomicLong();
+    private final AtomicLong bindCn = new AtomicLong();
+    private final AtomicLong executeCn = new AtomicLong();
+    private final AtomicLong batchCn = new AtomicLong();
+    private volatile boolean recording;
+    private final List<String> calls = Collections.synchronizedList( new ArrayList<>() );
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public boolean isRecording()
+    {
+        return recording;
+    }
+
+    public SyntheticBindLog setRecording( boolean recording )
+    {
+        this.recording = recording;
+        return this;
+    }
+
+    public long getPrepareCount()
+    {
+        return prepareCn.get();
+    }
+
+    public long getBindCount()
+    {
+        return bindCn.get();
+    }
+
+    public long getExecuteCount()
+    {
+        return executeCn.get();
+    }
+
+    /**
+     * Rows added with addBatch.
+     */
+    public long getBatchCount()
+    {
+        return batchCn.get();
+    }
+
+    /**
+     * Return a copy of the recorded calls in order.
+     */
+    public List<String> getCalls()
+    {
+        synchronized ( calls )
+        {
+            return new ArrayList<>( calls );
+        }
+    }
+
+    public void reset()
+    {
+        prepareCn.set( 0 );
+        bindCn.set( 0 );
+        executeCn.set( 0 );
+        batchCn.set( 0 );
+        calls.clear();
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    void prepared( String sql )
+    {
+        prepareCn.incrementAndGet();
+        if ( recording )
+        {
+            calls.add( "prepare(" + sql + ")" );
+        }
+    }
+
+    void bound()
+    {
+        bindCn.incrementAndGet();
+    }
+
+    void record( String method, int parameterIndex, Object value )
+    {
+        calls.add( method + "(" + parameterIndex + ", " + ( value instanceof byte[] ? "byte[" + ( (byte[]) value ).length + "]" : value ) +
+            ")" );
+    }
+
+    void executed( String method )
+    {
+        executeCn.incrementAndGet();
+        if ( recording )
+        {
+            calls.add( method + "()" );
+        }
+    }
+
+    void batchAdded()
+    {
+        batchCn.incrementAndGet();
+        if ( recording )
+        {
+            calls.add( "addBatch()" );
+        }
+    }
+}
@@ -0,0 +1,579 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.lang.reflect.*;
+import java.sql.*;
+import java.sql.Array;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * In-process Connection without a database. Queries return rows generated from the {@link SyntheticTable} named after "from" (or the
+ * first table), updates succeed and all binds are counted in the {@link SyntheticBindLog}. The DatabaseMetaData describes the tables so
+ * fauxjo Tables can resolve their columns.
+ */
+public class SyntheticConnection implements Connection
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final Map<String, SyntheticTable> tables = new LinkedHashMap<>();
+    private final SyntheticBindLog bindLog;
+    private final DatabaseMetaData metaData;
+    private boolean autoCommit = true;
+    private boolean readOnly;
+    private int transactionIsolation = TRANSACTION_READ_COMMITTED;
+    private int holdability = ResultSet.CLOSE_CURSORS_AT_COMMIT;
+    private String schema;
+    private volatile boolean closed;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SyntheticConnection( SyntheticTable... tables )
+    {
+        this( new SyntheticBindLog(), tables );
+    }
+
+    /**
+     * @param bindLog shared by all Connections of a synthetic database
+     */
+    public SyntheticConnection( SyntheticBindLog bindLog, SyntheticTable... tables )
+    {
+        this.bindLog = bindLog;
+        for ( SyntheticTable table : tables )
+        {
+            this.tables.put( table.getName(), table );
+        }
+        metaData = createMetaData();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public SyntheticBindLog getBindLog()
+    {
+        return bindLog;
+    }
+
+    public Collection<SyntheticTable> getTables()
+    {
+        return Collections.unmodifiableCollection( tables.values() );
+    }
+
+    @Override
+    public Statement createStatement()
+        throws SQLException
+    {
+        throw unsupported( "createStatement" );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql )
+        throws SQLException
+    {
+        throw unsupported( "prepareCall" );
+    }
+
+    @Override
+    public String nativeSQL( String sql )
+    {
+        return sql;
+    }
+
+    @Override
+    public void setAutoCommit( boolean autoCommit )
+    {
+        this.autoCommit = autoCommit;
+    }
+
+    @Override
+    public boolean getAutoCommit()
+    {
+        return autoCommit;
+    }
+
+    @Override
+    public void commit()
+        throws SQLException
+    {
+        checkOpen();
+    }
+
+    @Override
+    public void rollback()
+        throws SQLException
+    {
+        checkOpen();
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    @Override
+    public DatabaseMetaData getMetaData()
+        throws SQLException
+    {
+        checkOpen();
+
+        return metaData;
+    }
+
+    @Override
+    public void setReadOnly( boolean readOnly )
+    {
+        this.readOnly = readOnly;
+    }
+
+    @Override
+    public boolean isReadOnly()
+    {
+        return readOnly;
+    }
+
+    @Override
+    public void setCatalog( String catalog )
+    {
+    }
+
+    @Override
+    public String getCatalog()
+    {
+        return null;
+    }
+
+    @Override
+    public void setTransactionIsolation( int level )
+    {
+        transactionIsolation = level;
+    }
+
+    @Override
+    public int getTransactionIsolation()
+    {
+        return transactionIsolation;
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+    {
+    }
+
+    @Override
+    public Statement createStatement( int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        throw unsupported( "createStatement" );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency )
+        throws SQLException
+    {
+        throw unsupported( "prepareCall" );
+    }
+
+    @Override
+    public Map<String, Class<?>> getTypeMap()
+    {
+        return new HashMap<>();
+    }
+
+    @Override
+    public void setTypeMap( Map<String, Class<?>> map )
+    {
+    }
+
+    @Override
+    public void setHoldability( int holdability )
+    {
+        this.holdability = holdability;
+    }
+
+    @Override
+    public int getHoldability()
+    {
+        return holdability;
+    }
+
+    @Override
+    public Savepoint setSavepoint()
+        throws SQLException
+    {
+        throw unsupported( "setSavepoint" );
+    }
+
+    @Override
+    public Savepoint setSavepoint( String name )
+        throws SQLException
+    {
+        throw unsupported( "setSavepoint" );
+    }
+
+    @Override
+    public void rollback( Savepoint savepoint )
+        throws SQLException
+    {
+        throw unsupported( "rollback" );
+    }
+
+    @Override
+    public void releaseSavepoint( Savepoint savepoint )
+        throws SQLException
+    {
+        throw unsupported( "releaseSavepoint" );
+    }
+
+    @Override
+    public Statement createStatement( int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        throw unsupported( "createStatement" );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public CallableStatement prepareCall( String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability )
+        throws SQLException
+    {
+        throw unsupported( "prepareCall" );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public PreparedStatement prepareStatement( String sql, String[] columnNames )
+        throws SQLException
+    {
+        return prepare( sql );
+    }
+
+    @Override
+    public Clob createClob()
+        throws SQLException
+    {
+        throw unsupported( "createClob" );
+    }
+
+    @Override
+    public Blob createBlob()
+        throws SQLException
+    {
+        throw unsupported( "createBlob" );
+    }
+
+    @Override
+    public NClob createNClob()
+        throws SQLException
+    {
+        throw unsupported( "createNClob" );
+    }
+
+    @Override
+    public SQLXML createSQLXML()
+        throws SQLException
+    {
+        throw unsupported( "createSQLXML" );
+    }
+
+    @Override
+    public boolean isValid( int timeout )
+    {
+        return !closed;
+    }
+
+    @Override
+    public void setClientInfo( String name, String value )
+    {
+    }
+
+    @Override
+    public void setClientInfo( Properties properties )
+    {
+    }
+
+    @Override
+    public String getClientInfo( String name )
+    {
+        return null;
+    }
+
+    @Override
+    public Properties getClientInfo()
+    {
+        return new Properties();
+    }
+
+    @Override
+    public Array createArrayOf( String typeName, Object[] elements )
+        throws SQLException
+    {
+        throw unsupported( "createArrayOf" );
+    }
+
+    @Override
+    public Struct createStruct( String typeName, Object[] attributes )
+        throws SQLException
+    {
+        throw unsupported( "createStruct" );
+    }
+
+    @Override
+    public void setSchema( String schema )
+    {
+        this.schema = schema;
+    }
+
+    @Override
+    public String getSchema()
+    {
+        return schema;
+    }
+
+    @Override
+    public void abort( Executor executor )
+    {
+        closed = true;
+    }
+
+    @Override
+    public void setNetworkTimeout( Executor executor, int milliseconds )
+    {
+    }
+
+    @Override
+    public int getNetworkTimeout()
+    {
+        return 0;
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper for " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+    {
+        return iface.isInstance( this );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private PreparedStatement prepare( String sql )
+        throws SQLException
+    {
+        checkOpen();
+        bindLog.prepared( sql );
+
+        return new SyntheticPreparedStatement( this, sql, getQueryTable( sql ) );
+    }
+
+    /*
+     * Return the table named after "from" of a query, the first table if not found and null if the sql is not a query.
+     */
+    private SyntheticTable getQueryTable( String sql )
+    {
+        String lower = sql.trim().toLowerCase( Locale.ROOT );
+        if ( !lower.startsWith( "select" ) && !lower.startsWith( "with" ) )
+        {
+            return null;
+        }
+
+        int start = lower.indexOf( " from " );
+        if ( start >= 0 )
+        {
+            start += " from ".length();
+            int end = start;
+            while ( end < lower.length() && ( Character.isLetterOrDigit( lower.charAt( end ) ) || lower.charAt( end ) == '_' ||
+                lower.charAt( end ) == '.' ) )
+            {
+                end++;
+            }
+            String name = lower.substring( lower.lastIndexOf( '.', end - 1 ) >= start ? lower.lastIndexOf( '.', end - 1 ) + 1 : start, end );
+            SyntheticTable table = tables.get( name );
+            if ( table != null )
+            {
+                return table;
+            }
+        }
+
+        return tables.isEmpty() ? null : tables.values().iterator().next();
+    }
+
+    private SQLException unsupported( String methodName )
+    {
+        return new SQLFeatureNotSupportedException( "Synthetic Connection does not support " + methodName );
+    }
+
+    private void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "Connection is closed" );
+        }
+    }
+
+    /*
+     * Only called while setting up Tables so a Proxy is good enough.
+     */
+    private DatabaseMetaData createMetaData()
+    {
+        return (DatabaseMetaData) Proxy.newProxyInstance( DatabaseMetaData.class.getClassLoader(), new Class<?>[] { DatabaseMetaData.class },
+            ( proxy, method, args ) ->
+            {
+                switch ( method.getName() )
+                {
+                    case "getConnection":
+                        return this;
+                    case "getDatabaseProductName":
+                    case "getDriverName":
+                        return "Synthetic";
+                    case "getURL":
+                        return SyntheticDriver.URL_PREFIX;
+                    case "supportsGetGeneratedKeys":
+                        return true;
+                    case "getTableTypes":
+                        return new SyntheticResultSet( null, new SyntheticTable( "table_types" ).column( "TABLE_TYPE", Types.VARCHAR )
+                            .fixedRows( new Object[] { "TABLE" } ) );
+                    case "getTables":
+                        return getTablesMetaData( (String) args[1], (String) args[2] );
+                    case "getColumns":
+                        return getColumnsMetaData( (String) args[1], (String) args[2] );
+                    case "hashCode":
+                        return System.identityHashCode( proxy );
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "SyntheticDatabaseMetaData";
+                    default:
+                        throw new SQLFeatureNotSupportedException( "Synthetic DatabaseMetaData does not support " + method.getName() );
+                }
+            } );
+    }
+
+    private ResultSet getTablesMetaData( String schemaPattern, String tableNamePattern )
+    {
+        List<Object[]> rows = new ArrayList<>();
+        for ( SyntheticTable table : tables.values() )
+        {
+            if ( matches( tableNamePattern, table.getName() ) )
+            {
+                rows.add( new Object[] { null, schemaPattern, table.getName(), "TABLE" } );
+            }
+        }
+
+        return new SyntheticResultSet( null, new SyntheticTable( "tables" ).column( "TABLE_CAT", Types.VARCHAR ).column( "TABLE_SCHEM",
+            Types.VARCHAR ).column( "TABLE_NAME", Types.VARCHAR ).column( "TABLE_TYPE", Types.VARCHAR ).fixedRows( rows.toArray(
+            new Object[rows.size()][] ) ) );
+    }
+
+    private ResultSet getColumnsMetaData( String schemaPattern, String tableNamePattern )
+    {
+        List<Object[]> rows = new ArrayList<>();
+        for ( SyntheticTable table : tables.values() )
+        {
+            if ( matches( tableNamePattern, table.getName() ) )
+            {
+                for ( int column = 1; column <= table.getColumnCount(); column++ )
+                {
+                    rows.add( new Object[] { null, schemaPattern, table.getName(), table.getColumnName( column ), table.getSqlType(
+                        column ) } );
+                }
+            }
+        }
+
+        return new SyntheticResultSet( null, new SyntheticTable( "columns" ).column( "TABLE_CAT", Types.VARCHAR ).column( "TABLE_SCHEM",
+            Types.VARCHAR ).column( "TABLE_NAME", Types.VARCHAR ).column( "COLUMN_NAME", Types.VARCHAR ).column( "DATA_TYPE",
+            Types.INTEGER ).fixedRows( rows.toArray( new Object[rows.size()][] ) ) );
+    }
+
+    private static boolean matches( String pattern, String name )
+    {
+        return pattern == null || pattern.equals( "%" ) || pattern.equalsIgnoreCase( name );
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.*;
+
+/**
+ * JDBC Driver for urls of the form {@code jdbc:synthetic:<database>} where the database was registered with its tables beforehand.
+ * All Connections of a database share its {@link SyntheticBindLog}.
+ */
+public class SyntheticDriver implements Driver
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String URL_PREFIX = "jdbc:synthetic:";
+
+    private static final Map<String, Database> databases = new ConcurrentHashMap<>();
+
+    static
+    {
+        try
+        {
+            DriverManager.registerDriver( new SyntheticDriver() );
+        }
+        catch ( SQLException ex )
+        {
+            throw new ExceptionInInitializerError( ex );
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Register (or replace) a database and return its url.
+     */
+    public static String register( String database, SyntheticTable... tables )
+    {
+        databases.put( database, new Database( tables ) );
+
+        return URL_PREFIX + database;
+    }
+
+    public static void unregister( String database )
+    {
+        databases.remove( database );
+    }
+
+    public static SyntheticBindLog getBindLog( String database )
+    {
+        Database db = databases.get( database );
+
+        return db == null ? null : db.bindLog;
+    }
+
+    @Override
+    public Connection connect( String url, Properties info )
+        throws SQLException
+    {
+        if ( !acceptsURL( url ) )
+        {
+            return null;
+        }
+
+        Database db = databases.get( url.substring( URL_PREFIX.length() ) );
+        if ( db == null )
+        {
+            throw new SQLException( "Synthetic database is not registered: " + url );
+        }
+
+        return new SyntheticConnection( db.bindLog, db.tables );
+    }
+
+    @Override
+    public boolean acceptsURL( String url )
+    {
+        return url != null && url.startsWith( URL_PREFIX );
+    }
+
+    @Override
+    public DriverPropertyInfo[] getPropertyInfo( String url, Properties info )
+    {
+        return new DriverPropertyInfo[0];
+    }
+
+    @Override
+    public int getMajorVersion()
+    {
+        return 1;
+    }
+
+    @Override
+    public int getMinorVersion()
+    {
+        return 0;
+    }
+
+    @Override
+    public boolean jdbcCompliant()
+    {
+        return false;
+    }
+
+    @Override
+    public Logger getParentLogger()
+        throws SQLFeatureNotSupportedException
+    {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class Database
+    {
+        private final SyntheticTable[] tables;
+        private final SyntheticBindLog bindLog = new SyntheticBindLog();
+
+        public Database( SyntheticTable[] tables )
+        {
+            this.tables = tables;
+        }
+    }
+}
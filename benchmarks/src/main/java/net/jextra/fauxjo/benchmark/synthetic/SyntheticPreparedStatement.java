@@ -0,0 +1,462 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.math.*;
+import java.sql.*;
+import java.sql.Date;
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * PreparedStatement of a {@link SyntheticConnection}. Binds are counted (and optionally recorded) in the connection's
+ * {@link SyntheticBindLog}, queries return a {@link SyntheticResultSet} over the table named in the sql and updates report one row per
+ * execute or batch entry.
+ */
+public class SyntheticPreparedStatement extends DelegatingPreparedStatement
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final SyntheticConnection conn;
+    private final String sql;
+    private final SyntheticTable table;
+    private final SyntheticBindLog bindLog;
+    private int batchCn;
+    private int maxParameterIndex;
+    private ResultSet resultSet;
+    private boolean closed;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SyntheticPreparedStatement( SyntheticConnection conn, String sql, SyntheticTable table )
+    {
+        super( Unsupported.of( PreparedStatement.class ) );
+        this.conn = conn;
+        this.sql = sql;
+        this.table = table;
+        bindLog = conn.getBindLog();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    /**
+     * Highest parameter index bound since the last clearParameters.
+     */
+    public int getMaxParameterIndex()
+    {
+        return maxParameterIndex;
+    }
+
+    @Override
+    public ResultSet executeQuery()
+        throws SQLException
+    {
+        checkOpen();
+        bindLog.executed( "executeQuery" );
+        if ( table == null )
+        {
+            throw new SQLException( "No synthetic table for sql: " + sql );
+        }
+        resultSet = new SyntheticResultSet( this, table );
+
+        return resultSet;
+    }
+
+    @Override
+    public int executeUpdate()
+        throws SQLException
+    {
+        checkOpen();
+        bindLog.executed( "executeUpdate" );
+        resultSet = null;
+
+        return 1;
+    }
+
+    @Override
+    public long executeLargeUpdate()
+        throws SQLException
+    {
+        return executeUpdate();
+    }
+
+    @Override
+    public boolean execute()
+        throws SQLException
+    {
+        if ( table != null )
+        {
+            executeQuery();
+            return true;
+        }
+
+        executeUpdate();
+        return false;
+    }
+
+    @Override
+    public void addBatch()
+        throws SQLException
+    {
+        checkOpen();
+        bindLog.batchAdded();
+        batchCn++;
+    }
+
+    @Override
+    public void clearBatch()
+    {
+        batchCn = 0;
+    }
+
+    @Override
+    public int[] executeBatch()
+        throws SQLException
+    {
+        checkOpen();
+        bindLog.executed( "executeBatch" );
+        int[] counts = new int[batchCn];
+        Arrays.fill( counts, 1 );
+        batchCn = 0;
+
+        return counts;
+    }
+
+    @Override
+    public long[] executeLargeBatch()
+        throws SQLException
+    {
+        int[] counts = executeBatch();
+        long[] largeCounts = new long[counts.length];
+        Arrays.fill( largeCounts, 1 );
+
+        return largeCounts;
+    }
+
+    @Override
+    public void clearParameters()
+    {
+        maxParameterIndex = 0;
+    }
+
+    @Override
+    public ResultSet getResultSet()
+    {
+        return resultSet;
+    }
+
+    @Override
+    public int getUpdateCount()
+    {
+        return resultSet == null ? 1 : -1;
+    }
+
+    /**
+     * Return an empty ResultSet, synthetic inserts do not generate keys.
+     */
+    @Override
+    public ResultSet getGeneratedKeys()
+        throws SQLException
+    {
+        checkOpen();
+
+        return new SyntheticResultSet( this, table == null ? new SyntheticTable( "generated_keys" ) : table, 0 );
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+    {
+        return table == null ? null : new SyntheticResultSetMetaData( table );
+    }
+
+    @Override
+    public Connection getConnection()
+    {
+        return conn;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    @Override
+    public void setFetchSize( int rows )
+    {
+    }
+
+    @Override
+    public void setQueryTimeout( int seconds )
+    {
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+    {
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setNull", parameterIndex, null );
+        }
+    }
+
+    @Override
+    public void setBoolean( int parameterIndex, boolean x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setBoolean", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setByte( int parameterIndex, byte x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setByte", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setShort( int parameterIndex, short x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setShort", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setInt( int parameterIndex, int x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setInt", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setLong( int parameterIndex, long x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setLong", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setFloat( int parameterIndex, float x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setFloat", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setDouble( int parameterIndex, double x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setDouble", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setBigDecimal( int parameterIndex, BigDecimal x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setBigDecimal", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setString( int parameterIndex, String x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setString", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setBytes( int parameterIndex, byte[] x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setBytes", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setDate( int parameterIndex, Date x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setDate", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setTime( int parameterIndex, Time x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setTime", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, Timestamp x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setTimestamp", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setObject", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setObject", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType, int scaleOrLength )
+        throws SQLException
+    {
+        bind( parameterIndex );
+        if ( bindLog.isRecording() )
+        {
+            bindLog.record( "setObject", parameterIndex, x );
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SyntheticPreparedStatement[" + sql + "]";
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void bind( int parameterIndex )
+        throws SQLException
+    {
+        checkOpen();
+        if ( parameterIndex < 1 )
+        {
+            throw new SQLException( "Invalid parameter index " + parameterIndex );
+        }
+        maxParameterIndex = Math.max( maxParameterIndex, parameterIndex );
+        bindLog.bound();
+    }
+
+    private void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "Statement is closed" );
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.math.*;
+import java.sql.*;
+import java.sql.Date;
+import net.jextra.fauxjo.*;
+
+/**
+ * Forward and scrollable ResultSet over the rows of a {@link SyntheticTable}. Reading a value is an array lookup so the cost of the
+ * code under test dominates.
+ */
+public class SyntheticResultSet extends DelegatingResultSet
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final SyntheticTable table;
+    private final int rowCn;
+    private final SyntheticResultSetMetaData metaData;
+    private int row = -1;
+    private boolean wasNull;
+    private boolean closed;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SyntheticResultSet( Statement statement, SyntheticTable table )
+    {
+        this( statement, table, table.getRowCount() );
+    }
+
+    /**
+     * @param rowCn number of rows to return (e.g. zero for empty generated keys)
+     */
+    public SyntheticResultSet( Statement statement, SyntheticTable table, int rowCn )
+    {
+        super( statement, Unsupported.of( ResultSet.class ) );
+        this.table = table;
+        this.rowCn = rowCn;
+        metaData = new SyntheticResultSetMetaData( table );
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public boolean next()
+        throws SQLException
+    {
+        checkOpen();
+        if ( row < rowCn )
+        {
+            row++;
+        }
+
+        return row < rowCn;
+    }
+
+    @Override
+    public void beforeFirst()
+        throws SQLException
+    {
+        checkOpen();
+        row = -1;
+    }
+
+    @Override
+    public boolean isBeforeFirst()
+        throws SQLException
+    {
+        return row < 0 && rowCn > 0;
+    }
+
+    @Override
+    public int getRow()
+        throws SQLException
+    {
+        return row >= 0 && row < rowCn ? row + 1 : 0;
+    }
+
+    @Override
+    public void close()
+    {
+        closed = true;
+    }
+
+    @Override
+    public boolean isClosed()
+    {
+        return closed;
+    }
+
+    @Override
+    public boolean wasNull()
+    {
+        return wasNull;
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+    {
+        return metaData;
+    }
+
+    @Override
+    public int findColumn( String columnLabel )
+        throws SQLException
+    {
+        int column = table.findColumn( columnLabel );
+        if ( column == 0 )
+        {
+            throw new SQLException( "Unknown column " + columnLabel );
+        }
+
+        return column;
+    }
+
+    @Override
+    public void setFetchSize( int rows )
+    {
+    }
+
+    @Override
+    public int getFetchSize()
+    {
+        return 0;
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+    {
+        return null;
+    }
+
+    @Override
+    public void clearWarnings()
+    {
+    }
+
+    @Override
+    public <T> T getObject( int columnIndex, Class<T> type )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+        if ( value != null && !type.isInstance( value ) )
+        {
+            throw new SQLFeatureNotSupportedException( "Synthetic ResultSet does not convert " + value.getClass().getName() + " to " + type
+                .getName() );
+        }
+
+        return type.cast( value );
+    }
+
+    @Override
+    public <T> T getObject( String columnLabel, Class<T> type )
+        throws SQLException
+    {
+        return getObject( findColumn( columnLabel ), type );
+    }
+
+    @Override
+    public String getString( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public String getString( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public boolean getBoolean( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? false : value instanceof Boolean ? (Boolean) value : ( (Number) value ).intValue() != 0;
+    }
+
+    @Override
+    public boolean getBoolean( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? false : value instanceof Boolean ? (Boolean) value : ( (Number) value ).intValue() != 0;
+    }
+
+    @Override
+    public byte getByte( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).byteValue();
+    }
+
+    @Override
+    public byte getByte( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).byteValue();
+    }
+
+    @Override
+    public short getShort( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).shortValue();
+    }
+
+    @Override
+    public short getShort( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).shortValue();
+    }
+
+    @Override
+    public int getInt( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).intValue();
+    }
+
+    @Override
+    public int getInt( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).intValue();
+    }
+
+    @Override
+    public long getLong( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).longValue();
+    }
+
+    @Override
+    public long getLong( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).longValue();
+    }
+
+    @Override
+    public float getFloat( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).floatValue();
+    }
+
+    @Override
+    public float getFloat( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).floatValue();
+    }
+
+    @Override
+    public double getDouble( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null ? 0 : ( (Number) value ).doubleValue();
+    }
+
+    @Override
+    public double getDouble( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null ? 0 : ( (Number) value ).doubleValue();
+    }
+
+    @Override
+    public BigDecimal getBigDecimal( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value == null || value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal( value.toString() );
+    }
+
+    @Override
+    public BigDecimal getBigDecimal( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value == null || value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal( value.toString() );
+    }
+
+    @Override
+    public byte[] getBytes( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return (byte[]) value;
+    }
+
+    @Override
+    public byte[] getBytes( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return (byte[]) value;
+    }
+
+    @Override
+    public Date getDate( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return (Date) value;
+    }
+
+    @Override
+    public Date getDate( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return (Date) value;
+    }
+
+    @Override
+    public Time getTime( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return (Time) value;
+    }
+
+    @Override
+    public Time getTime( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return (Time) value;
+    }
+
+    @Override
+    public Timestamp getTimestamp( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return (Timestamp) value;
+    }
+
+    @Override
+    public Timestamp getTimestamp( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return (Timestamp) value;
+    }
+
+    @Override
+    public Object getObject( int columnIndex )
+        throws SQLException
+    {
+        Object value = value( columnIndex );
+
+        return value;
+    }
+
+    @Override
+    public Object getObject( String columnLabel )
+        throws SQLException
+    {
+        Object value = value( findColumn( columnLabel ) );
+
+        return value;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private Object value( int columnIndex )
+        throws SQLException
+    {
+        checkOpen();
+        if ( row < 0 || row >= rowCn )
+        {
+            throw new SQLException( "Not on a row" );
+        }
+        if ( columnIndex < 1 || columnIndex > table.getColumnCount() )
+        {
+            throw new SQLException( "Invalid column index " + columnIndex );
+        }
+
+        Object value = table.getValue( row, columnIndex );
+        wasNull = value == null;
+
+        return value;
+    }
+
+    private void checkOpen()
+        throws SQLException
+    {
+        if ( closed )
+        {
+            throw new SQLException( "ResultSet is closed" );
+        }
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.sql.*;
+
+/**
+ * Column names and types of a {@link SyntheticTable}.
+ */
+public class SyntheticResultSetMetaData implements ResultSetMetaData
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final SyntheticTable table;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SyntheticResultSetMetaData( SyntheticTable table )
+    {
+        this.table = table;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public int getColumnCount()
+        throws SQLException
+    {
+        return table.getColumnCount();
+    }
+
+    @Override
+    public boolean isAutoIncrement( int column )
+        throws SQLException
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isCaseSensitive( int column )
+        throws SQLException
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isSearchable( int column )
+        throws SQLException
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isCurrency( int column )
+        throws SQLException
+    {
+        return false;
+    }
+
+    @Override
+    public int isNullable( int column )
+        throws SQLException
+    {
+        return columnNullable;
+    }
+
+    @Override
+    public boolean isSigned( int column )
+        throws SQLException
+    {
+        return true;
+    }
+
+    @Override
+    public int getColumnDisplaySize( int column )
+        throws SQLException
+    {
+        return 32;
+    }
+
+    @Override
+    public String getColumnLabel( int column )
+        throws SQLException
+    {
+        return table.getColumnName( column );
+    }
+
+    @Override
+    public String getColumnName( int column )
+        throws SQLException
+    {
+        return table.getColumnName( column );
+    }
+
+    @Override
+    public String getSchemaName( int column )
+        throws SQLException
+    {
+        return "";
+    }
+
+    @Override
+    public int getPrecision( int column )
+        throws SQLException
+    {
+        return 0;
+    }
+
+    @Override
+    public int getScale( int column )
+        throws SQLException
+    {
+        return 0;
+    }
+
+    @Override
+    public String getTableName( int column )
+        throws SQLException
+    {
+        return table.getName();
+    }
+
+    @Override
+    public String getCatalogName( int column )
+        throws SQLException
+    {
+        return "";
+    }
+
+    @Override
+    public int getColumnType( int column )
+        throws SQLException
+    {
+        return table.getSqlType( column );
+    }
+
+    @Override
+    public String getColumnTypeName( int column )
+        throws SQLException
+    {
+        return JDBCType.valueOf( table.getSqlType( column ) ).getName();
+    }
+
+    @Override
+    public boolean isReadOnly( int column )
+        throws SQLException
+    {
+        return true;
+    }
+
+    @Override
+    public boolean isWritable( int column )
+        throws SQLException
+    {
+        return false;
+    }
+
+    @Override
+    public boolean isDefinitelyWritable( int column )
+        throws SQLException
+    {
+        return false;
+    }
+
+    @Override
+    public String getColumnClassName( int column )
+        throws SQLException
+    {
+        return Object.class.getName();
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        throw new SQLException( "Not a wrapper for " + iface.getName() );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+    {
+        return iface.isInstance( this );
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.math.*;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Shape of the rows returned by the synthetic driver: column names, sql types and row count. Values are either given explicitly or
+ * generated once into a small pool per column so that reading a row costs an array lookup.
+ */
+public class SyntheticTable
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_POOL_SIZE = 1024;
+    private static final int[] WIDE_TYPES = { Types.VARCHAR, Types.INTEGER, Types.DECIMAL, Types.TIMESTAMP, Types.BOOLEAN, Types.BIGINT,
+        Types.DOUBLE };
+
+    private final String name;
+    private final List<String> columnNames = new ArrayList<>();
+    private final List<Integer> sqlTypes = new ArrayList<>();
+    private int rowCn;
+    private Object[][] fixedRows;
+
+    // Generated values by column then row (modulo the pool size).
+    private Object[][] pool;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SyntheticTable( String name )
+    {
+        this.name = name.toLowerCase();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return a table with a bigint "id" column followed by width - 1 columns of rotating types named c1, c2, ...
+     */
+    public static SyntheticTable wide( String name, int width, int rowCn )
+    {
+        SyntheticTable table = new SyntheticTable( name ).column( "id", Types.BIGINT );
+        for ( int i = 1; i < width; i++ )
+        {
+            table.column( "c" + i, WIDE_TYPES[( i - 1 ) % WIDE_TYPES.length] );
+        }
+
+        return table.rows( rowCn );
+    }
+
+    public SyntheticTable column( String columnName, int sqlType )
+    {
+        columnNames.add( columnName.toLowerCase() );
+        sqlTypes.add( sqlType );
+        pool = null;
+        return this;
+    }
+
+    /**
+     * Number of rows returned by queries of this table.
+     */
+    public SyntheticTable rows( int rowCn )
+    {
+        this.rowCn = rowCn;
+        fixedRows = null;
+        pool = null;
+        return this;
+    }
+
+    /**
+     * Return exactly these rows (in column order) instead of generated values.
+     */
+    public SyntheticTable fixedRows( Object[]... rows )
+    {
+        fixedRows = rows;
+        rowCn = rows.length;
+        return this;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getColumnCount()
+    {
+        return columnNames.size();
+    }
+
+    /**
+     * @param column 1 based like jdbc
+     */
+    public String getColumnName( int column )
+    {
+        return columnNames.get( column - 1 );
+    }
+
+    /**
+     * @param column 1 based like jdbc
+     */
+    public int getSqlType( int column )
+    {
+        return sqlTypes.get( column - 1 );
+    }
+
+    /**
+     * Return the 1 based column index of the name (case insensitive) or zero if there is no such column.
+     */
+    public int findColumn( String columnName )
+    {
+        for ( int i = 0; i < columnNames.size(); i++ )
+        {
+            if ( columnNames.get( i ).equalsIgnoreCase( columnName ) )
+            {
+                return i + 1;
+            }
+        }
+
+        return 0;
+    }
+
+    public int getRowCount()
+    {
+        return rowCn;
+    }
+
+    /**
+     * @param row 0 based
+     * @param column 1 based like jdbc
+     */
+    public Object getValue( int row, int column )
+    {
+        if ( fixedRows != null )
+        {
+            return fixedRows[row][column - 1];
+        }
+
+        Object[][] values = pool;
+        if ( values == null )
+        {
+            values = buildPool();
+            pool = values;
+        }
+        Object[] columnValues = values[column - 1];
+
+        return columnValues[row % columnValues.length];
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private Object[][] buildPool()
+    {
+        int poolSize = Math.max( 1, Math.min( rowCn, MAX_POOL_SIZE ) );
+        Object[][] values = new Object[columnNames.size()][poolSize];
+        for ( int c = 0; c < values.length; c++ )
+        {
+            for ( int r = 0; r < poolSize; r++ )
+            {
+                values[c][r] = generateValue( sqlTypes.get( c ), r, c );
+            }
+        }
+
+        return values;
+    }
+
+    private static Object generateValue( int sqlType, int row, int column )
+    {
+        long n = row + 1;
+        switch ( sqlType )
+        {
+            case Types.BIGINT:
+                return n;
+            case Types.INTEGER:
+                return (int) ( n * 31 + column );
+            case Types.SMALLINT:
+                return (short) n;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return BigDecimal.valueOf( n * 101, 2 );
+            case Types.DOUBLE:
+            case Types.FLOAT:
+                return n / 4.0;
+            case Types.REAL:
+                return n / 4.0f;
+            case Types.BOOLEAN:
+            case Types.BIT:
+                return n % 2 == 0;
+            case Types.TIMESTAMP:
+                return new Timestamp( 1500000000000L + n * 1000 );
+            case Types.DATE:
+                return new java.sql.Date( 1500000000000L + n * 86400000L );
+            case Types.BINARY:
+            case Types.VARBINARY:
+                return new byte[] { (byte) n, (byte) column };
+            default:
+                return "value-" + column + "-" + n;
+        }
+    }
+}
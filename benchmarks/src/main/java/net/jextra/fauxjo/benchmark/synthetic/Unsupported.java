@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.benchmark.synthetic;
+
+import java.lang.reflect.*;
+import java.sql.*;
+
+/**
+ * Implementations of jdbc interfaces whose every method throws SQLFeatureNotSupportedException. Used as the delegate of the synthetic
+ * statements and ResultSets so that they only implement the methods fauxjo actually calls.
+ */
+class Unsupported
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // private
+    // ----------
+
+    @SuppressWarnings( "unchecked" )
+    static <T> T of( Class<T> iface )
+    {
+        return (T) Proxy.newProxyInstance( iface.getClassLoader(), new Class<?>[] { iface }, ( proxy, method, args ) ->
+        {
+            if ( method.getDeclaringClass() == Object.class )
+            {
+                switch ( method.getName() )
+                {
+                    case "hashCode":
+                        return System.identityHashCode( proxy );
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return "Unsupported " + iface.getSimpleName();
+                }
+            }
+
+            throw new SQLFeatureNotSupportedException( "Synthetic " + iface.getSimpleName() + " does not support " + method.getName() );
+        } );
+    }
+}
@@ -0,0 +1,563 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.processor;
+
+import java.io.*;
+import java.util.*;
+import javax.annotation.processing.*;
+import javax.lang.model.*;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.*;
+import javax.tools.*;
+
+/**
+ * Generates a plain-Java {@code BeanAccessor} for every Fauxjo bean class in the compilation so that
+ * {@code BeanDefCache}, {@code BeanBuilder} and {@code Table} do not need introspection or reflection to
+ * create beans and read or write their values.
+ * <p>
+ * The annotations are interpreted the same way {@code BeanDefCache} does at runtime: {@code @FauxjoField}
+ * fields of the class and its super-classes first, then public {@code @FauxjoSetter}/{@code @FauxjoGetter}
+ * bean property methods. A class is silently left to the reflective fallback if it can not be accessed
+ * from generated code in its own package (e.g. a private field without a public getter and setter, a generic
+ * or abstract class, no accessible no-arg constructor) or if its annotations are invalid (the runtime
+ * reports those).
+ * <p>
+ * To use, put fauxjo-processor on the annotation processor path of the module that contains the beans:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *     &lt;path&gt;
+ *         &lt;groupId&gt;net.jextra&lt;/groupId&gt;
+ *         &lt;artifactId&gt;fauxjo-processor&lt;/artifactId&gt;
+ *         &lt;version&gt;${fauxjo.version}&lt;/version&gt;
+ *     &lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * </pre>
+ */
+@SupportedAnnotationTypes( "*" )
+public class FauxjoProcessor extends AbstractProcessor
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final String BEAN_PACKAGE = "net.jextra.fauxjo.bean.";
+    private static final String FIELD_ANNOTATION = BEAN_PACKAGE + "FauxjoField";
+    private static final String GETTER_ANNOTATION = BEAN_PACKAGE + "FauxjoGetter";
+    private static final String SETTER_ANNOTATION = BEAN_PACKAGE + "FauxjoSetter";
+    private static final String PRIMARY_KEY_ANNOTATION = BEAN_PACKAGE + "FauxjoPrimaryKey";
+
+    private static final String ACCESSOR_INTERFACE = "net.jextra.fauxjo.beandef.BeanAccessor";
+    private static final String CLASS_SUFFIX = "_FauxjoAccessor";
+
+    private Set<String> generated = new HashSet<>();
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process( Set<? extends TypeElement> annotations, RoundEnvironment roundEnv )
+    {
+        // Nothing to do if fauxjo is not on the classpath of this compilation.
+        if ( processingEnv.getElementUtils().getTypeElement( ACCESSOR_INTERFACE ) == null )
+        {
+            return false;
+        }
+
+        for ( TypeElement type : ElementFilter.typesIn( roundEnv.getRootElements() ) )
+        {
+            processType( type );
+        }
+
+        // Never claim the annotations, other processors may want them too.
+        return false;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void processType( TypeElement type )
+    {
+        for ( TypeElement nested : ElementFilter.typesIn( type.getEnclosedElements() ) )
+        {
+            processType( nested );
+        }
+
+        if ( !isGeneratable( type ) )
+        {
+            return;
+        }
+
+        List<Column> columns = buildColumns( type );
+        if ( columns == null || columns.isEmpty() )
+        {
+            return;
+        }
+
+        String binaryName = processingEnv.getElementUtils().getBinaryName( type ).toString();
+        if ( !generated.add( binaryName ) )
+        {
+            return;
+        }
+
+        try
+        {
+            writeAccessor( type, binaryName, columns );
+        }
+        catch ( IOException ex )
+        {
+            processingEnv.getMessager().printMessage( Diagnostic.Kind.ERROR, "Unable to write fauxjo accessor: " + ex.getMessage(), type );
+        }
+    }
+
+    /**
+     * Return true if generated code in the same package can create instances of the type.
+     */
+    private boolean isGeneratable( TypeElement type )
+    {
+        if ( type.getKind() != ElementKind.CLASS || type.getModifiers().contains( Modifier.ABSTRACT ) || !type.getTypeParameters().isEmpty() )
+        {
+            return false;
+        }
+
+        for ( Element e = type; e instanceof TypeElement; e = e.getEnclosingElement() )
+        {
+            if ( e.getModifiers().contains( Modifier.PRIVATE ) )
+            {
+                return false;
+            }
+
+            if ( e != type && !e.getModifiers().contains( Modifier.STATIC ) && e.getEnclosingElement() instanceof TypeElement )
+            {
+                return false;
+            }
+        }
+
+        if ( type.getNestingKind().isNested() && !type.getModifiers().contains( Modifier.STATIC ) )
+        {
+            return false;
+        }
+
+        for ( ExecutableElement constructor : ElementFilter.constructorsIn( type.getEnclosedElements() ) )
+        {
+            if ( constructor.getParameters().isEmpty() && !constructor.getModifiers().contains( Modifier.PRIVATE ) )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Mirror of BeanDefCache.getBeanDef. Returns null if the type can not (or should not) have an accessor.
+     */
+    private List<Column> buildColumns( TypeElement type )
+    {
+        List<Column> columns = new ArrayList<>();
+        Set<String> keys = new HashSet<>();
+
+        //
+        // FauxjoFields, super-class fields first.
+        //
+        LinkedList<TypeElement> hierarchy = new LinkedList<>();
+        for ( TypeElement t = type; t != null; t = getSuperclass( t ) )
+        {
+            hierarchy.addFirst( t );
+        }
+
+        for ( TypeElement t : hierarchy )
+        {
+            for ( VariableElement field : ElementFilter.fieldsIn( t.getEnclosedElements() ) )
+            {
+                AnnotationMirror ann = getAnnotation( field, FIELD_ANNOTATION );
+                if ( ann == null )
+                {
+                    continue;
+                }
+
+                Column column = new Column();
+                column.key = ( (String) getAnnotationValue( ann, "value" ) ).toLowerCase();
+                Object defaultable = getAnnotationValue( ann, "defaultable" );
+                column.defaultable = defaultable != null && (Boolean) defaultable;
+                Object dedup = getAnnotationValue( ann, "dedup" );
+                column.dedup = dedup != null && (Boolean) dedup;
+                column.primaryKey = getAnnotation( field, PRIMARY_KEY_ANNOTATION ) != null;
+                // As a member of type, so that an inherited generic field has its actual type argument (e.g. Long rather than K).
+                column.type = processingEnv.getTypeUtils().asMemberOf( (DeclaredType) type.asType(), field );
+
+                if ( !keys.add( column.key ) || !bindField( type, t, field, column ) )
+                {
+                    return null;
+                }
+
+                columns.add( column );
+            }
+        }
+
+        //
+        // FauxjoSetter and FauxjoGetter bean property methods.
+        //
+        for ( ExecutableElement method : ElementFilter.methodsIn( processingEnv.getElementUtils().getAllMembers( type ) ) )
+        {
+            if ( !method.getModifiers().contains( Modifier.PUBLIC ) || method.getModifiers().contains( Modifier.STATIC ) )
+            {
+                continue;
+            }
+
+            AnnotationMirror setter = isWriteMethod( method ) ? getAnnotation( method, SETTER_ANNOTATION ) : null;
+            AnnotationMirror getter = isReadMethod( method ) ? getAnnotation( method, GETTER_ANNOTATION ) : null;
+            AnnotationMirror ann = setter != null ? setter : getter;
+            if ( ann == null )
+            {
+                continue;
+            }
+
+            Column column = new Column();
+            column.key = ( (String) getAnnotationValue( ann, "value" ) ).toLowerCase();
+            if ( !keys.add( column.key ) )
+            {
+                return null;
+            }
+
+            if ( setter != null )
+            {
+                column.type = getMemberType( type, method ).getParameterTypes().get( 0 );
+                String castName = getCastName( column.type );
+                if ( castName == null )
+                {
+                    return null;
+                }
+                column.writeCode = String.format( "bean.%s( (%s) value );", method.getSimpleName(), castName );
+            }
+            else
+            {
+                column.type = getMemberType( type, method ).getReturnType();
+                column.readCode = String.format( "bean.%s()", method.getSimpleName() );
+                column.primaryKey = getAnnotation( method, PRIMARY_KEY_ANNOTATION ) != null;
+            }
+
+            columns.add( column );
+        }
+
+        return columns;
+    }
+
+    /**
+     * Bind the read and write code of a FauxjoField column, directly or via its public getter and setter.
+     * Returns false if neither is possible from the type's package.
+     */
+    private boolean bindField( TypeElement type, TypeElement declaringType, VariableElement field, Column column )
+    {
+        Set<Modifier> modifiers = field.getModifiers();
+        boolean samePackage = getPackageName( declaringType ).equals( getPackageName( type ) );
+        if ( !modifiers.contains( Modifier.PRIVATE ) && !modifiers.contains( Modifier.FINAL ) &&
+            ( modifiers.contains( Modifier.PUBLIC ) || samePackage ) )
+        {
+            String castName = getCastName( column.type );
+            if ( castName == null )
+            {
+                return false;
+            }
+
+            // Cast to the declaring type in case a sub-class hides the field.
+            String target = declaringType.equals( type ) ? "bean" : String.format( "( (%s) bean )", declaringType.getQualifiedName() );
+            column.readCode = String.format( "%s.%s", target, field.getSimpleName() );
+            column.writeCode = String.format( "%s.%s = (%s) value;", target, field.getSimpleName(), castName );
+
+            return true;
+        }
+
+        String name = field.getSimpleName().toString();
+        String capitalized = Character.toUpperCase( name.charAt( 0 ) ) + name.substring( 1 );
+        Types types = processingEnv.getTypeUtils();
+        for ( ExecutableElement method : ElementFilter.methodsIn( processingEnv.getElementUtils().getAllMembers( type ) ) )
+        {
+            if ( !method.getModifiers().contains( Modifier.PUBLIC ) || method.getModifiers().contains( Modifier.STATIC ) )
+            {
+                continue;
+            }
+
+            String methodName = method.getSimpleName().toString();
+            ExecutableType memberType = getMemberType( type, method );
+            if ( column.readCode == null && isReadMethod( method ) && types.isSameType( memberType.getReturnType(), column.type ) &&
+                ( methodName.equals( "get" + capitalized ) || methodName.equals( "is" + capitalized ) ) )
+            {
+                column.readCode = String.format( "bean.%s()", methodName );
+            }
+            else if ( column.writeCode == null && isWriteMethod( method ) && methodName.equals( "set" + capitalized ) &&
+                types.isSameType( memberType.getParameterTypes().get( 0 ), column.type ) )
+            {
+                String castName = getCastName( column.type );
+                if ( castName != null )
+                {
+                    column.writeCode = String.format( "bean.%s( (%s) value );", methodName, castName );
+                }
+            }
+        }
+
+        return column.readCode != null && column.writeCode != null;
+    }
+
+    private void writeAccessor( TypeElement type, String binaryName, List<Column> columns )
+        throws IOException
+    {
+        String packageName = getPackageName( type );
+        String simpleName = binaryName.substring( packageName.isEmpty() ? 0 : packageName.length() + 1 ) + CLASS_SUFFIX;
+        String beanName = type.getQualifiedName().toString();
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile( binaryName + CLASS_SUFFIX, type );
+        try ( PrintWriter out = new PrintWriter( file.openWriter() ) )
+        {
+            if ( !packageName.isEmpty() )
+            {
+                out.printf( "package %s;%n%n", packageName );
+            }
+
+            out.printf( "/**%n * Generated by fauxjo-processor from %s. Do not edit.%n */%n", beanName );
+            out.printf( "@SuppressWarnings( { \"unchecked\", \"rawtypes\" } )%n" );
+            out.printf( "public final class %s implements %s<%s>%n{%n", simpleName, ACCESSOR_INTERFACE, beanName );
+
+            out.printf( "    @Override%n" );
+            out.printf( "    public void define( net.jextra.fauxjo.beandef.BeanDef beanDef )%n" );
+            out.printf( "        throws net.jextra.fauxjo.FauxjoException%n    {%n" );
+            out.printf( "        net.jextra.fauxjo.beandef.FieldDef fieldDef;%n" );
+            for ( int i = 0; i < columns.size(); i++ )
+            {
+                Column column = columns.get( i );
+                out.printf( "%n        fieldDef = new net.jextra.fauxjo.beandef.FieldDef();%n" );
+                out.printf( "        fieldDef.setValueClass( %s.class );%n", processingEnv.getTypeUtils().erasure( column.type ) );
+                out.printf( "        fieldDef.setPrimaryKey( %s );%n", column.primaryKey );
+                out.printf( "        fieldDef.setDefaultable( %s );%n", column.defaultable );
+                if ( column.dedup )
+                {
+                    out.printf( "        fieldDef.setDedup( true );%n" );
+                }
+                out.printf( "        fieldDef.setAccessor( this, %d, %s, %s );%n", i, column.readCode != null, column.writeCode != null );
+                out.printf( "        beanDef.addFieldDef( %s, fieldDef );%n", toStringLiteral( column.key ) );
+            }
+            out.printf( "    }%n%n" );
+
+            out.printf( "    @Override%n" );
+            out.printf( "    public %s newInstance()%n    {%n", beanName );
+            out.printf( "        return new %s();%n    }%n%n", beanName );
+
+            out.printf( "    @Override%n" );
+            out.printf( "    public Object getValue( %s bean, int index )%n    {%n", beanName );
+            out.printf( "        switch ( index )%n        {%n" );
+            for ( int i = 0; i < columns.size(); i++ )
+            {
+                if ( columns.get( i ).readCode != null )
+                {
+                    out.printf( "            case %d:%n                return %s;%n", i, columns.get( i ).readCode );
+                }
+            }
+            out.printf( "            default:%n" );
+            out.printf( "                throw new IllegalArgumentException( \"No readable value at index \" + index );%n" );
+            out.printf( "        }%n    }%n%n" );
+
+            out.printf( "    @Override%n" );
+            out.printf( "    public void setValue( %s bean, int index, Object value )%n    {%n", beanName );
+            out.printf( "        switch ( index )%n        {%n" );
+            for ( int i = 0; i < columns.size(); i++ )
+            {
+                if ( columns.get( i ).writeCode != null )
+                {
+                    out.printf( "            case %d:%n                %s%n                return;%n", i, columns.get( i ).writeCode );
+                }
+            }
+            out.printf( "            default:%n" );
+            out.printf( "                throw new IllegalArgumentException( \"No writable value at index \" + index );%n" );
+            out.printf( "        }%n    }%n" );
+
+            out.printf( "}%n" );
+        }
+    }
+
+    private TypeElement getSuperclass( TypeElement type )
+    {
+        TypeMirror superclass = type.getSuperclass();
+        if ( superclass.getKind() != TypeKind.DECLARED )
+        {
+            return null;
+        }
+
+        return (TypeElement) ( (DeclaredType) superclass ).asElement();
+    }
+
+    private String getPackageName( TypeElement type )
+    {
+        return processingEnv.getElementUtils().getPackageOf( type ).getQualifiedName().toString();
+    }
+
+    /**
+     * Same rules as java.beans.Introspector for a simple property write method.
+     */
+    private boolean isWriteMethod( ExecutableElement method )
+    {
+        String name = method.getSimpleName().toString();
+
+        return name.startsWith( "set" ) && name.length() > 3 && method.getParameters().size() == 1 &&
+            method.getReturnType().getKind() == TypeKind.VOID;
+    }
+
+    /**
+     * Same rules as java.beans.Introspector for a simple property read method.
+     */
+    private boolean isReadMethod( ExecutableElement method )
+    {
+        String name = method.getSimpleName().toString();
+        if ( !method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID )
+        {
+            return false;
+        }
+
+        return ( name.startsWith( "get" ) && name.length() > 3 ) ||
+            ( name.startsWith( "is" ) && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN );
+    }
+
+    /**
+     * The type of a method as a member of the bean type, so the type variables of a generic super-class are resolved
+     * (e.g. K of BaseBean&lt;K&gt; is Long for a bean extending BaseBean&lt;Long&gt;, Object if it extends the raw BaseBean).
+     */
+    private ExecutableType getMemberType( TypeElement type, ExecutableElement method )
+    {
+        return (ExecutableType) processingEnv.getTypeUtils().asMemberOf( (DeclaredType) type.asType(), method );
+    }
+
+    /**
+     * The type to cast an Object to before assigning, boxed for primitives (which unbox on assignment). Returns null if the
+     * type still contains a type variable, which the generated code can not name, so the bean is left to reflection.
+     */
+    private String getCastName( TypeMirror type )
+    {
+        if ( containsTypeVariable( type ) )
+        {
+            return null;
+        }
+
+        if ( type.getKind().isPrimitive() )
+        {
+            return processingEnv.getTypeUtils().boxedClass( (PrimitiveType) type ).getQualifiedName().toString();
+        }
+
+        return type.toString();
+    }
+
+    private boolean containsTypeVariable( TypeMirror type )
+    {
+        switch ( type.getKind() )
+        {
+            case TYPEVAR:
+                return true;
+
+            case ARRAY:
+                return containsTypeVariable( ( (ArrayType) type ).getComponentType() );
+
+            case WILDCARD:
+                WildcardType wildcard = (WildcardType) type;
+                return ( wildcard.getExtendsBound() != null && containsTypeVariable( wildcard.getExtendsBound() ) ) ||
+                    ( wildcard.getSuperBound() != null && containsTypeVariable( wildcard.getSuperBound() ) );
+
+            case DECLARED:
+                for ( TypeMirror argument : ( (DeclaredType) type ).getTypeArguments() )
+                {
+                    if ( containsTypeVariable( argument ) )
+                    {
+                        return true;
+                    }
+                }
+                return false;
+
+            default:
+                return false;
+        }
+    }
+
+    private AnnotationMirror getAnnotation( Element element, String annotationName )
+    {
+        for ( AnnotationMirror mirror : element.getAnnotationMirrors() )
+        {
+            if ( ( (TypeElement) mirror.getAnnotationType().asElement() ).getQualifiedName().contentEquals( annotationName ) )
+            {
+                return mirror;
+            }
+        }
+
+        return null;
+    }
+
+    private Object getAnnotationValue( AnnotationMirror mirror, String name )
+    {
+        for ( Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet() )
+        {
+            if ( entry.getKey().getSimpleName().contentEquals( name ) )
+            {
+                return entry.getValue().getValue();
+            }
+        }
+
+        return null;
+    }
+
+    private static String toStringLiteral( String value )
+    {
+        StringBuilder builder = new StringBuilder( "\"" );
+        for ( char c : value.toCharArray() )
+        {
+            if ( c == '"' || c == '\\' )
+            {
+                builder.append( '\\' );
+            }
+            builder.append( c );
+        }
+
+        return builder.append( '"' ).toString();
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class Column
+    {
+        private String key;
+        private TypeMirror type;
+        private boolean primaryKey;
+        private boolean defaultable;
+        private boolean dedup;
+        private String readCode;
+        private String writeCode;
+    }
+}
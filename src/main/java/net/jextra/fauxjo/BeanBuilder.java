@@ -21,7 +21,7 @@
 
 package net.jextra.fauxjo;
 
-import java.lang.reflect.*;
+import java.lang.ref.*;
 import java.sql.Array;
 import java.sql.*;
 import java.util.*;
@@ -42,6 +42,11 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
     private Coercer coercer;
     private boolean allowMissingFields;
     private boolean autoCloseResultSet;
+    private boolean nativeJavaTime;
+
+    // Subclasses overriding the Map based building keep using it rather than the ColumnPlan.
+    private final boolean columnPlanEnabled;
+    private volatile ColumnPlan columnPlan;
 
     // ============================================================
     // Constructors
@@ -52,6 +57,7 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
         this.beanClass = beanClass;
         this.autoCloseResultSet = autoCloseResultSet;
         coercer = new Coercer();
+        columnPlanEnabled = !overridesMapBuilding( getClass() );
     }
 
     public BeanBuilder( Class<T> beanClass )
@@ -87,6 +93,21 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
         this.autoCloseResultSet = autoCloseResultSet;
     }
 
+    public boolean getNativeJavaTime()
+    {
+        return nativeJavaTime;
+    }
+
+    /**
+     * Read date/time columns into java.time fields (LocalDate, LocalDateTime, OffsetDateTime, Instant, ...) with the JDBC 4.2
+     * getObject(int, Class) instead of through java.sql.Date/Timestamp. Columns the driver cannot read that way fall back.
+     */
+    public void setNativeJavaTime( boolean nativeJavaTime )
+    {
+        this.nativeJavaTime = nativeJavaTime;
+        columnPlan = null;
+    }
+
     public T getFirst( ResultSet rs )
         throws SQLException
     {
@@ -220,8 +241,14 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
     {
         try
         {
+            if ( columnPlanEnabled )
+            {
+                return buildBean( rs, getColumnPlan( rs ) );
+            }
+
             ResultSetMetaData meta = rs.getMetaData();
             int columnCount = meta.getColumnCount();
+            BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
 
             Map<String, Object> values = new HashMap<>();
             for ( int i = 1; i <= columnCount; i++ )
@@ -239,7 +266,9 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
                 }
                 else
                 {
-                    values.put( meta.getColumnName( i ).toLowerCase(), rs.getObject( i ) );
+                    String key = meta.getColumnName( i ).toLowerCase();
+                    Class<?> nativeClass = nativeJavaTime ? getNativeClass( beanDef.getFieldDef( key ), meta.getColumnType( i ) ) : null;
+                    values.put( key, nativeClass == null ? rs.getObject( i ) : getNativeObject( rs, i, nativeClass ) );
                 }
             }
 
@@ -263,41 +292,31 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
     protected T buildBean( Map<String, Object> values )
         throws FauxjoException
     {
-        T bean;
-
-        try
-        {
-            bean = beanClass.getDeclaredConstructor().newInstance();
-        }
-        catch ( Exception ex )
-        {
-            throw new FauxjoException( ex );
-        }
+        T bean = beanClass.cast( BeanDefCache.getBeanDef( beanClass ).newInstance() );
 
-        Map<String, FieldDef> fieldDefs = BeanDefCache.getFieldDefs( beanClass );
+        BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
 
-        // Collect field keys so that they can be checked off.
-        Set<String> keys = new HashSet<>();
-        keys.addAll( fieldDefs.keySet() );
+        // Count the fields that were found in order to check later that all were used.
+        int foundCount = 0;
 
-        for ( String key : values.keySet() )
+        for ( Map.Entry<String, Object> entry : values.entrySet() )
         {
-            FieldDef fieldDef = fieldDefs.get( key );
-
-            // Remove key from set in order to take inventory to check later that all were used.
-            keys.remove( key );
+            String key = entry.getKey();
+            int index = beanDef.indexOf( key );
 
             // If the column is in the database but not in bean, assumed OK, ignore.
-            if ( fieldDef != null )
+            if ( index >= 0 )
             {
-                Object value = values.get( key );
+                FieldDef fieldDef = beanDef.getFieldDef( index );
+                Object value = entry.getValue();
+                foundCount++;
 
                 try
                 {
                     if ( value != null )
                     {
                         Class<?> targetClass = fieldDef.getValueClass();
-                        value = coercer.convertTo( value, targetClass );
+                        value = dedup( fieldDef, coercer.convertTo( value, targetClass ) );
                     }
                 }
                 catch ( FauxjoException ex )
@@ -310,11 +329,17 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
         }
 
         // If any of the columns was not accounted for, throw an Exception
-        if ( !allowMissingFields && !keys.isEmpty() )
+        if ( !allowMissingFields && foundCount < beanDef.getFieldCount() )
         {
             StringBuilder builder = new StringBuilder();
-            for ( String key : keys )
+            for ( int i = 0; i < beanDef.getFieldCount(); i++ )
             {
+                String key = beanDef.getKey( i );
+                if ( values.containsKey( key ) )
+                {
+                    continue;
+                }
+
                 if ( builder.length() > 0 )
                 {
                     builder.append( "," );
@@ -338,35 +363,281 @@ public class BeanBuilder<T> implements ResultSetIterator.Builder<T>
             return false;
         }
 
-        Field field = fieldDef.getField();
-        if ( field != null )
+        fieldDef.setValue( bean, value );
+
+        return true;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /*
+     * Return the plan of the columns of rs, reusing the previous one if the columns are the same.
+     */
+    private Columns getColumnPlan( ResultSet rs )
+        throws SQLException, FauxjoException
+    {
+        ColumnPlan plan = columnPlan;
+        if ( plan == null || plan.resultSet.get() != rs )
+        {
+            ResultSetMetaData meta = rs.getMetaData();
+            Columns columns = plan != null && plan.columns.matches( meta ) ? plan.columns : new Columns( meta, BeanDefCache.getBeanDef(
+                beanClass ), nativeJavaTime );
+            plan = new ColumnPlan( rs, columns );
+            columnPlan = plan;
+        }
+
+        return plan.columns;
+    }
+
+    private T buildBean( ResultSet rs, Columns columns )
+        throws SQLException, FauxjoException
+    {
+        // If any of the columns was not accounted for, throw an Exception
+        if ( !allowMissingFields && columns.missingFields != null )
+        {
+            throw new FauxjoException( String.format( "Missing field/s [%s] in fauxjo [%s]", columns.missingFields,
+                beanClass.getCanonicalName() ) );
+        }
+
+        T bean = beanClass.cast( columns.beanDef.newInstance() );
+        for ( int i = 0; i < columns.fieldDefs.length; i++ )
+        {
+            // If the column is in the database but not in bean, assumed OK, ignore.
+            FieldDef fieldDef = columns.fieldDefs[i];
+            if ( fieldDef == null )
+            {
+                continue;
+            }
+
+            Object value;
+            // Arrays are special and need to be extracted with a special call.
+            if ( columns.arrays[i] )
+            {
+                Array a = rs.getArray( i + 1 );
+                value = a == null ? null : a.getArray();
+            }
+            else if ( columns.nativeClasses[i] != null )
+            {
+                try
+                {
+                    value = rs.getObject( i + 1, columns.nativeClasses[i] );
+                }
+                catch ( SQLFeatureNotSupportedException ex )
+                {
+                    // The driver cannot read it natively, use getObject(int) for this column from now on.
+                    columns.nativeClasses[i] = null;
+                    value = rs.getObject( i + 1 );
+                }
+            }
+            else
+            {
+                value = rs.getObject( i + 1 );
+            }
+
+            if ( value != null )
+            {
+                value = dedup( fieldDef, columns.convert( i, value, coercer ) );
+            }
+
+            fieldDef.setValue( bean, value );
+        }
+
+        return bean;
+    }
+
+    private static Object dedup( FieldDef fieldDef, Object value )
+    {
+        StringDeduplicator deduplicator = fieldDef.getDeduplicator();
+        if ( deduplicator == null || !( value instanceof String ) )
+        {
+            return value;
+        }
+
+        return deduplicator.dedup( (String) value );
+    }
+
+    private static Object getNativeObject( ResultSet rs, int column, Class<?> nativeClass )
+        throws SQLException
+    {
+        try
+        {
+            return rs.getObject( column, nativeClass );
+        }
+        catch ( SQLFeatureNotSupportedException ex )
+        {
+            return rs.getObject( column );
+        }
+    }
+
+    /*
+     * Return the java.time class to read a column of sqlType with if it is bound to a java.time field else null.
+     */
+    private static Class<?> getNativeClass( FieldDef fieldDef, int sqlType )
+    {
+        if ( fieldDef == null || !SqlTypeMapping.isJavaTimeClass( fieldDef.getValueClass() ) )
+        {
+            return null;
+        }
+
+        return SqlTypeMapping.getJavaTimeClass( sqlType );
+    }
+
+    private static boolean overridesMapBuilding( Class<?> clss )
+    {
+        for ( Class<?> c = clss; c != null && c != BeanBuilder.class; c = c.getSuperclass() )
         {
             try
             {
-                field.setAccessible( true );
-                field.set( bean, value );
+                c.getDeclaredMethod( "buildBean", Map.class );
+                return true;
+            }
+            catch ( NoSuchMethodException ex )
+            {
+                // Not overridden at this level.
+            }
 
+            try
+            {
+                c.getDeclaredMethod( "setBeanValue", Object.class, String.class, Object.class );
                 return true;
             }
-            catch ( Exception ex )
+            catch ( NoSuchMethodException ex )
             {
-                throw new FauxjoException( "Unable to write to field [" + field.getName() + "]", ex );
+                // Not overridden at this level.
             }
         }
 
-        Method writeMethod = fieldDef.getWriteMethod();
-        if ( writeMethod != null )
+        return false;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Columns of the ResultSet currently being built from. Weakly references it to not keep its rows alive.
+     */
+    private static class ColumnPlan
+    {
+        private final WeakReference<ResultSet> resultSet;
+        private final Columns columns;
+
+        public ColumnPlan( ResultSet rs, Columns columns )
+        {
+            resultSet = new WeakReference<>( rs );
+            this.columns = columns;
+        }
+    }
+
+    /**
+     * The FieldDef and Converter of every column of a ResultSet shape, resolved once instead of on every row.
+     */
+    private static class Columns
+    {
+        private final BeanDef beanDef;
+        private final String[] keys;
+        private final int[] sqlTypes;
+        private final boolean[] arrays;
+        private final FieldDef[] fieldDefs;
+        // java.time class to read the column with (nulled if the driver does not support it).
+        private final Class<?>[] nativeClasses;
+        // Converter of the last seen value class by column (benign race, entries are immutable).
+        private final CachedConverter[] converters;
+        private final String missingFields;
+
+        public Columns( ResultSetMetaData meta, BeanDef beanDef, boolean nativeJavaTime )
+            throws SQLException
         {
+            this.beanDef = beanDef;
+            int columnCount = meta.getColumnCount();
+            keys = new String[columnCount];
+            sqlTypes = new int[columnCount];
+            arrays = new boolean[columnCount];
+            fieldDefs = new FieldDef[columnCount];
+            nativeClasses = new Class<?>[columnCount];
+            converters = new CachedConverter[columnCount];
+
+            Set<String> keySet = new HashSet<>();
+            for ( int i = 0; i < columnCount; i++ )
+            {
+                keys[i] = meta.getColumnName( i + 1 ).toLowerCase();
+                sqlTypes[i] = meta.getColumnType( i + 1 );
+                arrays[i] = sqlTypes[i] == Types.ARRAY;
+                int index = beanDef.indexOf( keys[i] );
+                fieldDefs[i] = index >= 0 ? beanDef.getFieldDef( index ) : null;
+                nativeClasses[i] = nativeJavaTime ? getNativeClass( fieldDefs[i], sqlTypes[i] ) : null;
+                keySet.add( keys[i] );
+            }
+
+            StringBuilder builder = new StringBuilder();
+            for ( int i = 0; i < beanDef.getFieldCount(); i++ )
+            {
+                String key = beanDef.getKey( i );
+                if ( keySet.contains( key ) )
+                {
+                    continue;
+                }
+
+                if ( builder.length() > 0 )
+                {
+                    builder.append( "," );
+                }
+                builder.append( key );
+            }
+            missingFields = builder.length() == 0 ? null : builder.toString();
+        }
+
+        public boolean matches( ResultSetMetaData meta )
+            throws SQLException
+        {
+            if ( meta.getColumnCount() != keys.length )
+            {
+                return false;
+            }
+
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( meta.getColumnType( i + 1 ) != sqlTypes[i] || !keys[i].equalsIgnoreCase( meta.getColumnName( i + 1 ) ) )
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        public Object convert( int i, Object value, Coercer coercer )
+            throws FauxjoException
+        {
+            CachedConverter cached = converters[i];
+            if ( cached == null || cached.sourceClass != value.getClass() )
+            {
+                cached = new CachedConverter( value.getClass(), coercer.getConverter( value.getClass(), fieldDefs[i].getValueClass() ) );
+                converters[i] = cached;
+            }
+
             try
             {
-                writeMethod.invoke( bean, value );
+                return cached.converter.convert( value );
             }
-            catch ( Exception ex )
+            catch ( FauxjoException ex )
             {
-                throw new FauxjoException( "Unable to invoke write method [" + writeMethod.getName() + "]", ex );
+                throw new FauxjoException( "Failed to coerce " + keys[i], ex );
             }
         }
+    }
 
-        return true;
+    private static class CachedConverter
+    {
+        private final Class<?> sourceClass;
+        private final Converter converter;
+
+        public CachedConverter( Class<?> sourceClass, Converter converter )
+        {
+            this.sourceClass = sourceClass;
+            this.converter = converter;
+        }
     }
 }
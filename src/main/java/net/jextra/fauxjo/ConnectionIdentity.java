@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.lang.ref.*;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Maps Connections (including pool facades) to a unique key per physical Connection.<p>
+ *
+ * The physical Connection is resolved once per Connection object by the {@link ConnectionIdentityResolver} and cached weakly, after
+ * that a lookup never touches the driver. Keys come from a counter so, unlike hashCodes, two physical Connections never share a key.
+ * Connections are assumed to use identity equals/hashCode, as JDBC drivers and pools do.
+ */
+public final class ConnectionIdentity
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final ConnectionIdentityResolver UNWRAP_RESOLVER = new UnwrapResolver();
+
+    private static volatile ConnectionIdentityResolver resolver = UNWRAP_RESOLVER;
+    private static final AtomicLong nextKey = new AtomicLong();
+
+    // Key = Connection as given (may be a facade), Value = key of its physical Connection.
+    private static final Map<Connection, Long> keys = new WeakHashMap<>();
+    // Key = physical Connection, Value = its key.
+    private static final Map<Connection, Long> physicalKeys = new WeakHashMap<>();
+    private static final Map<Connection, WeakReference<Connection>> physicalConnections = new WeakHashMap<>();
+
+    // Most recent Connection per thread, which is almost always the one asked for next.
+    private static final ThreadLocal<LastSeen> lastSeen = new ThreadLocal<>();
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    private ConnectionIdentity()
+    {
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static ConnectionIdentityResolver getResolver()
+    {
+        return resolver;
+    }
+
+    /**
+     * Replace the default resolver (unwrap, falling back to {@code getMetaData().getConnection()}). Previously resolved Connections are
+     * forgotten.
+     * @param newResolver or null to restore the default
+     */
+    public static void setResolver( ConnectionIdentityResolver newResolver )
+    {
+        synchronized ( keys )
+        {
+            resolver = newResolver == null ? UNWRAP_RESOLVER : newResolver;
+            keys.clear();
+            physicalKeys.clear();
+            physicalConnections.clear();
+        }
+    }
+
+    /**
+     * Return the unique key of the physical Connection behind conn.
+     */
+    public static Long getKey( Connection conn )
+        throws SQLException
+    {
+        if ( conn == null )
+        {
+            throw new SQLException( "!getConnKey, db conn is null" );
+        }
+
+        LastSeen last = lastSeen.get();
+        if ( last != null && last.conn.get() == conn )
+        {
+            return last.key;
+        }
+
+        Long key;
+        synchronized ( keys )
+        {
+            key = keys.get( conn );
+        }
+
+        if ( key == null )
+        {
+            key = resolve( conn );
+        }
+
+        lastSeen.set( new LastSeen( conn, key ) );
+
+        return key;
+    }
+
+    /**
+     * Return the physical Connection behind conn.
+     */
+    public static Connection getPhysicalConnection( Connection conn )
+        throws SQLException
+    {
+        getKey( conn );
+
+        synchronized ( keys )
+        {
+            WeakReference<Connection> ref = physicalConnections.get( conn );
+            Connection physical = ref == null ? null : ref.get();
+
+            return physical == null ? conn : physical;
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static Long resolve( Connection conn )
+        throws SQLException
+    {
+        Connection physical = resolver.getPhysicalConnection( conn );
+        if ( physical == null )
+        {
+            physical = conn;
+        }
+
+        synchronized ( keys )
+        {
+            Long key = physicalKeys.get( physical );
+            if ( key == null )
+            {
+                key = nextKey.incrementAndGet();
+                physicalKeys.put( physical, key );
+            }
+            keys.put( conn, key );
+            physicalConnections.put( conn, new WeakReference<>( physical ) );
+
+            return key;
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class LastSeen
+    {
+        private final WeakReference<Connection> conn;
+        private final Long key;
+
+        public LastSeen( Connection conn, Long key )
+        {
+            this.conn = new WeakReference<>( conn );
+            this.key = key;
+        }
+    }
+
+    /**
+     * Pools such as HikariCP unwrap to their delegate. Wrappers that unwrap to themselves fall back to the Connection reported by their
+     * DatabaseMetaData.
+     */
+    private static class UnwrapResolver implements ConnectionIdentityResolver
+    {
+        @Override
+        public Connection getPhysicalConnection( Connection conn )
+            throws SQLException
+        {
+            Connection physical = null;
+            try
+            {
+                if ( conn.isWrapperFor( Connection.class ) )
+                {
+                    physical = conn.unwrap( Connection.class );
+                }
+            }
+            catch ( SQLException | AbstractMethodError ex )
+            {
+                // Driver does not support unwrap, fall back to meta data.
+            }
+
+            if ( physical == null || physical == conn )
+            {
+                DatabaseMetaData metaData = conn.getMetaData();
+                physical = metaData == null ? null : metaData.getConnection();
+            }
+
+            return physical == null ? conn : physical;
+        }
+    }
+}
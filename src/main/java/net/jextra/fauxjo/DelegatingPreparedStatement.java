@@ -0,0 +1,863 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.io.*;
+import java.math.*;
+import java.net.*;
+import java.sql.*;
+import java.sql.Date;
+import java.util.*;
+
+/**
+ * PreparedStatement that passes every call straight through to another PreparedStatement. Subclasses override just the calls they
+ * need to intercept, which avoids the reflective per-call cost of a {@link java.lang.reflect.Proxy}.
+ * <p>
+ * ResultSets are wrapped in a {@link DelegatingResultSet} so that {@link ResultSet#getStatement()} returns this wrapper rather than
+ * the underlying PreparedStatement.
+ */
+public class DelegatingPreparedStatement implements PreparedStatement
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final PreparedStatement delegate;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public DelegatingPreparedStatement( PreparedStatement delegate )
+    {
+        this.delegate = delegate;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public PreparedStatement getDelegate()
+    {
+        return delegate;
+    }
+
+    @Override
+    public ResultSet executeQuery()
+        throws SQLException
+    {
+        return wrapResultSet( delegate.executeQuery() );
+    }
+
+    @Override
+    public int executeUpdate()
+        throws SQLException
+    {
+        return delegate.executeUpdate();
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType )
+        throws SQLException
+    {
+        delegate.setNull( parameterIndex, sqlType );
+    }
+
+    @Override
+    public void setBoolean( int parameterIndex, boolean x )
+        throws SQLException
+    {
+        delegate.setBoolean( parameterIndex, x );
+    }
+
+    @Override
+    public void setByte( int parameterIndex, byte x )
+        throws SQLException
+    {
+        delegate.setByte( parameterIndex, x );
+    }
+
+    @Override
+    public void setShort( int parameterIndex, short x )
+        throws SQLException
+    {
+        delegate.setShort( parameterIndex, x );
+    }
+
+    @Override
+    public void setInt( int parameterIndex, int x )
+        throws SQLException
+    {
+        delegate.setInt( parameterIndex, x );
+    }
+
+    @Override
+    public void setLong( int parameterIndex, long x )
+        throws SQLException
+    {
+        delegate.setLong( parameterIndex, x );
+    }
+
+    @Override
+    public void setFloat( int parameterIndex, float x )
+        throws SQLException
+    {
+        delegate.setFloat( parameterIndex, x );
+    }
+
+    @Override
+    public void setDouble( int parameterIndex, double x )
+        throws SQLException
+    {
+        delegate.setDouble( parameterIndex, x );
+    }
+
+    @Override
+    public void setBigDecimal( int parameterIndex, BigDecimal x )
+        throws SQLException
+    {
+        delegate.setBigDecimal( parameterIndex, x );
+    }
+
+    @Override
+    public void setString( int parameterIndex, String x )
+        throws SQLException
+    {
+        delegate.setString( parameterIndex, x );
+    }
+
+    @Override
+    public void setBytes( int parameterIndex, byte[] x )
+        throws SQLException
+    {
+        delegate.setBytes( parameterIndex, x );
+    }
+
+    @Override
+    public void setDate( int parameterIndex, Date x )
+        throws SQLException
+    {
+        delegate.setDate( parameterIndex, x );
+    }
+
+    @Override
+    public void setTime( int parameterIndex, Time x )
+        throws SQLException
+    {
+        delegate.setTime( parameterIndex, x );
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, Timestamp x )
+        throws SQLException
+    {
+        delegate.setTimestamp( parameterIndex, x );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, InputStream x, int length )
+        throws SQLException
+    {
+        delegate.setAsciiStream( parameterIndex, x, length );
+    }
+
+    @Deprecated
+    @Override
+    public void setUnicodeStream( int parameterIndex, InputStream x, int length )
+        throws SQLException
+    {
+        delegate.setUnicodeStream( parameterIndex, x, length );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, InputStream x, int length )
+        throws SQLException
+    {
+        delegate.setBinaryStream( parameterIndex, x, length );
+    }
+
+    @Override
+    public void clearParameters()
+        throws SQLException
+    {
+        delegate.clearParameters();
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType )
+        throws SQLException
+    {
+        delegate.setObject( parameterIndex, x, targetSqlType );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x )
+        throws SQLException
+    {
+        delegate.setObject( parameterIndex, x );
+    }
+
+    @Override
+    public boolean execute()
+        throws SQLException
+    {
+        return delegate.execute();
+    }
+
+    @Override
+    public void addBatch()
+        throws SQLException
+    {
+        delegate.addBatch();
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, Reader reader, int length )
+        throws SQLException
+    {
+        delegate.setCharacterStream( parameterIndex, reader, length );
+    }
+
+    @Override
+    public void setRef( int parameterIndex, Ref x )
+        throws SQLException
+    {
+        delegate.setRef( parameterIndex, x );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, Blob x )
+        throws SQLException
+    {
+        delegate.setBlob( parameterIndex, x );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Clob x )
+        throws SQLException
+    {
+        delegate.setClob( parameterIndex, x );
+    }
+
+    @Override
+    public void setArray( int parameterIndex, Array x )
+        throws SQLException
+    {
+        delegate.setArray( parameterIndex, x );
+    }
+
+    @Override
+    public ResultSetMetaData getMetaData()
+        throws SQLException
+    {
+        return delegate.getMetaData();
+    }
+
+    @Override
+    public void setDate( int parameterIndex, Date x, Calendar cal )
+        throws SQLException
+    {
+        delegate.setDate( parameterIndex, x, cal );
+    }
+
+    @Override
+    public void setTime( int parameterIndex, Time x, Calendar cal )
+        throws SQLException
+    {
+        delegate.setTime( parameterIndex, x, cal );
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, Timestamp x, Calendar cal )
+        throws SQLException
+    {
+        delegate.setTimestamp( parameterIndex, x, cal );
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType, String typeName )
+        throws SQLException
+    {
+        delegate.setNull( parameterIndex, sqlType, typeName );
+    }
+
+    @Override
+    public void setURL( int parameterIndex, URL x )
+        throws SQLException
+    {
+        delegate.setURL( parameterIndex, x );
+    }
+
+    @Override
+    public ParameterMetaData getParameterMetaData()
+        throws SQLException
+    {
+        return delegate.getParameterMetaData();
+    }
+
+    @Override
+    public void setRowId( int parameterIndex, RowId x )
+        throws SQLException
+    {
+        delegate.setRowId( parameterIndex, x );
+    }
+
+    @Override
+    public void setNString( int parameterIndex, String value )
+        throws SQLException
+    {
+        delegate.setNString( parameterIndex, value );
+    }
+
+    @Override
+    public void setNCharacterStream( int parameterIndex, Reader value, long length )
+        throws SQLException
+    {
+        delegate.setNCharacterStream( parameterIndex, value, length );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, NClob value )
+        throws SQLException
+    {
+        delegate.setNClob( parameterIndex, value );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Reader reader, long length )
+        throws SQLException
+    {
+        delegate.setClob( parameterIndex, reader, length );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, InputStream inputStream, long length )
+        throws SQLException
+    {
+        delegate.setBlob( parameterIndex, inputStream, length );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, Reader reader, long length )
+        throws SQLException
+    {
+        delegate.setNClob( parameterIndex, reader, length );
+    }
+
+    @Override
+    public void setSQLXML( int parameterIndex, SQLXML xmlObject )
+        throws SQLException
+    {
+        delegate.setSQLXML( parameterIndex, xmlObject );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType, int scaleOrLength )
+        throws SQLException
+    {
+        delegate.setObject( parameterIndex, x, targetSqlType, scaleOrLength );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, InputStream x, long length )
+        throws SQLException
+    {
+        delegate.setAsciiStream( parameterIndex, x, length );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, InputStream x, long length )
+        throws SQLException
+    {
+        delegate.setBinaryStream( parameterIndex, x, length );
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, Reader reader, long length )
+        throws SQLException
+    {
+        delegate.setCharacterStream( parameterIndex, reader, length );
+    }
+
+    @Override
+    public void setAsciiStream( int parameterIndex, InputStream x )
+        throws SQLException
+    {
+        delegate.setAsciiStream( parameterIndex, x );
+    }
+
+    @Override
+    public void setBinaryStream( int parameterIndex, InputStream x )
+        throws SQLException
+    {
+        delegate.setBinaryStream( parameterIndex, x );
+    }
+
+    @Override
+    public void setCharacterStream( int parameterIndex, Reader reader )
+        throws SQLException
+    {
+        delegate.setCharacterStream( parameterIndex, reader );
+    }
+
+    @Override
+    public void setNCharacterStream( int parameterIndex, Reader value )
+        throws SQLException
+    {
+        delegate.setNCharacterStream( parameterIndex, value );
+    }
+
+    @Override
+    public void setClob( int parameterIndex, Reader reader )
+        throws SQLException
+    {
+        delegate.setClob( parameterIndex, reader );
+    }
+
+    @Override
+    public void setBlob( int parameterIndex, InputStream inputStream )
+        throws SQLException
+    {
+        delegate.setBlob( parameterIndex, inputStream );
+    }
+
+    @Override
+    public void setNClob( int parameterIndex, Reader reader )
+        throws SQLException
+    {
+        delegate.setNClob( parameterIndex, reader );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, SQLType targetSqlType, int scaleOrLength )
+        throws SQLException
+    {
+        delegate.setObject( parameterIndex, x, targetSqlType, scaleOrLength );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, SQLType targetSqlType )
+        throws SQLException
+    {
+        delegate.setObject( parameterIndex, x, targetSqlType );
+    }
+
+    @Override
+    public long executeLargeUpdate()
+        throws SQLException
+    {
+        return delegate.executeLargeUpdate();
+    }
+
+    @Override
+    public ResultSet executeQuery( String sql )
+        throws SQLException
+    {
+        return wrapResultSet( delegate.executeQuery( sql ) );
+    }
+
+    @Override
+    public int executeUpdate( String sql )
+        throws SQLException
+    {
+        return delegate.executeUpdate( sql );
+    }
+
+    @Override
+    public void close()
+        throws SQLException
+    {
+        delegate.close();
+    }
+
+    @Override
+    public int getMaxFieldSize()
+        throws SQLException
+    {
+        return delegate.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize( int max )
+        throws SQLException
+    {
+        delegate.setMaxFieldSize( max );
+    }
+
+    @Override
+    public int getMaxRows()
+        throws SQLException
+    {
+        return delegate.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows( int max )
+        throws SQLException
+    {
+        delegate.setMaxRows( max );
+    }
+
+    @Override
+    public void setEscapeProcessing( boolean enable )
+        throws SQLException
+    {
+        delegate.setEscapeProcessing( enable );
+    }
+
+    @Override
+    public int getQueryTimeout()
+        throws SQLException
+    {
+        return delegate.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout( int seconds )
+        throws SQLException
+    {
+        delegate.setQueryTimeout( seconds );
+    }
+
+    @Override
+    public void cancel()
+        throws SQLException
+    {
+        delegate.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings()
+        throws SQLException
+    {
+        return delegate.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings()
+        throws SQLException
+    {
+        delegate.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName( String name )
+        throws SQLException
+    {
+        delegate.setCursorName( name );
+    }
+
+    @Override
+    public boolean execute( String sql )
+        throws SQLException
+    {
+        return delegate.execute( sql );
+    }
+
+    @Override
+    public ResultSet getResultSet()
+        throws SQLException
+    {
+        return wrapResultSet( delegate.getResultSet() );
+    }
+
+    @Override
+    public int getUpdateCount()
+        throws SQLException
+    {
+        return delegate.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults()
+        throws SQLException
+    {
+        return delegate.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection( int direction )
+        throws SQLException
+    {
+        delegate.setFetchDirection( direction );
+    }
+
+    @Override
+    public int getFetchDirection()
+        throws SQLException
+    {
+        return delegate.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize( int rows )
+        throws SQLException
+    {
+        delegate.setFetchSize( rows );
+    }
+
+    @Override
+    public int getFetchSize()
+        throws SQLException
+    {
+        return delegate.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency()
+        throws SQLException
+    {
+        return delegate.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType()
+        throws SQLException
+    {
+        return delegate.getResultSetType();
+    }
+
+    @Override
+    public void addBatch( String sql )
+        throws SQLException
+    {
+        delegate.addBatch( sql );
+    }
+
+    @Override
+    public void clearBatch()
+        throws SQLException
+    {
+        delegate.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch()
+        throws SQLException
+    {
+        return delegate.executeBatch();
+    }
+
+    @Override
+    public Connection getConnection()
+        throws SQLException
+    {
+        return delegate.getConnection();
+    }
+
+    @Override
+    public boolean getMoreResults( int current )
+        throws SQLException
+    {
+        return delegate.getMoreResults( current );
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys()
+        throws SQLException
+    {
+        return wrapResultSet( delegate.getGeneratedKeys() );
+    }
+
+    @Override
+    public int executeUpdate( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        return delegate.executeUpdate( sql, autoGeneratedKeys );
+    }
+
+    @Override
+    public int executeUpdate( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        return delegate.executeUpdate( sql, columnIndexes );
+    }
+
+    @Override
+    public int executeUpdate( String sql, String[] columnNames )
+        throws SQLException
+    {
+        return delegate.executeUpdate( sql, columnNames );
+    }
+
+    @Override
+    public boolean execute( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        return delegate.execute( sql, autoGeneratedKeys );
+    }
+
+    @Override
+    public boolean execute( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        return delegate.execute( sql, columnIndexes );
+    }
+
+    @Override
+    public boolean execute( String sql, String[] columnNames )
+        throws SQLException
+    {
+        return delegate.execute( sql, columnNames );
+    }
+
+    @Override
+    public int getResultSetHoldability()
+        throws SQLException
+    {
+        return delegate.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed()
+        throws SQLException
+    {
+        return delegate.isClosed();
+    }
+
+    @Override
+    public void setPoolable( boolean poolable )
+        throws SQLException
+    {
+        delegate.setPoolable( poolable );
+    }
+
+    @Override
+    public boolean isPoolable()
+        throws SQLException
+    {
+        return delegate.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion()
+        throws SQLException
+    {
+        delegate.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion()
+        throws SQLException
+    {
+        return delegate.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount()
+        throws SQLException
+    {
+        return delegate.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows( long max )
+        throws SQLException
+    {
+        delegate.setLargeMaxRows( max );
+    }
+
+    @Override
+    public long getLargeMaxRows()
+        throws SQLException
+    {
+        return delegate.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch()
+        throws SQLException
+    {
+        return delegate.executeLargeBatch();
+    }
+
+    @Override
+    public long executeLargeUpdate( String sql )
+        throws SQLException
+    {
+        return delegate.executeLargeUpdate( sql );
+    }
+
+    @Override
+    public long executeLargeUpdate( String sql, int autoGeneratedKeys )
+        throws SQLException
+    {
+        return delegate.executeLargeUpdate( sql, autoGeneratedKeys );
+    }
+
+    @Override
+    public long executeLargeUpdate( String sql, int[] columnIndexes )
+        throws SQLException
+    {
+        return delegate.executeLargeUpdate( sql, columnIndexes );
+    }
+
+    @Override
+    public long executeLargeUpdate( String sql, String[] columnNames )
+        throws SQLException
+    {
+        return delegate.executeLargeUpdate( sql, columnNames );
+    }
+
+    @Override
+    public <T> T unwrap( Class<T> iface )
+        throws SQLException
+    {
+        if ( iface.isInstance( this ) )
+        {
+            return iface.cast( this );
+        }
+
+        return delegate.unwrap( iface );
+    }
+
+    @Override
+    public boolean isWrapperFor( Class<?> iface )
+        throws SQLException
+    {
+        return iface.isInstance( this ) || delegate.isWrapperFor( iface );
+    }
+
+    @Override
+    public String toString()
+    {
+        return delegate.toString();
+    }
+
+    // ----------
+    // protected
+    // ----------
+
+    protected ResultSet wrapResultSet( ResultSet rs )
+    {
+        if ( rs == null )
+        {
+            return null;
+        }
+
+        return new DelegatingResultSet( this, rs );
+    }
+}
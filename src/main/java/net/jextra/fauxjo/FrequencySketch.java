@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+/**
+ * Count-min sketch of how often items (by hashCode) were seen, with four 4-bit counters per item packed into longs. When the number of
+ * increments reaches ten times the expected maximum number of items, all counters are halved so that old popularity fades.
+ * <p>
+ * Not thread-safe.
+ */
+final class FrequencySketch
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private long[] table;
+    private int tableMask;
+    private int sampleSize;
+    private int size;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    FrequencySketch( int maximumSize )
+    {
+        int max = Math.max( 1, Math.min( maximumSize, 1 << 30 ) );
+        table = new long[max == 1 ? 1 : Integer.highestOneBit( max - 1 ) << 1];
+        tableMask = table.length - 1;
+        sampleSize = max <= Integer.MAX_VALUE / 10 ? max * 10 : Integer.MAX_VALUE;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return the estimated number of times the item was seen (0 to 15).
+     */
+    public int frequency( int itemHashCode )
+    {
+        int hash = spread( itemHashCode );
+        int start = ( hash & 3 ) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for ( int i = 0; i < 4; i++ )
+        {
+            int index = indexOf( hash, i );
+            int count = (int) ( ( table[index] >>> ( ( start + i ) << 2 ) ) & 0xfL );
+            frequency = Math.min( frequency, count );
+        }
+
+        return frequency;
+    }
+
+    public void increment( int itemHashCode )
+    {
+        int hash = spread( itemHashCode );
+        int start = ( hash & 3 ) << 2;
+        boolean added = false;
+        for ( int i = 0; i < 4; i++ )
+        {
+            added |= incrementAt( indexOf( hash, i ), start + i );
+        }
+
+        if ( added && ++size >= sampleSize )
+        {
+            reset();
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private boolean incrementAt( int index, int counter )
+    {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ( ( table[index] & mask ) != mask )
+        {
+            table[index] += 1L << offset;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Halve all counters.
+     */
+    private void reset()
+    {
+        int odd = 0;
+        for ( int i = 0; i < table.length; i++ )
+        {
+            odd += Long.bitCount( table[i] & ONE_MASK );
+            table[i] = ( table[i] >>> 1 ) & RESET_MASK;
+        }
+        size = ( size >>> 1 ) - ( odd >>> 2 );
+    }
+
+    private int indexOf( int item, int i )
+    {
+        long hash = ( item + SEEDS[i] ) * SEEDS[i];
+        hash += hash >>> 32;
+
+        return ( (int) hash ) & tableMask;
+    }
+
+    private static int spread( int x )
+    {
+        x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+        x = ( ( x >>> 16 ) ^ x ) * 0x45d9f3b;
+
+        return ( x >>> 16 ) ^ x;
+    }
+}
@@ -60,6 +60,7 @@ public class Home<T> implements AutoCloseable
     private boolean supportsGeneratedKeys = true;
     private Table<T> table;
     private BeanBuilder<T> beanBuilder;
+    private HomeGroup homeGroup;
 
     // ============================================================
     // Constructors
@@ -132,6 +133,84 @@ public class Home<T> implements AutoCloseable
         return table.getStatementCacheEnabled();
     }
 
+    /** * @see {@link Table#setStatementCacheScope(StatementCache.Scope)} */
+    public Home<T> setStatementCacheScope( StatementCache.Scope scope )
+    {
+        table.setStatementCacheScope( scope );
+
+        return this;
+    }
+
+    /** * @see {@link Table#getStatementCacheScope()} */
+    public StatementCache.Scope getStatementCacheScope()
+    {
+        return table.getStatementCacheScope();
+    }
+
+    /** * @see {@link Table#setStatementCacheAdmission(StatementCache.Admission)} */
+    public Home<T> setStatementCacheAdmission( StatementCache.Admission admission )
+    {
+        table.setStatementCacheAdmission( admission );
+
+        return this;
+    }
+
+    /** * @see {@link Table#getStatementCacheAdmission()} */
+    public StatementCache.Admission getStatementCacheAdmission()
+    {
+        return table.getStatementCacheAdmission();
+    }
+
+    /** * @see {@link Table#setPrepareOnConnect(boolean)} */
+    public Home<T> setPrepareOnConnect( boolean prepareOnConnect )
+    {
+        table.setPrepareOnConnect( prepareOnConnect );
+
+        return this;
+    }
+
+    /** * @see {@link Table#getPrepareOnConnect()} */
+    public boolean getPrepareOnConnect()
+    {
+        return table.getPrepareOnConnect();
+    }
+
+    /** * @see {@link Table#addWarmSql(String)} */
+    public Home<T> addWarmSql( String sql )
+    {
+        table.addWarmSql( sql );
+
+        return this;
+    }
+
+    /** * @see {@link Table#setSqlMonitor(SqlMonitor)} */
+    public Home<T> setSqlMonitor( SqlMonitor sqlMonitor )
+    {
+        table.setSqlMonitor( sqlMonitor );
+
+        return this;
+    }
+
+    /** * @see {@link Table#getSqlMonitor()} */
+    public SqlMonitor getSqlMonitor()
+    {
+        return table.getSqlMonitor();
+    }
+
+    /** * @see {@link Table#setNativeJavaTime(boolean)} and {@link BeanBuilder#setNativeJavaTime(boolean)} */
+    public Home<T> setNativeJavaTime( boolean nativeJavaTime )
+    {
+        table.setNativeJavaTime( nativeJavaTime );
+        beanBuilder.setNativeJavaTime( nativeJavaTime );
+
+        return this;
+    }
+
+    public boolean getNativeJavaTime()
+    {
+        return table.getNativeJavaTime();
+    }
+
     /** * @see {@link Table#setStatementCacheConfig(List, Integer, Long)} */
     public Home<T> setStatementCacheConfig( List<StatementCacheListener> listeners, Integer perConCacheMaxEntries, Long perConCacheMaxAgeMillis )
     {
@@ -159,6 +238,13 @@ public class Home<T> implements AutoCloseable
         table.close();
     }
 
+    /** * @see {@link Table#warmUp()} */
+    public void warmUp()
+        throws SQLException
+    {
+        table.warmUp();
+    }
+
     public Table getTable()
     {
         return table;
@@ -173,7 +259,21 @@ public class Home<T> implements AutoCloseable
     public PreparedStatement prepareStatement( String sql )
         throws SQLException
     {
-        return table.prepareStatement( sql );
+        // Inside a read-only transaction of the HomeGroup on a replica, all queries go to the replica.
+        PreparedStatement readOnlyStatement = homeGroup == null ? null : homeGroup.prepareReadOnlyStatement( table, sql );
+
+        return readOnlyStatement == null ? table.prepareStatement( sql ) : readOnlyStatement;
+    }
+
+    /**
+     * Prepare a read-only query. If this Home is in a {@link HomeGroup} with replicas it is prepared on a replica (see
+     * {@link HomeGroup#setReplicas(Connection...)}), otherwise it is the same as {@link #prepareStatement(String)}. Either way it
+     * should be closed after use (e.g. by a BeanBuilder with autoCloseResultSet).
+     */
+    public PreparedStatement prepareReadStatement( String sql )
+        throws SQLException
+    {
+        return homeGroup == null ? prepareStatement( sql ) : homeGroup.prepareReadStatement( table, sql );
     }
 
     public String getSchemaName()
@@ -220,6 +320,13 @@ public class Home<T> implements AutoCloseable
         return table.insert( beans );
     }
 
+    /** * @see {@link Table#insertBatch(Collection)} */
+    public int[] insertBatch( Collection<T> beans )
+        throws SQLException
+    {
+        return table.insertBatch( beans );
+    }
+
     public int[] update( Collection<T> beans )
         throws SQLException
     {
@@ -238,6 +345,13 @@ public class Home<T> implements AutoCloseable
         return table.delete( bean );
     }
 
+    /** * @see {@link Table#deleteBatch(Collection)} */
+    public int[] deleteBatch( Collection<T> beans )
+        throws SQLException
+    {
+        return table.deleteBatch( beans );
+    }
+
     public String buildBasicSelect( String clause )
     {
         return table.buildBasicSelectStatement( clause );
@@ -297,6 +411,15 @@ public class Home<T> implements AutoCloseable
         return beanBuilder.getIterator( rs );
     }
 
+    /**
+     * Page through the whole table in primary key order, pageSize beans at a time, with keyset pagination instead of OFFSET.
+     * @see PageIterator
+     */
+    public PageIterator<T> pages( int pageSize )
+    {
+        return new PageIterator<>( this, pageSize );
+    }
+
     /** * @see {@link Table#getStatementCacheCsvForPrepStmts(StringBuilder)} */
     public void getStatementCacheCsvForPrepStmts( StringBuilder sb )
         throws Exception
@@ -312,4 +435,12 @@ public class Home<T> implements AutoCloseable
         return strBldrToAppend;
     }
 
+    // ----------
+    // private
+    // ----------
+
+    void setHomeGroup( HomeGroup homeGroup )
+    {
+        this.homeGroup = homeGroup;
+    }
 }
@@ -23,9 +23,15 @@ package net.jextra.fauxjo;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.atomic.*;
+import net.jextra.fauxjo.transaction.*;
 
 /**
- * Groups a number of Home objects together into to be used with a common Connection.
+ * Groups a number of Home objects together into to be used with a common Connection.<p>
+ *
+ * Optionally, replica Connections can be added to offload reads from the primary Connection. Queries prepared with
+ * {@link Home#prepareReadStatement(String)}, and all queries run inside a {@link #beginReadOnlyTransaction()}, then go to a replica
+ * picked by the {@link ReplicaSelector}. Writes always go to the primary, as do all reads while read-your-writes is set.
  */
 public class HomeGroup implements AutoCloseable
 {
@@ -35,6 +41,11 @@ public class HomeGroup implements AutoCloseable
 
     private Map<Class<?>, Home<?>> homes;
     private Connection conn;
+    private List<Connection> replicas;
+    private ReplicaSelector replicaSelector;
+    private AtomicIntegerArray inFlight;
+    private boolean readYourWrites;
+    private ReadOnlyTransaction readOnlyTransaction;
 
     // ============================================================
     // Constructors
@@ -43,6 +54,9 @@ public class HomeGroup implements AutoCloseable
     public HomeGroup()
     {
         homes = new LinkedHashMap<>();
+        replicas = Collections.emptyList();
+        replicaSelector = ReplicaSelector.roundRobin();
+        inFlight = new AtomicIntegerArray( 0 );
     }
 
     // ============================================================
@@ -56,6 +70,7 @@ public class HomeGroup implements AutoCloseable
     public void addHome( Class<?> homeClass, Home<?> home )
     {
         homes.put( homeClass, home );
+        home.setHomeGroup( this );
     }
 
     public <T> T getHome( Class<T> homeClass )
@@ -68,6 +83,30 @@ public class HomeGroup implements AutoCloseable
         return conn;
     }
 
+    /**
+     * Set prepareOnConnect on every Home added so far.
+     * @see Table#setPrepareOnConnect(boolean)
+     */
+    public void setPrepareOnConnect( boolean prepareOnConnect )
+    {
+        for ( Home<?> home : homes.values() )
+        {
+            home.setPrepareOnConnect( prepareOnConnect );
+        }
+    }
+
+    /**
+     * Set the SqlMonitor on every Home added so far.
+     * @see Table#setSqlMonitor(SqlMonitor)
+     */
+    public void setSqlMonitor( SqlMonitor sqlMonitor )
+    {
+        for ( Home<?> home : homes.values() )
+        {
+            home.setSqlMonitor( sqlMonitor );
+        }
+    }
+
     public void setConnection( Connection conn )
         throws SQLException
     {
@@ -78,6 +117,123 @@ public class HomeGroup implements AutoCloseable
         }
     }
 
+    /**
+     * Resolve the column meta data of every Home with one getColumns call per schema (instead of one per table on
+     * each Home's first write) and pre-build their insert, update and delete sql. Intended to be called once after
+     * startup so that the first requests do not stall one after another on meta data lookups.
+     */
+    public void warmUp()
+        throws SQLException
+    {
+        Map<String, List<Table<?>>> schemas = new LinkedHashMap<>();
+        for ( Home<?> home : homes.values() )
+        {
+            Table<?> table = home.getTable();
+            schemas.computeIfAbsent( table.getSchemaName(), k -> new ArrayList<>() ).add( table );
+        }
+
+        for ( Map.Entry<String, List<Table<?>>> entry : schemas.entrySet() )
+        {
+            Table.cacheColumnInfos( conn, entry.getKey(), entry.getValue() );
+        }
+
+        for ( Home<?> home : homes.values() )
+        {
+            home.warmUp();
+        }
+    }
+
+    /**
+     * Connections to replicas of the primary Connection to send reads to (none to read from the primary).
+     */
+    public void setReplicas( Connection... replicas )
+    {
+        this.replicas = Collections.unmodifiableList( new ArrayList<>( Arrays.asList( replicas ) ) );
+        inFlight = new AtomicIntegerArray( replicas.length );
+    }
+
+    public List<Connection> getReplicas()
+    {
+        return replicas;
+    }
+
+    /**
+     * How the replica of each read is picked (default {@link ReplicaSelector#roundRobin()}).
+     */
+    public void setReplicaSelector( ReplicaSelector replicaSelector )
+    {
+        this.replicaSelector = replicaSelector;
+    }
+
+    public ReplicaSelector getReplicaSelector()
+    {
+        return replicaSelector;
+    }
+
+    /**
+     * Send all reads to the primary Connection (e.g. for a session that must see its own writes, which replicas may lag behind on).
+     */
+    public void setReadYourWrites( boolean readYourWrites )
+    {
+        this.readYourWrites = readYourWrites;
+    }
+
+    public boolean getReadYourWrites()
+    {
+        return readYourWrites;
+    }
+
+    /**
+     * Return the number of reads currently running on each replica.
+     */
+    public int[] getReplicaLoad()
+    {
+        int[] load = new int[inFlight.length()];
+        for ( int i = 0; i < load.length; i++ )
+        {
+            load[i] = inFlight.get( i );
+        }
+
+        return load;
+    }
+
+    /**
+     * Begin a read-only Transaction on a replica (or on the primary Connection if there are none or read-your-writes is set). Until
+     * it is finished every query prepared through the Homes of this group goes to its Connection, so that they all read one
+     * consistent snapshot.
+     */
+    public Transaction beginReadOnlyTransaction()
+    {
+        if ( readOnlyTransaction != null )
+        {
+            throw new IllegalStateException( "A read-only transaction is already in progress" );
+        }
+
+        int replica = selectReplica();
+        Connection readConn = replica < 0 ? conn : replicas.get( replica );
+        ReadOnlyTransaction trans = new ReadOnlyTransaction( readConn, replica );
+        readOnlyTransaction = trans;
+        try
+        {
+            trans.setReadOnly( true );
+        }
+        catch ( RuntimeException ex )
+        {
+            // Restore autocommit and release the replica again.
+            try
+            {
+                trans.close();
+            }
+            catch ( RuntimeException closeEx )
+            {
+                ex.addSuppressed( closeEx );
+            }
+            throw ex;
+        }
+
+        return trans;
+    }
+
     @Override
     public void close()
         throws SQLException
@@ -86,10 +242,212 @@ public class HomeGroup implements AutoCloseable
         {
             conn.close();
         }
+
+        for ( Connection replica : replicas )
+        {
+            replica.close();
+        }
     }
 
     public Collection<Home<?>> getHomes()
     {
         return homes.values();
     }
+
+    // ----------
+    // private
+    // ----------
+
+    /*
+     * Prepare a read of table on a replica if there is one to read from, else on the primary Connection.
+     */
+    PreparedStatement prepareReadStatement( Table<?> table, String sql )
+        throws SQLException
+    {
+        PreparedStatement readOnlyStatement = prepareReadOnlyStatement( table, sql );
+        if ( readOnlyStatement != null )
+        {
+            return readOnlyStatement;
+        }
+
+        int replica = selectReplica();
+        if ( replica < 0 )
+        {
+            return table.prepareStatement( sql );
+        }
+
+        PreparedStatement statement = table.prepareStatement( replicas.get( replica ), sql );
+        inFlight.incrementAndGet( replica );
+
+        return new ReplicaPreparedStatement( statement, inFlight, replica );
+    }
+
+    /*
+     * Prepare sql of table on the replica of the read-only transaction in progress, or return null if there is none (or it is on the
+     * primary). The statement is closed when the transaction is finished, if it has not been already.
+     */
+    PreparedStatement prepareReadOnlyStatement( Table<?> table, String sql )
+        throws SQLException
+    {
+        return readOnlyTransaction == null || readOnlyTransaction.replica < 0 ? null : readOnlyTransaction.prepareStatement( table, sql );
+    }
+
+    /*
+     * Return the index of the replica to read from next or -1 for the primary Connection.
+     */
+    private int selectReplica()
+    {
+        if ( replicas.isEmpty() || readYourWrites )
+        {
+            return -1;
+        }
+
+        return replicaSelector.select( getReplicaLoad() );
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Statement of a read on a replica, which counts as running on it until closed.
+     */
+    private static class ReplicaPreparedStatement extends DelegatingPreparedStatement
+    {
+        private final AtomicIntegerArray inFlight;
+        private final int replica;
+        private boolean closed;
+
+        public ReplicaPreparedStatement( PreparedStatement delegate, AtomicIntegerArray inFlight, int replica )
+        {
+            super( delegate );
+            this.inFlight = inFlight;
+            this.replica = replica;
+        }
+
+        @Override
+        public void close()
+            throws SQLException
+        {
+            if ( !closed )
+            {
+                closed = true;
+                inFlight.decrementAndGet( replica );
+            }
+            super.close();
+        }
+    }
+
+    /**
+     * Read-only Transaction that routes the reads of the group to its Connection until it is finished.
+     */
+    private class ReadOnlyTransaction extends Transaction
+    {
+        private final int replica;
+        private final Set<PreparedStatement> statements = new HashSet<>();
+
+        public ReadOnlyTransaction( Connection connection, int replica )
+        {
+            super( connection );
+            this.replica = replica;
+            if ( replica >= 0 )
+            {
+                inFlight.incrementAndGet( replica );
+            }
+        }
+
+        @Override
+        public void commit()
+        {
+            try
+            {
+                super.commit();
+            }
+            finally
+            {
+                finished();
+            }
+        }
+
+        @Override
+        public void rollback()
+        {
+            try
+            {
+                super.rollback();
+            }
+            finally
+            {
+                finished();
+            }
+        }
+
+        @Override
+        public void close()
+        {
+            try
+            {
+                super.close();
+            }
+            finally
+            {
+                finished();
+            }
+        }
+
+        private PreparedStatement prepareStatement( Table<?> table, String sql )
+            throws SQLException
+        {
+            PreparedStatement statement = new ReadOnlyPreparedStatement( table.prepareStatement( getConnection(), sql ), statements );
+            statements.add( statement );
+
+            return statement;
+        }
+
+        private void finished()
+        {
+            if ( readOnlyTransaction == this )
+            {
+                readOnlyTransaction = null;
+                if ( replica >= 0 )
+                {
+                    inFlight.decrementAndGet( replica );
+                }
+
+                for ( PreparedStatement statement : new ArrayList<>( statements ) )
+                {
+                    try
+                    {
+                        statement.close();
+                    }
+                    catch ( SQLException ex )
+                    {
+                        // Ignore, the transaction is over so the statement is of no further use either way.
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Statement of a read-only transaction, which it closes when finished unless closed before.
+     */
+    private static class ReadOnlyPreparedStatement extends DelegatingPreparedStatement
+    {
+        private final Set<PreparedStatement> statements;
+
+        public ReadOnlyPreparedStatement( PreparedStatement delegate, Set<PreparedStatement> statements )
+        {
+            super( delegate );
+            this.statements = statements;
+        }
+
+        @Override
+        public void close()
+            throws SQLException
+        {
+            statements.remove( this );
+            super.close();
+        }
+    }
 }
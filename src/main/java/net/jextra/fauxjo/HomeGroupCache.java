@@ -21,11 +21,18 @@
 
 package net.jextra.fauxjo;
 
+import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * Delegate class to be used in a {@link HomeGroup} class to
- * manage its instances.
+ * manage its instances.<p>
+ *
+ * It is safe to use from many threads: looking up an existing instance does not lock and each instance is created only once even
+ * if many threads ask for it at the same time. Optionally the number of instances is bounded, the least recently used one is then
+ * evicted and closed when a new one is created (it must therefore not still be in use elsewhere). A {@link Handle} resolves one
+ * instance name without hashing it on every use.
  */
 public class HomeGroupCache<T extends HomeGroup>
 {
@@ -35,17 +42,31 @@ public class HomeGroupCache<T extends HomeGroup>
 
     public static String DEFAULT_INSTANCE = "_default_";
 
-    private Map<String, T> instances;
+    private ConcurrentHashMap<String, Entry<T>> instances;
     private Class<T> clazz;
+    // Zero or less for unbounded.
+    private volatile int maxSize;
+    private final Object evictionLock = new Object();
+    // Instances least recently used first as of the last scan, handed out to evictions until it runs out (guarded by evictionLock).
+    private final ArrayDeque<Candidate<T>> evictionCandidates = new ArrayDeque<>();
 
     // ============================================================
     // Constructors
     // ============================================================
 
     public HomeGroupCache( Class<T> clazz )
+    {
+        this( clazz, 0 );
+    }
+
+    /**
+     * @param maxSize maximum number of instances kept (zero or less for unbounded)
+     */
+    public HomeGroupCache( Class<T> clazz, int maxSize )
     {
         this.clazz = clazz;
-        instances = new HashMap<>();
+        this.maxSize = maxSize;
+        instances = new ConcurrentHashMap<>();
     }
 
     // ============================================================
@@ -64,40 +85,299 @@ public class HomeGroupCache<T extends HomeGroup>
             instanceName = DEFAULT_INSTANCE;
         }
 
-        T homeGroup = instances.get( instanceName );
-        if ( homeGroup == null )
+        return getEntry( instanceName ).use( maxSize > 0 );
+    }
+
+    public T use()
+        throws FauxjoException
+    {
+        return use( DEFAULT_INSTANCE );
+    }
+
+    /**
+     * Return a Handle to use the instance instanceName through without looking it up by name each time.
+     */
+    public Handle<T> getHandle( String instanceName )
+    {
+        return new Handle<>( this, instanceName == null ? DEFAULT_INSTANCE : instanceName );
+    }
+
+    public void setInstance( String instanceName, T schema )
+    {
+        long cutOff = System.nanoTime();
+        Entry<T> previous = instances.put( instanceName, new Entry<>( instanceName, schema ) );
+        if ( previous != null )
+        {
+            previous.evicted = true;
+        }
+        evictIfNeeded( cutOff );
+    }
+
+    public void setInstance( T schema )
+    {
+        setInstance( DEFAULT_INSTANCE, schema );
+    }
+
+    /**
+     * Remove the instance instanceName (without closing it) and return it or null if there was none.
+     */
+    public T remove( String instanceName )
+    {
+        Entry<T> entry = instances.remove( instanceName );
+        if ( entry == null )
         {
+            return null;
+        }
+
+        entry.evicted = true;
+
+        return entry.homeGroup;
+    }
+
+    public int size()
+    {
+        return instances.size();
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /**
+     * Bound the number of instances (zero or less for unbounded), evicting the least recently used ones beyond it.
+     */
+    public void setMaxSize( int maxSize )
+    {
+        this.maxSize = maxSize;
+        evictIfNeeded( System.nanoTime() );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private Entry<T> getEntry( String instanceName )
+        throws FauxjoException
+    {
+        while ( true )
+        {
+            Entry<T> entry = instances.get( instanceName );
+            if ( entry != null )
+            {
+                return entry;
+            }
+
+            long missStart = System.nanoTime();
             try
             {
-                homeGroup = clazz.getDeclaredConstructor().newInstance();
-                instances.put( instanceName, homeGroup );
+                entry = instances.computeIfAbsent( instanceName, name -> new Entry<>( name, newInstance() ) );
             }
-            catch ( Exception e )
+            catch ( CreationException ex )
             {
-                throw new FauxjoException( e );
+                throw ex.fauxjoException;
             }
 
-            if ( homeGroup == null )
+            evictIfNeeded( missStart );
+
+            // Only if another miss evicted it before it could be returned (it was created before that miss began).
+            if ( !entry.evicted )
             {
-                throw new FauxjoException( String.format( "Unable to create HomeGroup for class %s", clazz.getName() ) );
+                return entry;
             }
         }
+    }
+
+    private T newInstance()
+    {
+        T homeGroup;
+        try
+        {
+            homeGroup = clazz.getDeclaredConstructor().newInstance();
+        }
+        catch ( Exception e )
+        {
+            throw new CreationException( new FauxjoException( e ) );
+        }
+
+        if ( homeGroup == null )
+        {
+            throw new CreationException( new FauxjoException( String.format( "Unable to create HomeGroup for class %s", clazz.getName() ) ) );
+        }
+
         return homeGroup;
     }
 
-    public T use()
-        throws FauxjoException
+    /*
+     * Evict the least recently used instances while there are more than maxSize, but none used since cutOff (e.g. those created by
+     * concurrent misses, which may not have been returned yet). Only called when an instance is added, not on the lookup path.
+     */
+    private void evictIfNeeded( long cutOff )
     {
-        return use( DEFAULT_INSTANCE );
+        if ( maxSize <= 0 || instances.size() <= maxSize )
+        {
+            return;
+        }
+
+        synchronized ( evictionLock )
+        {
+            while ( maxSize > 0 && instances.size() > maxSize )
+            {
+                Entry<T> eldest = pollEvictionCandidate( cutOff );
+                if ( eldest == null )
+                {
+                    return;
+                }
+
+                if ( instances.remove( eldest.instanceName, eldest ) )
+                {
+                    eldest.evicted = true;
+                    try
+                    {
+                        eldest.homeGroup.close();
+                    }
+                    catch ( SQLException ex )
+                    {
+                        // The HomeGroup is gone from the cache either way.
+                    }
+                }
+            }
+        }
     }
 
-    public void setInstance( String instanceName, T schema )
+    /*
+     * Return the least recently used instance last used before cutOff or null if there is none. The instances are sorted by last use
+     * once per scan and then handed out in that order, skipping any used since, so that each eviction does not scan them all again.
+     */
+    private Entry<T> pollEvictionCandidate( long cutOff )
     {
-        instances.put( instanceName, schema );
+        for ( boolean scanned = false; ; scanned = true )
+        {
+            Candidate<T> candidate;
+            while ( ( candidate = evictionCandidates.poll() ) != null )
+            {
+                if ( candidate.lastUsed >= cutOff )
+                {
+                    // Every later candidate is more recent still.
+                    evictionCandidates.addFirst( candidate );
+                    return null;
+                }
+
+                Entry<T> entry = candidate.entry;
+                if ( entry.lastUsed == candidate.lastUsed && !entry.evicted )
+                {
+                    return entry;
+                }
+            }
+
+            if ( scanned )
+            {
+                return null;
+            }
+
+            List<Candidate<T>> candidates = new ArrayList<>( instances.size() );
+            for ( Entry<T> entry : instances.values() )
+            {
+                candidates.add( new Candidate<>( entry ) );
+            }
+            candidates.sort( ( c1, c2 ) -> Long.compare( c1.lastUsed, c2.lastUsed ) );
+            evictionCandidates.addAll( candidates );
+        }
     }
 
-    public void setInstance( T schema )
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class Entry<T>
     {
-        setInstance( DEFAULT_INSTANCE, schema );
+        private final String instanceName;
+        private final T homeGroup;
+        // Only kept up to date (and read) when the cache is bounded, racy writes just blur the order a little.
+        private long lastUsed;
+        private volatile boolean evicted;
+
+        public Entry( String instanceName, T homeGroup )
+        {
+            this.instanceName = instanceName;
+            this.homeGroup = homeGroup;
+            lastUsed = System.nanoTime();
+        }
+
+        public T use( boolean bounded )
+        {
+            if ( bounded )
+            {
+                lastUsed = System.nanoTime();
+            }
+
+            return homeGroup;
+        }
+    }
+
+    /**
+     * An instance as of a scan for eviction. It is stale (and skipped) if the instance has been used since.
+     */
+    private static class Candidate<T>
+    {
+        private final Entry<T> entry;
+        private final long lastUsed;
+
+        public Candidate( Entry<T> entry )
+        {
+            this.entry = entry;
+            lastUsed = entry.lastUsed;
+        }
+    }
+
+    /**
+     * A resolved instance name of a HomeGroupCache. Using it returns the same HomeGroup as {@link HomeGroupCache#use(String)} but
+     * only looks the name up again if the instance was evicted or replaced.
+     */
+    public static class Handle<T extends HomeGroup>
+    {
+        private final HomeGroupCache<T> cache;
+        private final String instanceName;
+        private volatile Entry<T> entry;
+
+        private Handle( HomeGroupCache<T> cache, String instanceName )
+        {
+            this.cache = cache;
+            this.instanceName = instanceName;
+        }
+
+        public String getInstanceName()
+        {
+            return instanceName;
+        }
+
+        public T use()
+            throws FauxjoException
+        {
+            Entry<T> current = entry;
+            if ( current == null || current.evicted )
+            {
+                current = cache.getEntry( instanceName );
+                entry = current;
+            }
+
+            return current.use( cache.maxSize > 0 );
+        }
+    }
+
+    /**
+     * Carries the failure to create an instance out of computeIfAbsent.
+     */
+    private static class CreationException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final FauxjoException fauxjoException;
+
+        public CreationException( FauxjoException fauxjoException )
+        {
+            super( fauxjoException );
+            this.fauxjoException = fauxjoException;
+        }
     }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Thread-safe latency histogram with power of two nanosecond buckets. Recording is a couple of striped counter increments, the price is
+ * that percentiles are only accurate to within a factor of two (the upper bound of the bucket is reported).
+ */
+public class LatencyHistogram
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int BUCKETS = 64;
+
+    // Bucket i holds values from 2^(i-1) to 2^i - 1 (bucket 0 holds zero and negatives).
+    private final LongAdder[] buckets;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator( Math::max, 0L );
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public LatencyHistogram()
+    {
+        buckets = new LongAdder[BUCKETS];
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public void record( long nanos )
+    {
+        buckets[nanos <= 0 ? 0 : BUCKETS - Long.numberOfLeadingZeros( nanos )].increment();
+        count.increment();
+        totalNanos.add( nanos );
+        maxNanos.accumulate( nanos );
+    }
+
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    public long getTotalNanos()
+    {
+        return totalNanos.sum();
+    }
+
+    public long getMaxNanos()
+    {
+        return maxNanos.get();
+    }
+
+    public long getMeanNanos()
+    {
+        long n = count.sum();
+
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /**
+     * Return the upper bound of the bucket holding the given percentile, e.g. 99.9 (zero if nothing was recorded).
+     */
+    public long getPercentileNanos( double percentile )
+    {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+
+        if ( total == 0 )
+        {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil( total * Math.min( 100.0, Math.max( 0.0, percentile ) ) / 100.0 );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS; i++ )
+        {
+            seen += counts[i];
+            if ( seen >= rank && counts[i] > 0 )
+            {
+                long upper = i == 0 ? 0 : i == BUCKETS - 1 ? Long.MAX_VALUE : ( 1L << i ) - 1;
+
+                return Math.min( upper, getMaxNanos() );
+            }
+        }
+
+        return getMaxNanos();
+    }
+
+    public void reset()
+    {
+        for ( LongAdder bucket : buckets )
+        {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format( "count: %d, meanUs: %.1f, p50Us: %.1f, p99Us: %.1f, p999Us: %.1f, maxUs: %.1f", getCount(), getMeanNanos() / 1000.0,
+            getPercentileNanos( 50 ) / 1000.0, getPercentileNanos( 99 ) / 1000.0, getPercentileNanos( 99.9 ) / 1000.0, getMaxNanos() / 1000.0 );
+    }
+}
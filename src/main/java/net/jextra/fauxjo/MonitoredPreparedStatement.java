@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.math.*;
+import java.sql.*;
+import java.sql.Date;
+
+/**
+ * PreparedStatement that records the latency and row count of its executes in a {@link SqlMonitor}. While the monitor has a slow
+ * threshold, the common parameter setters are remembered so that slow executes can be logged with a summary of their bound parameters.
+ */
+public class MonitoredPreparedStatement extends DelegatingPreparedStatement
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final int MAX_PARAMS = 20;
+    private static final int MAX_VALUE_LENGTH = 32;
+
+    private final String sql;
+    private final SqlMonitor monitor;
+    private Object[] params;
+    private int paramCn;
+    private int batchCn;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public MonitoredPreparedStatement( PreparedStatement delegate, String sql, SqlMonitor monitor )
+    {
+        super( delegate );
+        this.sql = sql;
+        this.monitor = monitor;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    public SqlMonitor getMonitor()
+    {
+        return monitor;
+    }
+
+    @Override
+    public ResultSet executeQuery()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try
+        {
+            ResultSet rs = getDelegate().executeQuery();
+            failed = false;
+
+            return rs == null ? null : new CountingResultSet( this, rs );
+        }
+        finally
+        {
+            executed( start, 0, failed );
+        }
+    }
+
+    @Override
+    public int executeUpdate()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        int rows = 0;
+        boolean failed = true;
+        try
+        {
+            rows = getDelegate().executeUpdate();
+            failed = false;
+
+            return rows;
+        }
+        finally
+        {
+            executed( start, rows, failed );
+        }
+    }
+
+    @Override
+    public long executeLargeUpdate()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try
+        {
+            rows = getDelegate().executeLargeUpdate();
+            failed = false;
+
+            return rows;
+        }
+        finally
+        {
+            executed( start, rows, failed );
+        }
+    }
+
+    @Override
+    public boolean execute()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try
+        {
+            boolean result = getDelegate().execute();
+            failed = false;
+
+            return result;
+        }
+        finally
+        {
+            executed( start, 0, failed );
+        }
+    }
+
+    @Override
+    public int[] executeBatch()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try
+        {
+            int[] counts = getDelegate().executeBatch();
+            failed = false;
+            if ( counts != null )
+            {
+                for ( int count : counts )
+                {
+                    rows += Math.max( 0, count );
+                }
+            }
+
+            return counts;
+        }
+        finally
+        {
+            executed( start, rows, failed );
+        }
+    }
+
+    @Override
+    public long[] executeLargeBatch()
+        throws SQLException
+    {
+        long start = System.nanoTime();
+        long rows = 0;
+        boolean failed = true;
+        try
+        {
+            long[] counts = getDelegate().executeLargeBatch();
+            failed = false;
+            if ( counts != null )
+            {
+                for ( long count : counts )
+                {
+                    rows += Math.max( 0, count );
+                }
+            }
+
+            return counts;
+        }
+        finally
+        {
+            executed( start, rows, failed );
+        }
+    }
+
+    @Override
+    public void addBatch()
+        throws SQLException
+    {
+        super.addBatch();
+        batchCn++;
+    }
+
+    @Override
+    public void clearBatch()
+        throws SQLException
+    {
+        super.clearBatch();
+        batchCn = 0;
+    }
+
+    @Override
+    public void clearParameters()
+        throws SQLException
+    {
+        super.clearParameters();
+        paramCn = 0;
+    }
+
+    @Override
+    public void setNull( int parameterIndex, int sqlType )
+        throws SQLException
+    {
+        super.setNull( parameterIndex, sqlType );
+        param( parameterIndex, null );
+    }
+
+    @Override
+    public void setBoolean( int parameterIndex, boolean x )
+        throws SQLException
+    {
+        super.setBoolean( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setShort( int parameterIndex, short x )
+        throws SQLException
+    {
+        super.setShort( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setInt( int parameterIndex, int x )
+        throws SQLException
+    {
+        super.setInt( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setLong( int parameterIndex, long x )
+        throws SQLException
+    {
+        super.setLong( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setFloat( int parameterIndex, float x )
+        throws SQLException
+    {
+        super.setFloat( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setDouble( int parameterIndex, double x )
+        throws SQLException
+    {
+        super.setDouble( parameterIndex, x );
+        if ( monitor.hasSlowThreshold() )
+        {
+            param( parameterIndex, x );
+        }
+    }
+
+    @Override
+    public void setBigDecimal( int parameterIndex, BigDecimal x )
+        throws SQLException
+    {
+        super.setBigDecimal( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setString( int parameterIndex, String x )
+        throws SQLException
+    {
+        super.setString( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setBytes( int parameterIndex, byte[] x )
+        throws SQLException
+    {
+        super.setBytes( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setDate( int parameterIndex, Date x )
+        throws SQLException
+    {
+        super.setDate( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setTime( int parameterIndex, Time x )
+        throws SQLException
+    {
+        super.setTime( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setTimestamp( int parameterIndex, Timestamp x )
+        throws SQLException
+    {
+        super.setTimestamp( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x )
+        throws SQLException
+    {
+        super.setObject( parameterIndex, x );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType )
+        throws SQLException
+    {
+        super.setObject( parameterIndex, x, targetSqlType );
+        param( parameterIndex, x );
+    }
+
+    @Override
+    public void setObject( int parameterIndex, Object x, int targetSqlType, int scaleOrLength )
+        throws SQLException
+    {
+        super.setObject( parameterIndex, x, targetSqlType, scaleOrLength );
+        param( parameterIndex, x );
+    }
+
+    /**
+     * Return a short description of the currently bound parameters, e.g. "1=42, 2='bob'".
+     */
+    public String getParamSummary()
+    {
+        StringBuilder builder = new StringBuilder();
+        if ( batchCn > 0 )
+        {
+            builder.append( "batch of " ).append( batchCn ).append( ", last: " );
+        }
+
+        for ( int i = 0; i < paramCn; i++ )
+        {
+            if ( i > 0 )
+            {
+                builder.append( ", " );
+            }
+            builder.append( i + 1 ).append( '=' );
+            appendValue( builder, params[i] );
+        }
+
+        return builder.toString();
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    /*
+     * Remember value for the slow log. Not while there is no slow threshold, the primitive setters check that first so as not to box
+     * every bind for nothing.
+     */
+    private void param( int parameterIndex, Object value )
+    {
+        if ( parameterIndex < 1 || parameterIndex > MAX_PARAMS || !monitor.hasSlowThreshold() )
+        {
+            return;
+        }
+
+        if ( params == null )
+        {
+            params = new Object[MAX_PARAMS];
+        }
+        params[parameterIndex - 1] = value;
+        paramCn = Math.max( paramCn, parameterIndex );
+    }
+
+    /*
+     * Called from a finally block so that executes that threw (often the slowest, e.g. timeouts) are recorded too.
+     */
+    private void executed( long start, long rows, boolean failed )
+    {
+        long elapsed = System.nanoTime() - start;
+        if ( failed )
+        {
+            monitor.recordError( sql, elapsed );
+        }
+        else
+        {
+            monitor.record( sql, elapsed, rows );
+        }
+        if ( monitor.isSlow( elapsed ) )
+        {
+            monitor.reportSlow( sql, elapsed, rows, getParamSummary(), failed );
+        }
+        batchCn = 0;
+    }
+
+    private static void appendValue( StringBuilder builder, Object value )
+    {
+        if ( value == null )
+        {
+            builder.append( "null" );
+            return;
+        }
+
+        if ( value instanceof byte[] )
+        {
+            builder.append( "byte[" ).append( ( (byte[]) value ).length ).append( ']' );
+            return;
+        }
+
+        String string = String.valueOf( value );
+        boolean quote = value instanceof String;
+        if ( quote )
+        {
+            builder.append( '\'' );
+        }
+        if ( string.length() > MAX_VALUE_LENGTH )
+        {
+            builder.append( string, 0, MAX_VALUE_LENGTH ).append( "..." );
+        }
+        else
+        {
+            builder.append( string );
+        }
+        if ( quote )
+        {
+            builder.append( '\'' );
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Adds the number of rows read to the stats of the sql when closed.
+     */
+    private class CountingResultSet extends DelegatingResultSet
+    {
+        private long rowCn;
+        private boolean closed;
+
+        public CountingResultSet( Statement statement, ResultSet delegate )
+        {
+            super( statement, delegate );
+        }
+
+        @Override
+        public boolean next()
+            throws SQLException
+        {
+            boolean next = super.next();
+            if ( next )
+            {
+                rowCn++;
+            }
+
+            return next;
+        }
+
+        @Override
+        public void close()
+            throws SQLException
+        {
+            if ( !closed )
+            {
+                closed = true;
+                monitor.getStats( sql ).addRows( rowCn );
+            }
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import java.util.stream.*;
+
+/**
+ * Iterator of the pages of a {@link Home}'s table in primary key order. Each page is fetched with keyset (seek) pagination,
+ * "where pk > last order by pk fetch first ? rows only", so a deep page costs the same as the first one unlike OFFSET paging.
+ */
+public class PageIterator<T> implements Iterator<List<T>>, Iterable<List<T>>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private Home<T> home;
+    private int pageSize;
+    private List<T> page;
+    private T lastBean;
+    private boolean done;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public PageIterator( Home<T> home, int pageSize )
+    {
+        if ( pageSize <= 0 )
+        {
+            throw new IllegalArgumentException( "pageSize must be positive but was " + pageSize );
+        }
+
+        this.home = home;
+        this.pageSize = pageSize;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public boolean hasNext()
+    {
+        if ( page == null && !done )
+        {
+            try
+            {
+                page = fetchPage();
+            }
+            catch ( Exception ex )
+            {
+                throw new RuntimeException( ex );
+            }
+
+            // A short page is the last one, no need to ask for an empty page after it.
+            done = page.size() < pageSize;
+            if ( page.isEmpty() )
+            {
+                page = null;
+            }
+        }
+
+        return page != null;
+    }
+
+    @Override
+    public List<T> next()
+    {
+        if ( !hasNext() )
+        {
+            throw new NoSuchElementException();
+        }
+
+        List<T> result = page;
+        lastBean = result.get( result.size() - 1 );
+        page = null;
+
+        return result;
+    }
+
+    @Override
+    public void remove()
+    {
+        throw new UnsupportedOperationException( "Remove is not supported for " + "PageIterators." );
+    }
+
+    @Override
+    public Iterator<List<T>> iterator()
+    {
+        return this;
+    }
+
+    /**
+     * Return the beans of all remaining pages as one lazy Stream, fetching each page only as it is reached.
+     */
+    public Stream<T> stream()
+    {
+        Spliterator<List<T>> spliterator = Spliterators.spliteratorUnknownSize( this, Spliterator.ORDERED | Spliterator.NONNULL );
+
+        return StreamSupport.stream( spliterator, false ).flatMap( List::stream );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    @SuppressWarnings( "unchecked" )
+    private List<T> fetchPage()
+        throws SQLException
+    {
+        Table<T> table = home.getTable();
+        PreparedStatement statement = home.prepareReadStatement( table.getPageSql( lastBean == null ) );
+        try
+        {
+            table.setPageValues( statement, lastBean, pageSize );
+            List<T> beans = new ArrayList<>( pageSize );
+            try ( ResultSet rs = statement.executeQuery() )
+            {
+                home.getBeanBuilder().buildBeans( beans, rs, pageSize );
+            }
+
+            return beans;
+        }
+        finally
+        {
+            // A cached statement ignores close, any other (e.g. on a replica) must be closed.
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Picks the replica a read goes to from the number of reads currently running on each replica.
+ * @see HomeGroup#setReplicaSelector(ReplicaSelector)
+ */
+public interface ReplicaSelector
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return the index of the replica to read from.
+     * @param inFlight number of reads currently running on each replica (never empty)
+     */
+    int select( int[] inFlight );
+
+    /**
+     * Each replica in turn.
+     */
+    static ReplicaSelector roundRobin()
+    {
+        AtomicInteger next = new AtomicInteger();
+
+        return inFlight -> Math.floorMod( next.getAndIncrement(), inFlight.length );
+    }
+
+    /**
+     * The replica with the fewest reads running, ties are taken in turn so that idle replicas share the load.
+     */
+    static ReplicaSelector leastLoaded()
+    {
+        AtomicInteger next = new AtomicInteger();
+
+        return inFlight ->
+        {
+            int start = Math.floorMod( next.getAndIncrement(), inFlight.length );
+            int best = start;
+            for ( int i = 1; i < inFlight.length; i++ )
+            {
+                int index = ( start + i ) % inFlight.length;
+                if ( inFlight[index] < inFlight[best] )
+                {
+                    best = index;
+                }
+            }
+
+            return best;
+        };
+    }
+}
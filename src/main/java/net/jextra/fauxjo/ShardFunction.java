@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.*;
+
+/**
+ * Maps the primary key values of a bean to the shard it lives in.
+ * @see ShardedHomeGroup
+ */
+public interface ShardFunction
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * @param primaryKey values of the primary keys (in key order, see {@link net.jextra.fauxjo.beandef.BeanDef#getPrimaryKey(int)})
+     * @return shard index from 0 to shardCount - 1
+     */
+    int shardOf( Object[] primaryKey, int shardCount );
+
+    /**
+     * Spread of the hashCode of the primary key values (stable across JVMs for the usual key types such as Long, String and UUID).
+     */
+    static ShardFunction hash()
+    {
+        return ( primaryKey, shardCount ) ->
+        {
+            int hash = Arrays.hashCode( primaryKey );
+
+            return Math.floorMod( hash ^ ( hash >>> 16 ), shardCount );
+        };
+    }
+}
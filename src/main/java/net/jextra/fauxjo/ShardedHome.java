@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.*;
+import net.jextra.fauxjo.beandef.*;
+
+/**
+ * The {@link Home}s of one bean class across the shards of a {@link ShardedHomeGroup}. Single bean writes go to the shard of the
+ * bean's primary key, batch writes are partitioned per shard and queries can be scattered to all shards and their results gathered
+ * (in parallel if the group has an executor).
+ */
+public class ShardedHome<T>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private List<Home<T>> homes;
+    private ShardFunction shardFunction;
+    private Executor executor;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    /**
+     * @param executor to run the shards in parallel on or null to run them one after another
+     */
+    public ShardedHome( List<Home<T>> homes, ShardFunction shardFunction, Executor executor )
+    {
+        this.homes = Collections.unmodifiableList( new ArrayList<>( homes ) );
+        this.shardFunction = shardFunction;
+        this.executor = executor;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public int getShardCount()
+    {
+        return homes.size();
+    }
+
+    public Home<T> getHome( int shard )
+    {
+        return homes.get( shard );
+    }
+
+    public List<Home<T>> getHomes()
+    {
+        return homes;
+    }
+
+    /**
+     * Return the shard of the bean, which must have all of its primary key values set.
+     */
+    public int shardOf( T bean )
+        throws FauxjoException
+    {
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
+        if ( !beanDef.hasPrimaryKeyValues( bean ) )
+        {
+            throw new FauxjoException( String.format( "Bean [%s] must have all primary key values set to be routed to a shard",
+                bean.getClass().getCanonicalName() ) );
+        }
+
+        Object[] primaryKey = new Object[beanDef.getPrimaryKeyCount()];
+        for ( int i = 0; i < primaryKey.length; i++ )
+        {
+            primaryKey[i] = beanDef.getPrimaryKeyDef( i ).getValue( bean );
+        }
+
+        return shardOfKey( primaryKey );
+    }
+
+    /**
+     * @param primaryKey values of the primary keys in key order
+     */
+    public int shardOfKey( Object... primaryKey )
+    {
+        return shardFunction.shardOf( primaryKey, homes.size() );
+    }
+
+    public Home<T> getHomeFor( T bean )
+        throws FauxjoException
+    {
+        return homes.get( shardOf( bean ) );
+    }
+
+    public Home<T> getHomeForKey( Object... primaryKey )
+    {
+        return homes.get( shardOfKey( primaryKey ) );
+    }
+
+    public int insert( T bean )
+        throws SQLException
+    {
+        return getHomeFor( bean ).insert( bean );
+    }
+
+    public int update( T bean )
+        throws SQLException
+    {
+        return getHomeFor( bean ).update( bean );
+    }
+
+    public boolean delete( T bean )
+        throws SQLException
+    {
+        return getHomeFor( bean ).delete( bean );
+    }
+
+    /**
+     * Insert the beans with one batch per shard.
+     * @return rows inserted for each bean, in the order of beans
+     */
+    public int[] insertBatch( Collection<T> beans )
+        throws SQLException
+    {
+        return writeBatches( beans, Home::insertBatch );
+    }
+
+    /**
+     * Update the beans with one batch per shard.
+     * @return rows updated for each bean, in the order of beans
+     */
+    public int[] update( Collection<T> beans )
+        throws SQLException
+    {
+        return writeBatches( beans, Home::update );
+    }
+
+    /**
+     * Delete the beans with one batch per shard.
+     * @return rows deleted for each bean, in the order of beans
+     */
+    public int[] deleteBatch( Collection<T> beans )
+        throws SQLException
+    {
+        return writeBatches( beans, Home::deleteBatch );
+    }
+
+    /**
+     * Run call on the Home of every shard and return the results by shard.
+     */
+    public <R> List<R> scatter( ShardCall<T, R> call )
+        throws SQLException
+    {
+        List<Integer> shards = new ArrayList<>();
+        for ( int i = 0; i < homes.size(); i++ )
+        {
+            shards.add( i );
+        }
+
+        return run( shards, shard -> call.call( homes.get( shard ) ) );
+    }
+
+    /**
+     * Run query on every shard and return all of their beans (shard by shard).
+     */
+    public List<T> queryAll( ShardCall<T, List<T>> query )
+        throws SQLException
+    {
+        List<T> beans = new ArrayList<>();
+        for ( List<T> shardBeans : scatter( query ) )
+        {
+            beans.addAll( shardBeans );
+        }
+
+        return beans;
+    }
+
+    /**
+     * Run query on every shard and merge their beans into one Stream in order. The beans of each shard must already be in that order
+     * (e.g. by an order by of the query), they are then k-way merged rather than sorted again.
+     */
+    public Stream<T> queryMerged( ShardCall<T, List<T>> query, Comparator<? super T> order )
+        throws SQLException
+    {
+        List<List<T>> results = scatter( query );
+        Iterator<T> merged = new MergeIterator<>( results, order );
+
+        return StreamSupport.stream( Spliterators.spliteratorUnknownSize( merged, Spliterator.ORDERED | Spliterator.NONNULL ), false );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private int[] writeBatches( Collection<T> beans, BatchWrite<T> write )
+        throws SQLException
+    {
+        if ( beans == null || beans.isEmpty() )
+        {
+            return new int[] {};
+        }
+
+        // Beans and their position in the given order, by shard.
+        Map<Integer, List<T>> beansByShard = new TreeMap<>();
+        Map<Integer, List<Integer>> positionsByShard = new TreeMap<>();
+        int position = 0;
+        for ( T bean : beans )
+        {
+            int shard = shardOf( bean );
+            beansByShard.computeIfAbsent( shard, k -> new ArrayList<>() ).add( bean );
+            positionsByShard.computeIfAbsent( shard, k -> new ArrayList<>() ).add( position++ );
+        }
+
+        List<Integer> shards = new ArrayList<>( beansByShard.keySet() );
+        List<int[]> rowsByShard = run( shards, shard -> write.write( homes.get( shard ), beansByShard.get( shard ) ) );
+
+        int[] rows = new int[beans.size()];
+        for ( int i = 0; i < shards.size(); i++ )
+        {
+            List<Integer> positions = positionsByShard.get( shards.get( i ) );
+            int[] shardRows = rowsByShard.get( i );
+            for ( int j = 0; j < positions.size() && j < shardRows.length; j++ )
+            {
+                rows[positions.get( j )] = shardRows[j];
+            }
+        }
+
+        return rows;
+    }
+
+    /*
+     * Run task for each shard (in parallel if there is an executor) and return the results in the order of shards. If any fail, the
+     * first failure is thrown with the others suppressed.
+     */
+    private <R> List<R> run( List<Integer> shards, ShardTask<R> task )
+        throws SQLException
+    {
+        List<R> results = new ArrayList<>();
+        if ( executor == null || shards.size() < 2 )
+        {
+            for ( Integer shard : shards )
+            {
+                results.add( task.run( shard ) );
+            }
+
+            return results;
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>();
+        for ( Integer shard : shards )
+        {
+            futures.add( CompletableFuture.supplyAsync( () ->
+            {
+                try
+                {
+                    return task.run( shard );
+                }
+                catch ( SQLException ex )
+                {
+                    throw new CompletionException( ex );
+                }
+            }, executor ) );
+        }
+
+        Throwable failure = null;
+        for ( CompletableFuture<R> future : futures )
+        {
+            try
+            {
+                results.add( future.join() );
+            }
+            catch ( CompletionException ex )
+            {
+                Throwable cause = ex.getCause() == null ? ex : ex.getCause();
+                if ( failure == null )
+                {
+                    failure = cause;
+                }
+                else
+                {
+                    failure.addSuppressed( cause );
+                }
+            }
+        }
+
+        if ( failure instanceof SQLException )
+        {
+            throw (SQLException) failure;
+        }
+        else if ( failure instanceof RuntimeException )
+        {
+            throw (RuntimeException) failure;
+        }
+        else if ( failure != null )
+        {
+            throw new FauxjoException( failure );
+        }
+
+        return results;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public interface ShardCall<T, R>
+    {
+        R call( Home<T> home )
+            throws SQLException;
+    }
+
+    private interface ShardTask<R>
+    {
+        R run( int shard )
+            throws SQLException;
+    }
+
+    private interface BatchWrite<T>
+    {
+        int[] write( Home<T> home, Collection<T> beans )
+            throws SQLException;
+    }
+
+    /**
+     * K-way merge of already ordered lists. Ties are taken from the lowest shard first.
+     */
+    private static class MergeIterator<T> implements Iterator<T>
+    {
+        private final PriorityQueue<Cursor<T>> queue;
+
+        public MergeIterator( List<List<T>> lists, Comparator<? super T> order )
+        {
+            Comparator<Cursor<T>> byHead = ( a, b ) -> order.compare( a.head, b.head );
+            queue = new PriorityQueue<>( Math.max( 1, lists.size() ), byHead.thenComparingInt( cursor -> cursor.shard ) );
+            for ( int i = 0; i < lists.size(); i++ )
+            {
+                Cursor<T> cursor = new Cursor<>( lists.get( i ).iterator(), i );
+                if ( cursor.advance() )
+                {
+                    queue.add( cursor );
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public T next()
+        {
+            Cursor<T> cursor = queue.poll();
+            if ( cursor == null )
+            {
+                throw new NoSuchElementException();
+            }
+
+            T next = cursor.head;
+            if ( cursor.advance() )
+            {
+                queue.add( cursor );
+            }
+
+            return next;
+        }
+    }
+
+    private static class Cursor<T>
+    {
+        private final Iterator<T> iterator;
+        private final int shard;
+        private T head;
+
+        public Cursor( Iterator<T> iterator, int shard )
+        {
+            this.iterator = iterator;
+            this.shard = shard;
+        }
+
+        public boolean advance()
+        {
+            if ( !iterator.hasNext() )
+            {
+                head = null;
+                return false;
+            }
+
+            head = iterator.next();
+            return true;
+        }
+    }
+}
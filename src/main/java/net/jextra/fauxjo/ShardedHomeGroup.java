@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * One {@link HomeGroup} per shard (each on the Connection of its database) routed between by the {@link ShardFunction} of the
+ * primary key values of the beans.
+ * <pre>
+ * ShardedHomeGroup&lt;MyHomeGroup&gt; group = new ShardedHomeGroup&lt;&gt;( shardGroups ).setExecutor( executor );
+ * ShardedHome&lt;Order&gt; orders = group.getHome( OrderHome.class );
+ * orders.insertBatch( newOrders );
+ * Stream&lt;Order&gt; recent = orders.queryMerged( home -&gt; ( (OrderHome) home ).findRecent(), byCreatedDesc );
+ * </pre>
+ */
+public class ShardedHomeGroup<G extends HomeGroup> implements AutoCloseable
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private List<G> shards;
+    private ShardFunction shardFunction;
+    private Executor executor;
+    private Map<Class<?>, ShardedHome<?>> homes;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public ShardedHomeGroup( List<G> shards )
+    {
+        if ( shards.isEmpty() )
+        {
+            throw new IllegalArgumentException( "At least one shard is required" );
+        }
+
+        this.shards = Collections.unmodifiableList( new ArrayList<>( shards ) );
+        shardFunction = ShardFunction.hash();
+        homes = new ConcurrentHashMap<>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public ShardFunction getShardFunction()
+    {
+        return shardFunction;
+    }
+
+    /**
+     * How beans are mapped to shards (default {@link ShardFunction#hash()}). Must be set before the first {@link #getHome}, as the
+     * ShardedHomes handed out keep it.
+     */
+    public ShardedHomeGroup<G> setShardFunction( ShardFunction shardFunction )
+    {
+        checkNoHomes( "shard function" );
+        this.shardFunction = shardFunction;
+        return this;
+    }
+
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Run cross-shard queries and batch writes on all shards in parallel on executor (null to run them one after another). Must be
+     * set before the first {@link #getHome}.
+     */
+    public ShardedHomeGroup<G> setExecutor( Executor executor )
+    {
+        checkNoHomes( "executor" );
+        this.executor = executor;
+        return this;
+    }
+
+    public int getShardCount()
+    {
+        return shards.size();
+    }
+
+    public G getShard( int shard )
+    {
+        return shards.get( shard );
+    }
+
+    public List<G> getShards()
+    {
+        return shards;
+    }
+
+    /**
+     * Set the Connection of each shard, in shard order.
+     */
+    public void setConnections( Connection... conns )
+        throws SQLException
+    {
+        if ( conns.length != shards.size() )
+        {
+            throw new FauxjoException( String.format( "Expected %d connections but got %d", shards.size(), conns.length ) );
+        }
+
+        for ( int i = 0; i < conns.length; i++ )
+        {
+            shards.get( i ).setConnection( conns[i] );
+        }
+    }
+
+    /**
+     * Return the Homes of homeClass of all shards.
+     */
+    public <T, H extends Home<T>> ShardedHome<T> getHome( Class<H> homeClass )
+    {
+        @SuppressWarnings( "unchecked" )
+        ShardedHome<T> home = (ShardedHome<T>) homes.computeIfAbsent( homeClass, k ->
+        {
+            List<Home<T>> shardHomes = new ArrayList<>();
+            for ( G shard : shards )
+            {
+                H shardHome = shard.getHome( homeClass );
+                if ( shardHome == null )
+                {
+                    throw new IllegalArgumentException( "No Home of class " + homeClass.getName() + " in every shard" );
+                }
+                shardHomes.add( shardHome );
+            }
+
+            return new ShardedHome<>( shardHomes, shardFunction, executor );
+        } );
+
+        return home;
+    }
+
+    /**
+     * Close every shard. All are closed even if some fail, the first failure is thrown with the others suppressed.
+     */
+    @Override
+    public void close()
+        throws SQLException
+    {
+        SQLException failure = null;
+        for ( G shard : shards )
+        {
+            try
+            {
+                shard.close();
+            }
+            catch ( SQLException ex )
+            {
+                if ( failure == null )
+                {
+                    failure = ex;
+                }
+                else
+                {
+                    failure.addSuppressed( ex );
+                }
+            }
+        }
+
+        if ( failure != null )
+        {
+            throw failure;
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void checkNoHomes( String setting )
+    {
+        if ( !homes.isEmpty() )
+        {
+            throw new IllegalStateException( "The " + setting + " must be set before the first getHome" );
+        }
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.regex.*;
+
+/**
+ * Reduces sql to its shape so that sql differing only by literal values maps to the same fingerprint. String and numeric literals
+ * become {@code ?}, IN lists and multi-row VALUES lists collapse to a single item, whitespace collapses and everything outside of
+ * quoted identifiers is lowercased. For example {@code select * from a where id in (1, 2, 3) and name = 'x'} becomes
+ * {@code select * from a where id in (?) and name = ?}.
+ */
+public final class SqlFingerprint
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private static final Pattern IN_LIST_PATTERN = Pattern.compile( "\\bin \\( ?\\?(?: ?, ?\\?)* ?\\)" );
+    private static final Pattern VALUES_LIST_PATTERN = Pattern.compile( "(\\( ?\\?(?: ?, ?\\?)* ?\\))(?: ?, ?\\1)+" );
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    private SqlFingerprint()
+    {
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static String of( String sql )
+    {
+        if ( sql == null )
+        {
+            return null;
+        }
+
+        StringBuilder builder = new StringBuilder( sql.length() );
+        int length = sql.length();
+        int i = 0;
+        while ( i < length )
+        {
+            char c = sql.charAt( i );
+            if ( c == '\'' )
+            {
+                // String literal, '' is an escaped quote.
+                i++;
+                while ( i < length )
+                {
+                    if ( sql.charAt( i ) == '\'' )
+                    {
+                        if ( i + 1 < length && sql.charAt( i + 1 ) == '\'' )
+                        {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                builder.append( '?' );
+            }
+            else if ( c == '"' )
+            {
+                // Quoted identifier, keep as is.
+                int end = sql.indexOf( '"', i + 1 );
+                end = end < 0 ? length : end + 1;
+                builder.append( sql, i, end );
+                i = end;
+            }
+            else if ( Character.isDigit( c ) && !endsWithIdentifier( builder ) )
+            {
+                i = skipNumber( sql, i );
+                builder.append( '?' );
+            }
+            else if ( Character.isWhitespace( c ) )
+            {
+                while ( i < length && Character.isWhitespace( sql.charAt( i ) ) )
+                {
+                    i++;
+                }
+                if ( builder.length() > 0 && i < length )
+                {
+                    builder.append( ' ' );
+                }
+            }
+            else
+            {
+                builder.append( Character.toLowerCase( c ) );
+                i++;
+            }
+        }
+
+        String fingerprint = IN_LIST_PATTERN.matcher( builder ).replaceAll( "in (?)" );
+
+        return VALUES_LIST_PATTERN.matcher( fingerprint ).replaceAll( "$1" );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static boolean endsWithIdentifier( StringBuilder builder )
+    {
+        if ( builder.length() == 0 )
+        {
+            return false;
+        }
+
+        char c = builder.charAt( builder.length() - 1 );
+
+        return Character.isLetterOrDigit( c ) || c == '_' || c == '$' || c == '"';
+    }
+
+    private static int skipNumber( String sql, int i )
+    {
+        int length = sql.length();
+        while ( i < length )
+        {
+            char c = sql.charAt( i );
+            if ( Character.isDigit( c ) || c == '.' )
+            {
+                i++;
+            }
+            else if ( ( c == 'e' || c == 'E' ) && i + 1 < length && ( Character.isDigit( sql.charAt( i + 1 ) ) || sql.charAt( i + 1 ) == '-' ||
+                sql.charAt( i + 1 ) == '+' ) )
+            {
+                i += 2;
+            }
+            else
+            {
+                break;
+            }
+        }
+
+        return i;
+    }
+}
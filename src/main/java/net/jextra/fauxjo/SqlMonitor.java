@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Optional instrumentation of sql executes: latency histograms and row counts per {@link SqlFingerprint} plus a slow-query log via
+ * {@link SqlMonitorListener}s.<p>
+ *
+ * Set on a Table, Home or HomeGroup. Their PreparedStatements are then wrapped in a {@link MonitoredPreparedStatement} which times
+ * every execute. One SqlMonitor can be shared by any number of Tables and threads.
+ */
+public class SqlMonitor
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Bound memory if sql is wildly dynamic, the remaining sql is recorded as OTHER.
+    private static final int MAX_FINGERPRINTS = 4096;
+    private static final int MAX_SQLS = 16384;
+    private static final String OTHER = "(other)";
+
+    private final ConcurrentHashMap<String, SqlStats> statsByFingerprint = new ConcurrentHashMap<>();
+    // Avoids fingerprinting the same sql on every execute.
+    private final ConcurrentHashMap<String, SqlStats> statsBySql = new ConcurrentHashMap<>();
+    private final SqlStats other = new SqlStats( OTHER );
+    private final List<SqlMonitorListener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long slowThresholdNanos = Long.MAX_VALUE;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Executes taking longer than this are reported to the listeners (default is never).
+     */
+    public SqlMonitor setSlowThreshold( long duration, TimeUnit unit )
+    {
+        slowThresholdNanos = unit.toNanos( duration );
+        return this;
+    }
+
+    public long getSlowThresholdNanos()
+    {
+        return slowThresholdNanos;
+    }
+
+    /**
+     * Return true if a slow threshold is set (and so the bound parameters of executes are worth remembering for the report).
+     */
+    public boolean hasSlowThreshold()
+    {
+        return slowThresholdNanos != Long.MAX_VALUE;
+    }
+
+    public boolean isSlow( long elapsedNanos )
+    {
+        return elapsedNanos >= slowThresholdNanos;
+    }
+
+    public SqlMonitor addListener( SqlMonitorListener listener )
+    {
+        if ( listener != null )
+        {
+            listeners.add( listener );
+        }
+        return this;
+    }
+
+    public boolean removeListener( SqlMonitorListener listener )
+    {
+        return listeners.remove( listener );
+    }
+
+    /**
+     * Return the stats of the fingerprint of sql.
+     */
+    public SqlStats getStats( String sql )
+    {
+        SqlStats stats = statsBySql.get( sql );
+        if ( stats != null )
+        {
+            return stats;
+        }
+
+        String fingerprint = SqlFingerprint.of( sql );
+        stats = statsByFingerprint.get( fingerprint );
+        if ( stats == null )
+        {
+            stats = statsByFingerprint.size() < MAX_FINGERPRINTS ? statsByFingerprint.computeIfAbsent( fingerprint, SqlStats::new ) : other;
+        }
+
+        if ( statsBySql.size() < MAX_SQLS )
+        {
+            statsBySql.putIfAbsent( sql, stats );
+        }
+
+        return stats;
+    }
+
+    /**
+     * Return the stats of all fingerprints by fingerprint.
+     */
+    public Map<String, SqlStats> getAllStats()
+    {
+        Map<String, SqlStats> all = new TreeMap<>( statsByFingerprint );
+        if ( other.getExecutions() > 0 )
+        {
+            all.put( OTHER, other );
+        }
+
+        return all;
+    }
+
+    public void record( String sql, long elapsedNanos, long rows )
+    {
+        getStats( sql ).record( elapsedNanos, rows );
+    }
+
+    /**
+     * Record an execute that threw. Its latency counts like that of any other execute.
+     */
+    public void recordError( String sql, long elapsedNanos )
+    {
+        SqlStats stats = getStats( sql );
+        stats.record( elapsedNanos, 0 );
+        stats.error();
+    }
+
+    public void reportSlow( String sql, long elapsedNanos, long rows, String paramSummary )
+    {
+        reportSlow( sql, elapsedNanos, rows, paramSummary, false );
+    }
+
+    /**
+     * @param failed true if the execute threw
+     */
+    public void reportSlow( String sql, long elapsedNanos, long rows, String paramSummary, boolean failed )
+    {
+        SqlStats stats = getStats( sql );
+        stats.slow();
+        for ( SqlMonitorListener listener : listeners )
+        {
+            listener.slowSql( sql, stats.getFingerprint(), elapsedNanos, rows, paramSummary, failed );
+        }
+    }
+
+    /**
+     * Wrap the statement so that its executes are recorded by this monitor.
+     */
+    public PreparedStatement monitor( PreparedStatement statement, String sql )
+    {
+        return new MonitoredPreparedStatement( statement, sql, this );
+    }
+
+    public void reset()
+    {
+        statsByFingerprint.clear();
+        statsBySql.clear();
+        other.reset();
+    }
+}
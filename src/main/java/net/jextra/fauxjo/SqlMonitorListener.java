@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+/**
+ * Notified by a {@link SqlMonitor} of executes that took longer than its slow threshold, e.g. to write a slow-query log.
+ */
+public interface SqlMonitorListener
+{
+    /**
+     * @param sql that was executed
+     * @param fingerprint of the sql
+     * @param elapsedNanos time the execute took
+     * @param rows updated (zero for queries, their rows are counted later)
+     * @param paramSummary short description of the bound parameters (of the last row of a batch)
+     */
+    public void slowSql( String sql, String fingerprint, long elapsedNanos, long rows, String paramSummary );
+
+    /**
+     * Same as {@link #slowSql(String, String, long, long, String)} (which it calls by default) but also told if the execute threw.
+     * @param failed true if the execute threw (e.g. a timeout, lock wait or deadlock)
+     */
+    public default void slowSql( String sql, String fingerprint, long elapsedNanos, long rows, String paramSummary, boolean failed )
+    {
+        slowSql( sql, fingerprint, elapsedNanos, rows, paramSummary );
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.concurrent.atomic.*;
+
+/**
+ * Execution statistics of all sql sharing a {@link SqlFingerprint}.
+ */
+public class SqlStats
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final String fingerprint;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder slowCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public SqlStats( String fingerprint )
+    {
+        this.fingerprint = fingerprint;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public String getFingerprint()
+    {
+        return fingerprint;
+    }
+
+    /**
+     * Latency of executes, including the ones that threw. For queries this is the time until the ResultSet was returned.
+     */
+    public LatencyHistogram getLatency()
+    {
+        return latency;
+    }
+
+    public long getExecutions()
+    {
+        return latency.getCount();
+    }
+
+    /**
+     * Rows updated by updates and rows read from ResultSets of queries (counted when the ResultSet is closed).
+     */
+    public long getRows()
+    {
+        return rows.sum();
+    }
+
+    public long getSlowCount()
+    {
+        return slowCount.sum();
+    }
+
+    /**
+     * Executes that threw (e.g. timeouts, lock waits or deadlocks).
+     */
+    public long getErrorCount()
+    {
+        return errorCount.sum();
+    }
+
+    public void reset()
+    {
+        latency.reset();
+        rows.reset();
+        slowCount.reset();
+        errorCount.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return fingerprint + " {" + latency + ", rows: " + getRows() + ", slow: " + getSlowCount() + ", errors: " + getErrorCount() + "}";
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    void record( long elapsedNanos, long rowCn )
+    {
+        latency.record( elapsedNanos );
+        if ( rowCn > 0 )
+        {
+            rows.add( rowCn );
+        }
+    }
+
+    void addRows( long rowCn )
+    {
+        rows.add( rowCn );
+    }
+
+    void slow()
+    {
+        slowCount.increment();
+    }
+
+    void error()
+    {
+        errorCount.increment();
+    }
+}
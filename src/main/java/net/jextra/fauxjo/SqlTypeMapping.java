@@ -22,6 +22,7 @@
 package net.jextra.fauxjo;
 
 import java.sql.*;
+import java.time.*;
 import java.util.*;
 
 /**
@@ -35,6 +36,18 @@ public class SqlTypeMapping extends HashMap<Integer, Class<?>>
 
     private static SqlTypeMapping instance;
 
+    // The JDBC 4.2 java.time class of the temporal SQL types.
+    private static final Map<Integer, Class<?>> javaTimeClasses = new HashMap<>();
+
+    static
+    {
+        javaTimeClasses.put( java.sql.Types.DATE, LocalDate.class );
+        javaTimeClasses.put( java.sql.Types.TIME, LocalTime.class );
+        javaTimeClasses.put( java.sql.Types.TIME_WITH_TIMEZONE, OffsetTime.class );
+        javaTimeClasses.put( java.sql.Types.TIMESTAMP, LocalDateTime.class );
+        javaTimeClasses.put( java.sql.Types.TIMESTAMP_WITH_TIMEZONE, OffsetDateTime.class );
+    }
+
     // ============================================================
     // Constructors
     // ============================================================
@@ -104,4 +117,21 @@ public class SqlTypeMapping extends HashMap<Integer, Class<?>>
     {
         return getInstance().get( sqlType );
     }
+
+    /**
+     * Return the java.time class that JDBC 4.2 reads and binds natively for sqlType or null if sqlType is not a date/time type.
+     */
+    public static Class<?> getJavaTimeClass( int sqlType )
+    {
+        return javaTimeClasses.get( sqlType );
+    }
+
+    /**
+     * Return true if values of clss are read and bound through {@link #getJavaTimeClass(int)} when native java.time is enabled.
+     */
+    public static boolean isJavaTimeClass( Class<?> clss )
+    {
+        return clss == LocalDate.class || clss == LocalTime.class || clss == LocalDateTime.class || clss == OffsetTime.class
+            || clss == OffsetDateTime.class || clss == Instant.class;
+    }
 }
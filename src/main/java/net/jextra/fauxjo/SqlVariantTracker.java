@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Counts the distinct sql prepared per {@link SqlFingerprint} to detect sql that is built by concatenating values instead of using
+ * parameters. Only fed from the StatementCache miss path so that cached Statements cost nothing.
+ */
+final class SqlVariantTracker
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Bound memory if sql is wildly dynamic, new fingerprints are just not tracked beyond this.
+    private static final int MAX_FINGERPRINTS = 4096;
+
+    private static final ConcurrentHashMap<String, Variants> variants = new ConcurrentHashMap<>();
+    private static volatile int threshold = 50;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static int getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * @param value number of distinct sql per fingerprint to report at, zero or less disables tracking
+     */
+    public static void setThreshold( int value )
+    {
+        threshold = value;
+        variants.clear();
+    }
+
+    /**
+     * Record that sql was prepared.
+     * @return the Variants of the fingerprint of sql if this sql made it reach the threshold (only once per fingerprint) otherwise null
+     */
+    public static Variants record( String sql )
+    {
+        int max = threshold;
+        if ( max <= 0 || sql == null )
+        {
+            return null;
+        }
+
+        String fingerprint = SqlFingerprint.of( sql );
+        Variants v = variants.get( fingerprint );
+        if ( v == null )
+        {
+            if ( variants.size() >= MAX_FINGERPRINTS )
+            {
+                return null;
+            }
+            v = variants.computeIfAbsent( fingerprint, Variants::new );
+        }
+
+        return v.add( sql, max ) ? v : null;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public static class Variants
+    {
+        private String fingerprint;
+        private Set<Integer> sqlHashes = new HashSet<>();
+        private int count;
+        private boolean reported;
+
+        public Variants( String fingerprint )
+        {
+            this.fingerprint = fingerprint;
+        }
+
+        public String getFingerprint()
+        {
+            return fingerprint;
+        }
+
+        public synchronized int getCount()
+        {
+            return count;
+        }
+
+        /**
+         * @return true if the sql made the count of distinct sql reach max
+         */
+        public synchronized boolean add( String sql, int max )
+        {
+            if ( reported || !sqlHashes.add( sql.hashCode() ) )
+            {
+                return false;
+            }
+
+            count = sqlHashes.size();
+            if ( count >= max )
+            {
+                reported = true;
+                sqlHashes = Collections.emptySet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -21,7 +21,7 @@
 
 package net.jextra.fauxjo;
 
-import java.lang.reflect.*;
+import java.lang.ref.*;
 import java.sql.*;
 import java.text.*;
 import java.time.*;
@@ -44,8 +44,15 @@ import java.util.concurrent.*;
  *     so each thread gets its own StmtCacheMap.</li>
  * </ul>
  *
+ * With {@link Scope#Shared}, StmtCaches are instead held in one static map for all threads, keyed by the physical Connection and
+ * the {@link Config} of the StatementCache, so StatementCaches with different maximums or admission never share a StmtCache.
+ *
+ * A StmtCache keeps the Config it was created with. Its listener events go to the listeners of the StatementCache currently using
+ * it (the sweeper reports to the last one).
+ *
  * StmtCache guards against ever-changing PreparedStatement sql (not using params) by
- * evicting the LRU entry per call if StmtCache is full or entry has expired.
+ * evicting the LRU entry per call if StmtCache is full or entry has expired. To find the
+ * code producing such sql, see {@link #setSqlVariantThreshold(int)}.
  *
  * @see <a href="https://github.com/brettwooldridge/HikariCP/issues/488">Let drivers cache PreparedStatements</a>
  * @see StatementCacheListener
@@ -60,10 +67,24 @@ public class StatementCache
     // Fields
     // ============================================================
 
-    //Instead of Connection, use Connection.hashcode in a Long to support wrapped Connecctions.
-    //Using a Long enables future uses where hash collisions could be possible.
+    //Instead of Connection, use the unique Long key of its physical Connection to support wrapped Connections.
+    //The entries are not collected with their physical Connection: each value holds its key and cached Statements hold their
+    //Connection. They are only removed by clear (which a Table calls when set to a new Connection).
     private static final ThreadLocal<Map<Long, PerConnectionCache>> cache = new ThreadLocal<>();
+    private static final ConcurrentHashMap<SharedKey, PerConnectionCache> sharedCache = new ConcurrentHashMap<>();
+    private static final StatementCacheMetrics metrics = StatementCacheMetrics.getInstance();
+    // Every PerConnectionCache so that the sweeper can find them, weak so that it does not keep them alive.
+    private static final Map<PerConnectionCache, Boolean> sweepableCaches = new WeakHashMap<>();
+    private static ScheduledExecutorService sweeper;
+
+    // Segments of a TinyLfu cache entry.
+    private static final int SEGMENT_WINDOW = 0;
+    private static final int SEGMENT_MAIN = 1;
+    private static final int SEGMENT_REMOVED = 2;
+
     private Config config = new Config();
+    // Read-only snapshot of config handed to listeners so that events do not allocate a copy per listener.
+    private Config listenerConfig = config.copy();
     private List<StatementCacheListener> listeners = new ArrayList<>();
 
     // ============================================================
@@ -74,6 +95,62 @@ public class StatementCache
     // public
     // ----------
 
+    /**
+     * Return the counters aggregated across all threads and StatementCaches.
+     * @see StatementCacheMetrics#registerMBean()
+     */
+    public static StatementCacheMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Start a daemon thread that, every periodMillis, closes cached Statements that have exceeded their max time to live and have not
+     * been used for at least periodMillis. Without it, expired Statements are only evicted when a new Statement is cached on the same
+     * Connection, which may never happen on an idle Connection. The period should be longer than any single use of a Statement.
+     * Replaces any running sweeper.
+     */
+    public static synchronized void startSweeper( long periodMillis )
+    {
+        if ( periodMillis <= 0 )
+        {
+            throw new IllegalArgumentException( "periodMillis must be positive" );
+        }
+
+        stopSweeper();
+        sweeper = Executors.newSingleThreadScheduledExecutor( r ->
+        {
+            Thread thread = new Thread( r, "fauxjo-statement-cache-sweeper" );
+            thread.setDaemon( true );
+            return thread;
+        } );
+        sweeper.scheduleWithFixedDelay( () -> sweep( periodMillis ), periodMillis, periodMillis, TimeUnit.MILLISECONDS );
+    }
+
+    public static synchronized void stopSweeper()
+    {
+        if ( sweeper != null )
+        {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+
+    public static int getSqlVariantThreshold()
+    {
+        return SqlVariantTracker.getThreshold();
+    }
+
+    /**
+     * Set how many distinct sql with the same {@link SqlFingerprint} (i.e. only differing by literal values) are prepared before the
+     * listeners are told via {@link StatementCacheListener#detectedSqlVariants} and the metrics count it (default is 50).
+     * @param threshold zero or less disables the detection
+     */
+    public static void setSqlVariantThreshold( int threshold )
+    {
+        SqlVariantTracker.setThreshold( threshold );
+    }
+
     public Config getConfig()
     {
         return config.copy();
@@ -91,7 +168,10 @@ public class StatementCache
     public void setPerConCacheMaxTtl( Long perConCacheMaxTtl )
     {
         if ( perConCacheMaxTtl != null )
+        {
             config.setStmtAgeMaxMs( perConCacheMaxTtl );
+            listenerConfig = config.copy();
+        }
     }
 
     /**
@@ -107,7 +187,48 @@ public class StatementCache
     public void setPerConCacheMaxEntries( Long perConCacheMaxEntries )
     {
         if ( perConCacheMaxEntries != null )
+        {
             config.setMaxEntries( perConCacheMaxEntries );
+            listenerConfig = config.copy();
+        }
+    }
+
+    public Scope getScope()
+    {
+        return config.getScope();
+    }
+
+    /**
+     * Set where Statements are cached. Should be set before first use.<p>
+     *
+     * With {@link Scope#Shared}, Statements are prepared on the physical Connection (see {@link #getConnKey(Connection)}) rather than
+     * a pool's Connection facade because pools typically close the Statements of a facade when it is returned.
+     */
+    public void setScope( Scope scope )
+    {
+        if ( scope != null )
+        {
+            config.setScope( scope );
+            listenerConfig = config.copy();
+        }
+    }
+
+    public Admission getAdmission()
+    {
+        return config.getAdmission();
+    }
+
+    /**
+     * Set how new Statements are admitted once the cache is full (default is Lru). Applies to Connections first seen afterwards.
+     * @see Admission
+     */
+    public void setAdmission( Admission admission )
+    {
+        if ( admission != null )
+        {
+            config.setAdmission( admission );
+            listenerConfig = config.copy();
+        }
     }
 
     /**
@@ -120,14 +241,16 @@ public class StatementCache
         if ( perConCacheMaxEntries != null )
         {
             config.setMaxEntries( perConCacheMaxEntries );
+            listenerConfig = config.copy();
             for ( StatementCacheListener l : listeners )
-                l.setStmtCacheMaxEntries( config.copy(), Thread.currentThread(), perConCacheMaxEntries );
+                l.setStmtCacheMaxEntries( listenerConfig, Thread.currentThread(), perConCacheMaxEntries );
         }
         if ( perConCacheMaxTtl != null )
         {
             config.setStmtAgeMaxMs( perConCacheMaxTtl );
+            listenerConfig = config.copy();
             for ( StatementCacheListener l : listeners )
-                l.setStmtCacheMaxTtl( config.copy(), Thread.currentThread(), perConCacheMaxTtl );
+                l.setStmtCacheMaxTtl( listenerConfig, Thread.currentThread(), perConCacheMaxTtl );
         }
     }
 
@@ -138,23 +261,26 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
+            metrics.miss();
+            trackSqlVariants( sql );
             if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( sql ) )
             {
-                statement = conn.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
+                statement = cc.getPrepareConnection( conn ).prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
             }
             else
             {
-                statement = conn.prepareStatement( sql );
+                statement = cc.getPrepareConnection( conn ).prepareStatement( sql );
             }
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -167,16 +293,19 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
-            statement = conn.prepareStatement( sql, resultSetType, resultSetConcurrency );
+            metrics.miss();
+            trackSqlVariants( sql );
+            statement = cc.getPrepareConnection( conn ).prepareStatement( sql, resultSetType, resultSetConcurrency );
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -189,16 +318,19 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
-            statement = conn.prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+            metrics.miss();
+            trackSqlVariants( sql );
+            statement = cc.getPrepareConnection( conn ).prepareStatement( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -211,16 +343,19 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
-            statement = conn.prepareStatement( sql, autoGeneratedKeys );
+            metrics.miss();
+            trackSqlVariants( sql );
+            statement = cc.getPrepareConnection( conn ).prepareStatement( sql, autoGeneratedKeys );
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -233,16 +368,19 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
-            statement = conn.prepareStatement( sql, columnIndexes );
+            metrics.miss();
+            trackSqlVariants( sql );
+            statement = cc.getPrepareConnection( conn ).prepareStatement( sql, columnIndexes );
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -255,16 +393,19 @@ public class StatementCache
         PreparedStatement statement = cc.getPreparedStatement( sql );
         if ( statement == null || statement.isClosed() )
         {
-            statement = conn.prepareStatement( sql, columnNames );
+            metrics.miss();
+            trackSqlVariants( sql );
+            statement = cc.getPrepareConnection( conn ).prepareStatement( sql, columnNames );
 
-            statement = cc.setPreparedStatement( sql, statement );
+            statement = cc.setPreparedStatement( sql, statement, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return statement;
@@ -277,16 +418,19 @@ public class StatementCache
         CallableStatement call = cc.getPreparedCall( sql );
         if ( call == null || call.isClosed() )
         {
-            call = conn.prepareCall( sql );
+            metrics.miss();
+            trackSqlVariants( sql );
+            call = cc.getPrepareConnection( conn ).prepareCall( sql );
 
-            call = cc.setPreparedCall( sql, call );
+            call = cc.setPreparedCall( sql, call, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedCall( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedCall( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return call;
@@ -299,16 +443,19 @@ public class StatementCache
         CallableStatement call = cc.getPreparedCall( sql );
         if ( call == null || call.isClosed() )
         {
-            call = conn.prepareCall( sql );
+            metrics.miss();
+            trackSqlVariants( sql );
+            call = cc.getPrepareConnection( conn ).prepareCall( sql );
 
-            call = cc.setPreparedCall( sql, call );
+            call = cc.setPreparedCall( sql, call, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedCall( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedCall( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return call;
@@ -321,16 +468,19 @@ public class StatementCache
         CallableStatement call = cc.getPreparedCall( sql );
         if ( call == null || call.isClosed() )
         {
-            call = conn.prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
+            metrics.miss();
+            trackSqlVariants( sql );
+            call = cc.getPrepareConnection( conn ).prepareCall( sql, resultSetType, resultSetConcurrency, resultSetHoldability );
 
-            call = cc.setPreparedCall( sql, call );
+            call = cc.setPreparedCall( sql, call, this );
             for ( StatementCacheListener l : listeners )
-                l.preparedCall( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.preparedCall( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
         else
         {
+            metrics.hit();
             for ( StatementCacheListener l : listeners )
-                l.reusedStmt( config.copy(), Thread.currentThread(), cc.getConnectionKey() );
+                l.reusedStmt( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
         }
 
         return call;
@@ -344,21 +494,24 @@ public class StatementCache
             return false;
         }
 
-        Map<Long, PerConnectionCache> map = cache.get();
-        if ( map == null )
+        Long cnKy = StatementCache.getConnKey( conn );
+        PerConnectionCache cc;
+        if ( config.getScope() == Scope.Shared )
         {
-            return false;
+            cc = sharedCache.remove( new SharedKey( cnKy, config ) );
+        }
+        else
+        {
+            Map<Long, PerConnectionCache> map = cache.get();
+            cc = map == null ? null : map.remove( cnKy );
         }
 
-        Long cnKy = StatementCache.getConnKey( conn );
         boolean workDone = false;
-        PerConnectionCache cc = map.get( cnKy );
         if ( cc != null )
         {
             workDone = cc.clear();
-            map.remove( cnKy );
             for ( StatementCacheListener l : listeners )
-                l.clearedStmtCacheForConn( config.copy(), Thread.currentThread(), cnKy );
+                l.clearedStmtCacheForConn( listenerConfig, Thread.currentThread(), cnKy );
         }
 
         return workDone;
@@ -367,6 +520,8 @@ public class StatementCache
     /**
      * Closes and removes all Listeners, PreparedStatements and PreparedCalls for the active Thread.<p>
      *
+     * Shared caches are not affected because other Threads may be using them, see {@link #clear(Connection)}.<p>
+     *
      * @return true if any actual work was done and false if there was nothing to remove (most likely already closed).
      */
     public boolean clear()
@@ -383,14 +538,14 @@ public class StatementCache
                 if ( cc != null && cc.clear() )
                 {
                     for ( StatementCacheListener l : listeners )
-                        l.clearedStmtCacheForConn( config.copy(), Thread.currentThread(), connK );
+                        l.clearedStmtCacheForConn( listenerConfig, Thread.currentThread(), connK );
                     workDone = true;
                 }
             }
         }
         cache.remove();
         for ( StatementCacheListener l : listeners )
-            l.clearedStmtCacheMapForThread( config.copy(), Thread.currentThread() );
+            l.clearedStmtCacheMapForThread( listenerConfig, Thread.currentThread() );
         listeners.clear();
         return workDone;
     }
@@ -485,6 +640,11 @@ public class StatementCache
     private PerConnectionCache getConnCache( Connection conn, String sql )
         throws SQLException
     {
+        if ( config.getScope() == Scope.Shared )
+        {
+            return getSharedConnCache( conn, sql );
+        }
+
         Map<Long, PerConnectionCache> map = cache.get();
 
         if ( map == null )
@@ -492,44 +652,133 @@ public class StatementCache
             map = new WeakHashMap<>();
             cache.set( map );
             for ( StatementCacheListener l : listeners )
-                l.newStmtCacheMapForNewThread( config.copy(), Thread.currentThread() );
+                l.newStmtCacheMapForNewThread( listenerConfig, Thread.currentThread() );
         }
 
         Long cnKy = StatementCache.getConnKey( conn );
         PerConnectionCache cc = map.get( cnKy );
         if ( cc == null )
         {
-            cc = new PerConnectionCache( cnKy );
+            cc = new PerConnectionCache( cnKy, null, config.copy(), this );
             map.put( cnKy, cc );
             for ( StatementCacheListener l : listeners )
-                l.newStmtCacheForNewConn( config.copy(), Thread.currentThread(), cnKy, sql );
+                l.newStmtCacheForNewConn( listenerConfig, Thread.currentThread(), cnKy, sql );
         }
 
         return cc;
     }
 
+    /*
+     * Same as getConnCache but from the cache shared by all threads. A new physical Connection is a good time to close and drop the
+     * caches of physical Connections that have since been closed.
+     */
+    private PerConnectionCache getSharedConnCache( Connection conn, String sql )
+        throws SQLException
+    {
+        Long cnKy = StatementCache.getConnKey( conn );
+        PerConnectionCache cc = sharedCache.get( new SharedKey( cnKy, config ) );
+        if ( cc != null )
+        {
+            return cc;
+        }
+
+        SharedKey key = new SharedKey( cnKy, config.copy() );
+        PerConnectionCache newCc = new PerConnectionCache( cnKy, ConnectionIdentity.getPhysicalConnection( conn ), key.config, this );
+        cc = sharedCache.putIfAbsent( key, newCc );
+        if ( cc != null )
+        {
+            return cc;
+        }
+
+        for ( StatementCacheListener l : listeners )
+            l.newStmtCacheForNewConn( listenerConfig, Thread.currentThread(), cnKy, sql );
+        purgeClosedSharedCaches();
+
+        return newCc;
+    }
+
+    private void purgeClosedSharedCaches()
+    {
+        for ( Map.Entry<SharedKey, PerConnectionCache> entry : sharedCache.entrySet() )
+        {
+            PerConnectionCache cc = entry.getValue();
+            if ( cc.isConnectionClosed() && sharedCache.remove( entry.getKey(), cc ) )
+            {
+                try
+                {
+                    cc.clear();
+                }
+                catch ( SQLException ex )
+                {
+                    // Statements of a closed Connection are already unusable, just drop them.
+                }
+                for ( StatementCacheListener l : listeners )
+                    l.clearedStmtCacheForConn( listenerConfig, Thread.currentThread(), cc.getConnectionKey() );
+            }
+        }
+    }
+
+    /*
+     * Feed the sql of a cache miss to the SqlVariantTracker and report its fingerprint if it reached the threshold.
+     */
+    private void trackSqlVariants( String sql )
+    {
+        SqlVariantTracker.Variants variants = SqlVariantTracker.record( sql );
+        if ( variants == null )
+        {
+            return;
+        }
+
+        metrics.sqlVariantsDetected();
+        StackTraceElement callSite = null;
+        for ( StackTraceElement element : new Throwable().getStackTrace() )
+        {
+            if ( !element.getClassName().startsWith( "net.jextra.fauxjo." ) )
+            {
+                callSite = element;
+                break;
+            }
+        }
+
+        for ( StatementCacheListener l : listeners )
+            l.detectedSqlVariants( listenerConfig, variants.getFingerprint(), variants.getCount(), sql, callSite );
+    }
+
+    private static void sweep( long idleMillis )
+    {
+        PerConnectionCache[] caches;
+        synchronized ( sweepableCaches )
+        {
+            caches = sweepableCaches.keySet().toArray( new PerConnectionCache[sweepableCaches.size()] );
+        }
+
+        long now = System.currentTimeMillis();
+        for ( PerConnectionCache cc : caches )
+        {
+            try
+            {
+                cc.sweep( now, idleMillis );
+            }
+            catch ( RuntimeException ex )
+            {
+                // Keep sweeping the other caches, a listener already had the chance to log the problem.
+            }
+        }
+    }
+
     /**
      * Return the Long key to be used for caching the Stmt.<p>
      *
-     * conn.getMetaData().getConnection().hashCode() is used in case conn
-     * is a new pooled wrapper connection. Using an always-new wrapped
-     * connection from a pool like Hikari as a cache key will leak memory.
+     * The key identifies the physical Connection in case conn is a new pooled
+     * wrapper connection. Using an always-new wrapped connection from a pool
+     * like Hikari as a cache key will leak memory.
      * @param conn used to create its cache key
+     * @see ConnectionIdentity
      */
     public static Long getConnKey( Connection conn )
         throws SQLException
     {
-        if ( conn == null )
-            throw new SQLException( "!getConnKey, db conn is null" );
-        if ( conn.isClosed() )
-            throw new SQLException( "!getConnKey, db conn is closed" );
-        if ( conn.getMetaData() == null )
-            throw new SQLException( "!getConnKey, db conn metadata null" );
-        if ( conn.getMetaData().getURL() == null )
-            throw new SQLException( "!getConnKey, db conn metadata URL is null" );
-        long key = conn.getMetaData().getConnection().hashCode(); //Get real connection in case conn is a new pooled wrapper connection.
-
-        return key;
+        return ConnectionIdentity.getKey( conn );
     }
 
     // ============================================================
@@ -537,90 +786,101 @@ public class StatementCache
     // ============================================================
 
     /**
-     * Block from actually doing close.
-     * Wrap ResultSet in a WrapperResultSet so that getStatement method can return proxy Statement vs default non-wrapped Statement.
+     * Block from actually doing close so the statement stays in the cache. ResultSets report this wrapper as their Statement.
      */
-    public static class WrappedPreparedStatement implements InvocationHandler
+    public static class CachedPreparedStatement extends DelegatingPreparedStatement implements ProxyCloser
     {
-        private PreparedStatement statement;
+        // Wrapper of this statement for a SqlMonitor, reused as long as the statement is cached.
+        private SqlMonitor monitor;
+        private PreparedStatement monitored;
 
-        public WrappedPreparedStatement( PreparedStatement statement )
+        public CachedPreparedStatement( PreparedStatement statement )
         {
-            this.statement = statement;
+            super( statement );
         }
 
-        @Override
-        public Object invoke( Object obj, Method method, Object[] args )
-            throws Throwable
+        /**
+         * Return this statement wrapped by the monitor, the same wrapper each time unless the monitor changed.
+         */
+        public PreparedStatement monitor( SqlMonitor monitor, String sql )
         {
-            if ( "close".equals( method.getName() ) )
-            {
-                return Void.TYPE;
-            }
-            else if ( "closeWrapped".equals( method.getName() ) )
+            if ( monitored == null || this.monitor != monitor )
             {
-                statement.close();
-
-                return Void.TYPE;
+                monitored = monitor.monitor( this, sql );
+                this.monitor = monitor;
             }
 
-            Object retObj = method.invoke( statement, args );
+            return monitored;
+        }
 
-            if ( ResultSet.class.equals( method.getReturnType() ) )
-            {
-                retObj = Proxy.newProxyInstance( getClass().getClassLoader(), new Class[] { ResultSet.class },
-                    new WrappedResultSet( (PreparedStatement) obj, (ResultSet) retObj ) );
-            }
+        @Override
+        public void close()
+        {
+        }
 
-            return retObj;
+        @Override
+        public void closeWrapped()
+            throws SQLException
+        {
+            getDelegate().close();
+            metrics.closed();
         }
     }
 
     /**
-     * Override getStatement to return proxied Statement vs real Statement.
+     * Block from actually doing close so the statement stays in the cache. ResultSets report this wrapper as their Statement.
      */
-    public static class WrappedResultSet implements InvocationHandler
+    public static class CachedCallableStatement extends DelegatingCallableStatement implements ProxyCloser
     {
-        private PreparedStatement parent;
-        private ResultSet rs;
-
-        public WrappedResultSet( PreparedStatement parent, ResultSet rs )
+        public CachedCallableStatement( CallableStatement statement )
         {
-            this.parent = parent;
-            this.rs = rs;
+            super( statement );
         }
 
         @Override
-        public Object invoke( Object obj, Method method, Object[] args )
-            throws Throwable
+        public void close()
         {
-            if ( "getStatement".equals( method.getName() ) && Statement.class.equals( method.getReturnType() ) )
-            {
-                return parent;
-            }
+        }
 
-            return method.invoke( rs, args );
+        @Override
+        public void closeWrapped()
+            throws SQLException
+        {
+            getDelegate().close();
+            metrics.closed();
         }
     }
 
     public interface ProxyCloser
     {
-        void closeWrapped();
+        void closeWrapped()
+            throws SQLException;
     }
 
     /* Thin wrapper with entryDate to determine age and expiry. */
-    private class PerConnectionCacheEntry<T extends Statement>
+    private static class PerConnectionCacheEntry<T extends Statement>
     {
+        private String sql;
         private T statement;
         private long entryDate;
+        private long lastAccessDate;
         private long accessCn = 1L;
+        // Segment of a TinyLfu cache the entry is in.
+        private int segment = SEGMENT_WINDOW;
 
-        public PerConnectionCacheEntry( T statement )
+        public PerConnectionCacheEntry( String sql, T statement )
         {
             entryDate = System.currentTimeMillis();
+            lastAccessDate = entryDate;
+            this.sql = sql;
             this.statement = statement;
         }
 
+        public String getSql()
+        {
+            return sql;
+        }
+
         public T getStatement()
         {
             accessCn++;
@@ -647,52 +907,52 @@ public class StatementCache
             return now - entryDate;
         }
 
+        public long getLastAccessDate()
+        {
+            return lastAccessDate;
+        }
+
+        public void setLastAccessDate( long lastAccessDate )
+        {
+            this.lastAccessDate = lastAccessDate;
+        }
+
         public long getAccessCn()
         {
             return accessCn;
         }
     }
 
-    private class PerConnectionCache
+    /**
+     * Static so that it does not depend on the StatementCache that created it, which may not be the one using it (e.g. when shared).
+     */
+    private static class PerConnectionCache
     {
         private LruPrepStmt preparedStatementsLruCache;
         private LruCallableStmt callableStatementsLruCache;
         private Long connectionKey;
+        // Only set for shared caches. Weak so that a physical Connection dropped by its pool can be collected.
+        private WeakReference<Connection> physicalConnection;
+        private Config config;
+        // The StatementCache that last added a Statement, whose listeners are told about evictions.
+        private StatementCache caller;
 
-        public PerConnectionCache( Long connectionKey )
+        public PerConnectionCache( Long connectionKey, Connection physicalConnection, Config config, StatementCache caller )
         {
             this.connectionKey = connectionKey;
-            preparedStatementsLruCache = new LruPrepStmt( 1 << 4, 0.75f, true )
-            { //ctor 16, 0.75 are HashMap defaults, initialCapcity must be power of two
-
-                @Override //LinkedHashMap removes the eldestEntry if it is expired or the LRU is full.
-                protected boolean removeEldestEntry( Map.Entry<String, PerConnectionCacheEntry<PreparedStatement>> eldest )
-                {
-                    if ( size() > config.getMaxEntries() )
-                        doRemoveLru( eldest, StatementCacheListener.EvictType.MaxEntries );
-                    else if ( eldest.getValue().getAgeMillis( System.currentTimeMillis() ) > config.getStmtAgeMaxMs() )
-                    {
-                        doRemoveLru( eldest, StatementCacheListener.EvictType.MaxTtl );
-                    }
-                    return false;
-                }
-            };
-
-            callableStatementsLruCache = new LruCallableStmt( 1 << 4, 0.75f, true )
-            { //ctor 16, 0.75 are HashMap defaults, initialCapcity must be power of two
+            if ( physicalConnection != null )
+            {
+                this.physicalConnection = new WeakReference<>( physicalConnection );
+            }
+            this.config = config;
+            this.caller = caller;
+            preparedStatementsLruCache = new LruPrepStmt( this );
+            callableStatementsLruCache = new LruCallableStmt( this );
 
-                @Override //LinkedHashMap removes the eldestEntry if it is expired or the LRU is full.
-                protected boolean removeEldestEntry( Map.Entry<String, PerConnectionCacheEntry<CallableStatement>> eldest )
-                {
-                    if ( size() > config.getMaxEntries() )
-                        doRemoveLru( eldest, StatementCacheListener.EvictType.MaxEntries );
-                    else if ( eldest.getValue().getAgeMillis( System.currentTimeMillis() ) > config.getStmtAgeMaxMs() )
-                    {
-                        doRemoveLru( eldest, StatementCacheListener.EvictType.MaxTtl );
-                    }
-                    return false; //per the spec, this block handled the removal, do not return true
-                }
-            };
+            synchronized ( sweepableCaches )
+            {
+                sweepableCaches.put( this, Boolean.TRUE );
+            }
         }
 
         public Long getConnectionKey()
@@ -700,70 +960,86 @@ public class StatementCache
             return connectionKey;
         }
 
-        public PreparedStatement getPreparedStatement( String sql )
+        /**
+         * Return the Connection to prepare new Statements on: the physical Connection for a shared cache, otherwise conn.
+         */
+        public Connection getPrepareConnection( Connection conn )
+        {
+            Connection physical = physicalConnection == null ? null : physicalConnection.get();
+
+            return physical == null ? conn : physical;
+        }
+
+        public boolean isConnectionClosed()
+        {
+            if ( physicalConnection == null )
+            {
+                return false;
+            }
+
+            Connection physical = physicalConnection.get();
+            try
+            {
+                return physical == null || physical.isClosed();
+            }
+            catch ( SQLException ex )
+            {
+                return true;
+            }
+        }
+
+        public synchronized PreparedStatement getPreparedStatement( String sql )
         {
-            PerConnectionCacheEntry<PreparedStatement> pse = preparedStatementsLruCache.get( sql );
+            PerConnectionCacheEntry<PreparedStatement> pse = preparedStatementsLruCache.getEntry( sql );
             return ( pse != null ? pse.getStatement() : null );
         }
 
-        public PreparedStatement setPreparedStatement( String sql, PreparedStatement statement )
+        public synchronized PreparedStatement setPreparedStatement( String sql, PreparedStatement statement, StatementCache caller )
         {
-            PreparedStatement proxyStatement = (PreparedStatement) Proxy.newProxyInstance( getClass().getClassLoader(),
-                new Class[] { PreparedStatement.class, ProxyCloser.class }, new WrappedPreparedStatement( statement ) );
+            this.caller = caller;
+            PreparedStatement proxyStatement = new CachedPreparedStatement( statement );
 
-            preparedStatementsLruCache.put( sql, new PerConnectionCacheEntry<>( proxyStatement ) );
+            metrics.prepared();
+            preparedStatementsLruCache.putEntry( new PerConnectionCacheEntry<>( sql, proxyStatement ) );
 
             return proxyStatement;
         }
 
-        public CallableStatement getPreparedCall( String sql )
+        public synchronized CallableStatement getPreparedCall( String sql )
         {
-            PerConnectionCacheEntry<CallableStatement> cse = callableStatementsLruCache.get( sql );
+            PerConnectionCacheEntry<CallableStatement> cse = callableStatementsLruCache.getEntry( sql );
             return ( cse != null ? cse.getStatement() : null );
         }
 
-        public CallableStatement setPreparedCall( String sql, CallableStatement statement )
+        public synchronized CallableStatement setPreparedCall( String sql, CallableStatement statement, StatementCache caller )
         {
-            CallableStatement proxyCall = (CallableStatement) Proxy.newProxyInstance( CallableStatement.class.getClassLoader(),
-                new Class[] { CallableStatement.class, ProxyCloser.class }, new WrappedPreparedStatement( statement ) );
+            this.caller = caller;
+            CallableStatement proxyCall = new CachedCallableStatement( statement );
 
-            callableStatementsLruCache.put( sql, new PerConnectionCacheEntry<>( proxyCall ) );
+            metrics.prepared();
+            callableStatementsLruCache.putEntry( new PerConnectionCacheEntry<>( sql, proxyCall ) );
 
             return proxyCall;
         }
 
-        public boolean clear()
+        public synchronized boolean clear()
             throws SQLException
         {
-            boolean workDone = false;
-            for ( PerConnectionCacheEntry<PreparedStatement> prepStmtEntry : preparedStatementsLruCache.values() )
-            {
-                if ( prepStmtEntry != null && prepStmtEntry.getStatement() != null && !prepStmtEntry.getStatement().isClosed() )
-                {
-                    ( (ProxyCloser) prepStmtEntry.getStatement() ).closeWrapped();
-                    workDone = true;
-                }
-            }
-            preparedStatementsLruCache.clear();
-
-            for ( PerConnectionCacheEntry<CallableStatement> callableStmtEntry : callableStatementsLruCache.values() )
-            {
-                if ( callableStmtEntry == null )
-                {
-                    continue;
-                }
-
-                if ( !callableStmtEntry.getStatement().isClosed() )
-                {
-                    ( (ProxyCloser) callableStmtEntry.getStatement() ).closeWrapped();
-                    workDone = true;
-                }
-            }
-            callableStatementsLruCache.clear();
+            boolean workDone = preparedStatementsLruCache.clearEntries();
+            workDone |= callableStatementsLruCache.clearEntries();
 
             return workDone;
         }
 
+        /**
+         * Evict the Statements that have exceeded their max time to live and have not been used for at least idleMillis.
+         */
+        public synchronized void sweep( long now, long idleMillis )
+        {
+            preparedStatementsLruCache.sweep( now, idleMillis );
+            callableStatementsLruCache.sweep( now, idleMillis );
+        }
+
         public int getPreparedStatementEntryCn()
         {
             return preparedStatementsLruCache.size();
@@ -831,118 +1107,352 @@ public class StatementCache
 
     }
 
-    private class LruPrepStmt extends LinkedHashMap<String, PerConnectionCacheEntry<PreparedStatement>>
+    /**
+     * LRU of Statements by their sql. With {@link Admission#TinyLfu}, new Statements enter a small window LRU and only move into the
+     * main LRU if they are used more often than the main LRU's eldest Statement (see {@link TinyLfuAdmission}).
+     */
+    private static class StmtLru<T extends Statement> extends LinkedHashMap<String, PerConnectionCacheEntry<T>>
     {
-        /**
-         * Constructs an empty {@code LinkedHashMap} instance with the
-         * specified initial capacity, load factor and ordering mode.
-         *
-         * @param  initialCapacity the initial capacity
-         * @param  loadFactor      the load factor
-         * @param  accessOrder     the ordering mode - {@code true} for
-         *         access-order, {@code false} for insertion-order
-         * @throws IllegalArgumentException if the initial capacity is negative
-         *         or the load factor is nonpositive
-         */
-        public LruPrepStmt( int initialCapacity, float loadFactor, boolean accessOrder )
+        private PerConnectionCache owner;
+        private StatementCacheListener.StmtType stmtType;
+        // Only set if the admission is TinyLfu.
+        private TinyLfuAdmission<T> admission;
+
+        public StmtLru( PerConnectionCache owner, StatementCacheListener.StmtType stmtType )
+        {
+            super( 1 << 4, 0.75f, true ); //ctor 16, 0.75 are HashMap defaults, initialCapcity must be power of two
+            this.owner = owner;
+            this.stmtType = stmtType;
+            if ( owner.config.getAdmission() == Admission.TinyLfu )
+            {
+                admission = new TinyLfuAdmission<>( this, owner.config.getMaxEntries() );
+            }
+        }
+
+        public PerConnectionCacheEntry<T> getEntry( String sql )
+        {
+            if ( admission != null )
+            {
+                admission.recordAccess( sql );
+            }
+
+            PerConnectionCacheEntry<T> entry = get( sql );
+            if ( entry != null )
+            {
+                entry.setLastAccessDate( System.currentTimeMillis() );
+            }
+
+            return entry;
+        }
+
+        public void putEntry( PerConnectionCacheEntry<T> entry )
+        {
+            PerConnectionCacheEntry<T> replaced = put( entry.getSql(), entry );
+            if ( replaced != null )
+            {
+                // Replaced a Statement that was closed elsewhere (e.g. by its Connection).
+                metrics.released();
+                if ( admission != null )
+                {
+                    admission.removed( replaced );
+                }
+            }
+
+            if ( admission != null )
+            {
+                admission.admit( entry );
+            }
+        }
+
+        @Override //LinkedHashMap removes the eldestEntry if it is expired or the LRU is full.
+        protected boolean removeEldestEntry( Map.Entry<String, PerConnectionCacheEntry<T>> eldest )
         {
-            super( initialCapacity, loadFactor, accessOrder );
+            if ( admission == null && size() > owner.config.getMaxEntries() )
+                doRemoveLru( eldest.getValue(), StatementCacheListener.EvictType.MaxEntries );
+            else if ( eldest.getValue().getAgeMillis( System.currentTimeMillis() ) > owner.config.getStmtAgeMaxMs() )
+            {
+                doRemoveLru( eldest.getValue(), StatementCacheListener.EvictType.MaxTtl );
+            }
+            return false; //per the spec, this block handled the removal, do not return true
         }
 
         /** * Remove the entry from the map and attempt to close its Statement. */
-        public void doRemoveLru( Map.Entry<String, PerConnectionCacheEntry<PreparedStatement>> eldest, StatementCacheListener.EvictType evictType )
+        public void doRemoveLru( PerConnectionCacheEntry<T> eldest, StatementCacheListener.EvictType evictType )
         {
-            StatementCacheListener.StmtType stmtType = StatementCacheListener.StmtType.Prepared;
-            remove( eldest );
+            remove( eldest.getSql() );
+            if ( admission != null )
+            {
+                admission.removed( eldest );
+            }
+            metrics.evicted( evictType );
+            List<StatementCacheListener> listeners = owner.caller.listeners;
+            Config listenerConfig = owner.caller.listenerConfig;
             try
             {
-                if ( eldest != null && eldest.getValue() != null && !eldest.getValue().getStatement().isClosed() )
+                if ( !eldest.getStatement().isClosed() )
                 {
-                    eldest.getValue().getStatement().close();
+                    ( (ProxyCloser) eldest.getStatement() ).closeWrapped();
+                }
+                else
+                {
+                    metrics.released();
                 }
                 if ( evictType == StatementCacheListener.EvictType.MaxEntries )
                 {
                     for ( StatementCacheListener l : listeners )
                     {
-                        l.evictedLruStmt_MaxEntries( config.copy(), stmtType, eldest.getKey(), eldest.getValue().getEntryDate(),
-                            eldest.getValue().getAccessCn(), config.getMaxEntries() );
+                        l.evictedLruStmt_MaxEntries( listenerConfig, stmtType, eldest.getSql(), eldest.getEntryDate(), eldest.getAccessCn(),
+                            owner.config.getMaxEntries() );
                     }
                 }
                 else if ( evictType == StatementCacheListener.EvictType.MaxTtl )
                 {
                     for ( StatementCacheListener l : listeners )
                     {
-                        l.evictedLruStmt_MaxTtl( config.copy(), stmtType, eldest.getKey(), eldest.getValue().getEntryDate(),
-                            eldest.getValue().getAccessCn(), config.getStmtAgeMaxMs() );
+                        l.evictedLruStmt_MaxTtl( listenerConfig, stmtType, eldest.getSql(), eldest.getEntryDate(), eldest.getAccessCn(),
+                            owner.config.getStmtAgeMaxMs() );
                     }
                 }
             }
             catch ( SQLException x )
             {
                 for ( StatementCacheListener l : listeners )
-                    l.evictLruStmtException( config.copy(), stmtType, x );
+                    l.evictLruStmtException( listenerConfig, stmtType, x );
             }
         }
-    }
 
-    private class LruCallableStmt extends LinkedHashMap<String, PerConnectionCacheEntry<CallableStatement>>
-    {
         /**
-         * Constructs an empty {@code LinkedHashMap} instance with the
-         * specified initial capacity, load factor and ordering mode.
-         *
-         * @param  initialCapacity the initial capacity
-         * @param  loadFactor      the load factor
-         * @param  accessOrder     the ordering mode - {@code true} for
-         *         access-order, {@code false} for insertion-order
-         * @throws IllegalArgumentException if the initial capacity is negative
-         *         or the load factor is nonpositive
+         * Evict the Statements that have exceeded their max time to live and have not been used for at least idleMillis.
          */
-        public LruCallableStmt( int initialCapacity, float loadFactor, boolean accessOrder )
+        public void sweep( long now, long idleMillis )
         {
-            super( initialCapacity, loadFactor, accessOrder );
+            List<PerConnectionCacheEntry<T>> expired = null;
+            for ( PerConnectionCacheEntry<T> entry : values() )
+            {
+                if ( entry.getAgeMillis( now ) > owner.config.getStmtAgeMaxMs() && now - entry.getLastAccessDate() >= idleMillis )
+                {
+                    if ( expired == null )
+                    {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add( entry );
+                }
+            }
+
+            if ( expired != null )
+            {
+                for ( PerConnectionCacheEntry<T> entry : expired )
+                {
+                    doRemoveLru( entry, StatementCacheListener.EvictType.MaxTtl );
+                }
+            }
         }
 
-        /** * Remove the entry from the map and attempt to close its Statement. */
-        public void doRemoveLru( Map.Entry<String, PerConnectionCacheEntry<CallableStatement>> eldest, StatementCacheListener.EvictType evictType )
+        /**
+         * Close all Statements and remove them.
+         * @return true if any Statement was closed
+         */
+        public boolean clearEntries()
+            throws SQLException
         {
-            StatementCacheListener.StmtType stmtType = StatementCacheListener.StmtType.Callable;
-            remove( eldest );
-            try
+            boolean workDone = false;
+            for ( PerConnectionCacheEntry<T> entry : values() )
             {
-                if ( eldest != null && eldest.getValue() != null && !eldest.getValue().getStatement().isClosed() )
+                if ( entry.getStatement() != null && !entry.getStatement().isClosed() )
                 {
-                    eldest.getValue().getStatement().close();
+                    ( (ProxyCloser) entry.getStatement() ).closeWrapped();
+                    workDone = true;
                 }
-                if ( evictType == StatementCacheListener.EvictType.MaxEntries )
+                else
                 {
-                    for ( StatementCacheListener l : listeners )
-                    {
-                        l.evictedLruStmt_MaxEntries( config.copy(), stmtType, eldest.getKey(), eldest.getValue().getEntryDate(),
-                            eldest.getValue().getAccessCn(), config.getMaxEntries() );
-                    }
+                    metrics.released();
                 }
-                else if ( evictType == StatementCacheListener.EvictType.MaxTtl )
+            }
+            clear();
+            if ( admission != null )
+            {
+                admission.cleared();
+            }
+
+            return workDone;
+        }
+    }
+
+    private static class LruPrepStmt extends StmtLru<PreparedStatement>
+    {
+        public LruPrepStmt( PerConnectionCache owner )
+        {
+            super( owner, StatementCacheListener.StmtType.Prepared );
+        }
+    }
+
+    private static class LruCallableStmt extends StmtLru<CallableStatement>
+    {
+        public LruCallableStmt( PerConnectionCache owner )
+        {
+            super( owner, StatementCacheListener.StmtType.Callable );
+        }
+    }
+
+    /**
+     * W-TinyLFU style admission. Each new Statement enters a window LRU of about 1% of the max entries. When the window overflows, its
+     * eldest Statement (the candidate) competes with the eldest Statement of the main LRU (the victim) and only the one used more often,
+     * according to a {@link FrequencySketch} of all requested sql, stays cached. A burst of one-off sql then only churns the window
+     * instead of flushing hot Statements. A new Statement is never evicted right away since it is about to be used.
+     */
+    private static class TinyLfuAdmission<T extends Statement>
+    {
+        private StmtLru<T> lru;
+        private FrequencySketch sketch;
+        private ArrayDeque<PerConnectionCacheEntry<T>> window;
+        private int windowMax;
+        private int mainMax;
+        private int mainCn;
+
+        public TinyLfuAdmission( StmtLru<T> lru, long maxEntries )
+        {
+            this.lru = lru;
+            int max = (int) Math.max( 1L, Math.min( maxEntries, Integer.MAX_VALUE ) );
+            sketch = new FrequencySketch( max );
+            window = new ArrayDeque<>();
+            windowMax = Math.max( 1, max / 100 );
+            mainMax = Math.max( 0, max - windowMax );
+        }
+
+        public void recordAccess( String sql )
+        {
+            sketch.increment( sql.hashCode() );
+        }
+
+        public void admit( PerConnectionCacheEntry<T> entry )
+        {
+            entry.segment = SEGMENT_WINDOW;
+            window.addLast( entry );
+
+            while ( window.size() > windowMax )
+            {
+                PerConnectionCacheEntry<T> candidate = window.pollFirst();
+                if ( mainCn < mainMax )
                 {
-                    for ( StatementCacheListener l : listeners )
+                    candidate.segment = SEGMENT_MAIN;
+                    mainCn++;
+                    continue;
+                }
+
+                PerConnectionCacheEntry<T> victim = getMainEldest();
+                if ( victim == null || sketch.frequency( candidate.getSql().hashCode() ) > sketch.frequency( victim.getSql().hashCode() ) )
+                {
+                    if ( victim != null )
                     {
-                        l.evictedLruStmt_MaxTtl( config.copy(), stmtType, eldest.getKey(), eldest.getValue().getEntryDate(),
-                            eldest.getValue().getAccessCn(), config.getStmtAgeMaxMs() );
+                        lru.doRemoveLru( victim, StatementCacheListener.EvictType.MaxEntries );
                     }
+                    candidate.segment = SEGMENT_MAIN;
+                    mainCn++;
+                }
+                else
+                {
+                    // The candidate already left the window so it is not counted by removed.
+                    candidate.segment = SEGMENT_REMOVED;
+                    lru.doRemoveLru( candidate, StatementCacheListener.EvictType.MaxEntries );
                 }
             }
-            catch ( SQLException x )
+        }
+
+        public void removed( PerConnectionCacheEntry<T> entry )
+        {
+            if ( entry.segment == SEGMENT_MAIN )
             {
-                for ( StatementCacheListener l : listeners )
-                    l.evictLruStmtException( config.copy(), stmtType, x );
+                mainCn--;
+            }
+            else if ( entry.segment == SEGMENT_WINDOW )
+            {
+                window.remove( entry );
+            }
+            entry.segment = SEGMENT_REMOVED;
+        }
+
+        public void cleared()
+        {
+            window.clear();
+            mainCn = 0;
+        }
+
+        // The LRU is in access order, so the first main entry is the least recently used one.
+        private PerConnectionCacheEntry<T> getMainEldest()
+        {
+            for ( PerConnectionCacheEntry<T> entry : lru.values() )
+            {
+                if ( entry.segment == SEGMENT_MAIN )
+                {
+                    return entry;
+                }
             }
+
+            return null;
         }
     }
 
+    /**
+     * Key of a shared PerConnectionCache: the physical Connection and the Config it was created with.
+     */
+    private static class SharedKey
+    {
+        private final Long connectionKey;
+        private final Config config;
+
+        public SharedKey( Long connectionKey, Config config )
+        {
+            this.connectionKey = connectionKey;
+            this.config = config;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( !( o instanceof SharedKey ) )
+            {
+                return false;
+            }
+
+            SharedKey other = (SharedKey) o;
+
+            return connectionKey.equals( other.connectionKey ) && config.equals( other.config );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * connectionKey.hashCode() + config.hashCode();
+        }
+    }
+
+    /**
+     * PerThread (default) caches Statements per Thread and Connection. Shared caches Statements per physical Connection across all
+     * Threads, which suits pools (e.g. HikariCP) where a physical Connection moves between Threads from one borrow to the next but is
+     * only used by one Thread at a time.
+     */
+    public enum Scope
+    {
+        PerThread,
+        Shared
+    }
+
+    /**
+     * Lru (default) evicts the least recently used Statement when the cache is full. TinyLfu also weighs how often each sql is
+     * requested so that a burst of one-off sql does not evict frequently used Statements.
+     */
+    public enum Admission
+    {
+        Lru,
+        TinyLfu
+    }
+
     public class Config
     {
         private long maxEntries = 1000L; //guard against ever-changing prep/call statements
         private long stmtAgeMaxMs = TimeUnit.MINUTES.toMillis( 30 );
+        private Scope scope = Scope.PerThread;
+        private Admission admission = Admission.Lru;
 
         public Config()
         {
@@ -952,6 +1462,8 @@ public class StatementCache
         {
             maxEntries = o.getMaxEntries();
             stmtAgeMaxMs = o.getStmtAgeMaxMs();
+            scope = o.getScope();
+            admission = o.getAdmission();
         }
 
         /** * Return the max number of Statements before evicting the LRU when a new one is added. */
@@ -976,10 +1488,52 @@ public class StatementCache
             this.stmtAgeMaxMs = stmtAgeMaxMs;
         }
 
+        /** * Return where Statements are cached. */
+        public Scope getScope()
+        {
+            return scope;
+        }
+
+        public void setScope( Scope scope )
+        {
+            this.scope = scope;
+        }
+
+        /** * Return how new Statements are admitted once the cache is full. */
+        public Admission getAdmission()
+        {
+            return admission;
+        }
+
+        public void setAdmission( Admission admission )
+        {
+            this.admission = admission;
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( !( o instanceof Config ) )
+            {
+                return false;
+            }
+
+            Config other = (Config) o;
+
+            return maxEntries == other.maxEntries && stmtAgeMaxMs == other.stmtAgeMaxMs && scope == other.scope &&
+                admission == other.admission;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash( maxEntries, stmtAgeMaxMs, scope, admission );
+        }
+
         @Override
         public String toString()
         {
-            return "maxStmts: " + maxEntries + ", maxStmtAgeMs: " + stmtAgeMaxMs + '}';
+            return "maxStmts: " + maxEntries + ", maxStmtAgeMs: " + stmtAgeMaxMs + ", scope: " + scope + ", admission: " + admission + '}';
         }
 
         public Config copy()
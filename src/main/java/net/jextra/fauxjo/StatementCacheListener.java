@@ -60,4 +60,17 @@ public interface StatementCacheListener
 
     public void reusedStmt( StatementCache.Config ctype, Thread t, Long dbConKey );
 
+    /**
+     * The sql of many prepared Statements only differs by literal values (same {@link SqlFingerprint}), most likely values are
+     * concatenated into the sql instead of set as parameters which defeats Statement and plan caching. Reported once per fingerprint.
+     * @param fingerprint shape shared by the sql variants
+     * @param variantCn number of distinct sql seen for the fingerprint
+     * @param sql the variant that reached the threshold
+     * @param callSite first caller outside of fauxjo that prepared the sql (null if unknown)
+     * @see StatementCache#setSqlVariantThreshold(int)
+     */
+    public default void detectedSqlVariants( StatementCache.Config ctype, String fingerprint, int variantCn, String sql, StackTraceElement callSite )
+    {
+    }
+
 }
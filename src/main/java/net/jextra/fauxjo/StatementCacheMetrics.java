@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+import java.lang.management.*;
+import java.util.concurrent.atomic.*;
+import javax.management.*;
+
+/**
+ * Always-on counters for all {@link StatementCache}s in the JVM, aggregated across threads.<p>
+ *
+ * The counters are striped ({@link LongAdder}) so recording is cheap and allocation-free on the prepare path. Call
+ * {@link #registerMBean()} once at startup to expose them via JMX as {@value #OBJECT_NAME}.
+ */
+public final class StatementCacheMetrics implements StatementCacheMetricsMBean
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String OBJECT_NAME = "net.jextra.fauxjo:type=StatementCache";
+
+    private static final StatementCacheMetrics instance = new StatementCacheMetrics();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder prepares = new LongAdder();
+    private final LongAdder[] evictions;
+    private final LongAdder closes = new LongAdder();
+    private final LongAdder liveStatements = new LongAdder();
+    private final LongAdder sqlVariantFingerprints = new LongAdder();
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    private StatementCacheMetrics()
+    {
+        evictions = new LongAdder[StatementCacheListener.EvictType.values().length];
+        for ( int i = 0; i < evictions.length; i++ )
+        {
+            evictions[i] = new LongAdder();
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public static StatementCacheMetrics getInstance()
+    {
+        return instance;
+    }
+
+    /**
+     * Register the metrics with the platform MBeanServer. Does nothing if already registered.
+     */
+    public static void registerMBean()
+        throws FauxjoException
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            if ( !server.isRegistered( name ) )
+            {
+                server.registerMBean( instance, name );
+            }
+        }
+        catch ( InstanceAlreadyExistsException ex )
+        {
+            // Registered concurrently by another thread.
+        }
+        catch ( JMException ex )
+        {
+            throw new FauxjoException( ex );
+        }
+    }
+
+    public static void unregisterMBean()
+        throws FauxjoException
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName( OBJECT_NAME );
+            if ( server.isRegistered( name ) )
+            {
+                server.unregisterMBean( name );
+            }
+        }
+        catch ( InstanceNotFoundException ex )
+        {
+            // Unregistered concurrently by another thread.
+        }
+        catch ( JMException ex )
+        {
+            throw new FauxjoException( ex );
+        }
+    }
+
+    @Override
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses()
+    {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRatio()
+    {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public long getPrepares()
+    {
+        return prepares.sum();
+    }
+
+    public long getEvictions( StatementCacheListener.EvictType evictType )
+    {
+        return evictions[evictType.ordinal()].sum();
+    }
+
+    @Override
+    public long getMaxEntriesEvictions()
+    {
+        return getEvictions( StatementCacheListener.EvictType.MaxEntries );
+    }
+
+    @Override
+    public long getMaxTtlEvictions()
+    {
+        return getEvictions( StatementCacheListener.EvictType.MaxTtl );
+    }
+
+    @Override
+    public long getCloses()
+    {
+        return closes.sum();
+    }
+
+    @Override
+    public long getLiveStatements()
+    {
+        return liveStatements.sum();
+    }
+
+    @Override
+    public long getSqlVariantFingerprints()
+    {
+        return sqlVariantFingerprints.sum();
+    }
+
+    @Override
+    public void reset()
+    {
+        hits.reset();
+        misses.reset();
+        prepares.reset();
+        for ( LongAdder adder : evictions )
+        {
+            adder.reset();
+        }
+        closes.reset();
+        sqlVariantFingerprints.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "hits: " + getHits() + ", misses: " + getMisses() + ", prepares: " + getPrepares() + ", maxEntriesEvictions: " +
+            getMaxEntriesEvictions() + ", maxTtlEvictions: " + getMaxTtlEvictions() + ", closes: " + getCloses() + ", liveStatements: " +
+            getLiveStatements() + ", sqlVariantFingerprints: " + getSqlVariantFingerprints();
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    void hit()
+    {
+        hits.increment();
+    }
+
+    void miss()
+    {
+        misses.increment();
+    }
+
+    /** * A new Statement was prepared and is now held by a cache. */
+    void prepared()
+    {
+        prepares.increment();
+        liveStatements.increment();
+    }
+
+    void evicted( StatementCacheListener.EvictType evictType )
+    {
+        evictions[evictType.ordinal()].increment();
+    }
+
+    /** * A cached Statement was closed by the cache. */
+    void closed()
+    {
+        closes.increment();
+        liveStatements.decrement();
+    }
+
+    void sqlVariantsDetected()
+    {
+        sqlVariantFingerprints.increment();
+    }
+
+    /** * A cached Statement that was already closed elsewhere was dropped from a cache. */
+    void released()
+    {
+        liveStatements.decrement();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+/**
+ * JMX view of {@link StatementCacheMetrics}.
+ */
+public interface StatementCacheMetricsMBean
+{
+    /** * Number of prepare/call requests that reused a cached Statement. */
+    long getHits();
+
+    /** * Number of prepare/call requests that had no usable cached Statement. */
+    long getMisses();
+
+    /** * Hits divided by all requests (zero if there were no requests). */
+    double getHitRatio();
+
+    /** * Number of Statements actually prepared through a Connection by the cache. */
+    long getPrepares();
+
+    /** * Number of Statements evicted because the cache would have exceeded its max entries. */
+    long getMaxEntriesEvictions();
+
+    /** * Number of Statements evicted because they exceeded their max time to live. */
+    long getMaxTtlEvictions();
+
+    /** * Number of cached Statements actually closed by the cache (evictions and clears). */
+    long getCloses();
+
+    /** * Number of Statements currently held open by the cache across all threads. */
+    long getLiveStatements();
+
+    /** * Number of sql fingerprints whose distinct sql reached the variant threshold (likely concatenated literals). */
+    long getSqlVariantFingerprints();
+
+    /** * Reset all counters except live statements back to zero. */
+    void reset();
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo;
+
+/**
+ * Bounded, thread-safe table that hands back one shared instance of equal Strings so that low-cardinality column values (status,
+ * country, type, ...) read from many rows do not each keep their own copy on the heap. It is a direct-mapped cache: a value whose
+ * slot holds a different String simply takes the slot over, so memory stays fixed whatever the cardinality really is.
+ */
+public class StringDeduplicator
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    // Racy reads and writes are fine, Strings are immutable and a lost write only costs a duplicate.
+    private final String[] table;
+    private final int mask;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public StringDeduplicator()
+    {
+        this( DEFAULT_CAPACITY );
+    }
+
+    /**
+     * @param capacity number of slots (rounded up to a power of two)
+     */
+    public StringDeduplicator( int capacity )
+    {
+        int size = Integer.highestOneBit( Math.max( 1, capacity - 1 ) ) << 1;
+        table = new String[size];
+        mask = size - 1;
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return the shared instance equal to value (value itself the first time it is seen).
+     */
+    public String dedup( String value )
+    {
+        if ( value == null )
+        {
+            return null;
+        }
+
+        int hash = value.hashCode();
+        int index = ( hash ^ ( hash >>> 16 ) ) & mask;
+        String existing = table[index];
+        if ( value.equals( existing ) )
+        {
+            return existing;
+        }
+
+        table[index] = value;
+
+        return value;
+    }
+
+    public int getCapacity()
+    {
+        return table.length;
+    }
+
+    public void clear()
+    {
+        for ( int i = 0; i < table.length; i++ )
+        {
+            table[i] = null;
+        }
+    }
+}
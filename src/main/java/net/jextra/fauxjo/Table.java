@@ -21,8 +21,8 @@
 
 package net.jextra.fauxjo;
 
-import java.lang.reflect.*;
 import java.sql.*;
+import java.time.*;
 import java.time.format.*;
 import java.util.*;
 import net.jextra.fauxjo.beandef.*;
@@ -59,10 +59,19 @@ public class Table<T> implements AutoCloseable
 
     private String updateSql;
     private String deleteSql;
+    private String firstPageSql;
+    private String nextPageSql;
+    private InsertDef fullInsertDef;
 
     private List<StatementCacheListener> listeners;
     private Integer perConCacheMaxEntries;
     private Long perConCacheMaxAgeMillis;
+    private StatementCache.Scope stmtCacheScope = StatementCache.Scope.PerThread;
+    private StatementCache.Admission stmtCacheAdmission = StatementCache.Admission.Lru;
+    private boolean prepareOnConnect;
+    private Set<String> warmSqls = new LinkedHashSet<>();
+    private SqlMonitor sqlMonitor;
+    private boolean nativeJavaTime;
 
     // ============================================================
     // Constructors
@@ -153,6 +162,113 @@ public class Table<T> implements AutoCloseable
         return this;
     }
 
+    /**
+     * Set whether the StatementCache is per Thread (default) or shared across Threads per physical Connection.<p>
+     *
+     * Sharing suits pools where a physical Connection is picked up by a different Thread from one borrow to the next, its Statements
+     * are then prepared only once instead of once per Thread.
+     * @param scope should be set prior to setConnection
+     * @see StatementCache.Scope
+     */
+    public Table setStatementCacheScope( StatementCache.Scope scope )
+    {
+        this.stmtCacheScope = scope == null ? StatementCache.Scope.PerThread : scope;
+        if ( statementCache != null )
+        {
+            statementCache.setScope( stmtCacheScope );
+        }
+        return this;
+    }
+
+    public StatementCache.Scope getStatementCacheScope()
+    {
+        return stmtCacheScope;
+    }
+
+    /**
+     * Set how new Statements are admitted once the StatementCache is full, Lru (default) or TinyLfu.
+     * @param admission should be set prior to setConnection
+     * @see StatementCache.Admission
+     */
+    public Table setStatementCacheAdmission( StatementCache.Admission admission )
+    {
+        this.stmtCacheAdmission = admission == null ? StatementCache.Admission.Lru : admission;
+        if ( statementCache != null )
+        {
+            statementCache.setAdmission( stmtCacheAdmission );
+        }
+        return this;
+    }
+
+    public StatementCache.Admission getStatementCacheAdmission()
+    {
+        return stmtCacheAdmission;
+    }
+
+    /**
+     * If true and the StatementCache is enabled, the insert, update and delete sql (plus any sql added via addWarmSql) are prepared
+     * as soon as a new Connection is set instead of on their first use. This moves the parse/plan cost of each fresh pool Connection
+     * off of the first request that uses it.
+     * @see #setConnection(Connection)
+     */
+    public Table setPrepareOnConnect( boolean prepareOnConnect )
+    {
+        this.prepareOnConnect = prepareOnConnect;
+        return this;
+    }
+
+    public boolean getPrepareOnConnect()
+    {
+        return prepareOnConnect;
+    }
+
+    /**
+     * Register frequently used query sql to be prepared when a new Connection is set.
+     * @see #setPrepareOnConnect(boolean)
+     */
+    public Table addWarmSql( String sql )
+    {
+        if ( sql != null )
+        {
+            warmSqls.add( sql );
+        }
+        return this;
+    }
+
+    public Set<String> getWarmSqls()
+    {
+        return Collections.unmodifiableSet( warmSqls );
+    }
+
+    /**
+     * Record latency and rows of every execute of the write methods and of prepareStatement in the SqlMonitor (null to disable).
+     */
+    public Table setSqlMonitor( SqlMonitor sqlMonitor )
+    {
+        this.sqlMonitor = sqlMonitor;
+        return this;
+    }
+
+    public SqlMonitor getSqlMonitor()
+    {
+        return sqlMonitor;
+    }
+
+    /**
+     * Bind java.time values (LocalDate, LocalDateTime, OffsetDateTime, Instant, ...) to date/time columns as their JDBC 4.2
+     * java.time class instead of converting them to java.sql.Date/Timestamp first. Requires a JDBC 4.2 driver.
+     */
+    public Table setNativeJavaTime( boolean nativeJavaTime )
+    {
+        this.nativeJavaTime = nativeJavaTime;
+        return this;
+    }
+
+    public boolean getNativeJavaTime()
+    {
+        return nativeJavaTime;
+    }
+
     protected Connection getConnection()
     {
         return conn;
@@ -171,7 +287,9 @@ public class Table<T> implements AutoCloseable
     /**
      * Return true if stmtCache is enabled and the Connection is the same as last.<p>
      *
-     * Otherwise, clears the StatementCache and creates a new StatementCache.
+     * Otherwise, clears the StatementCache and creates a new StatementCache (unless the
+     * StatementCache is shared, then it is kept for the other Connections that use it).
+     * If prepareOnConnect is set, the write and warm sql are then prepared on the new Connection.
      * The internal connection reference is set for both cases because conn may be a
      * Connection facade such as if from HikariCP.getConnection.
      * net.jextra.fauxjo.StatementCache#getConnKey(Connection) is used to determine
@@ -194,6 +312,15 @@ public class Table<T> implements AutoCloseable
             return true; //If same Connection return true. Do not clear the statementCache.
         }
 
+        //A shared statementCache keeps the Statements of each physical Connection for whichever Thread uses it next.
+        if ( statementCache != null && stmtCacheScope == StatementCache.Scope.Shared )
+        {
+            this.conn = conn;
+            this.connKey = cnKy;
+            prepareOnConnect();
+            return false;
+        }
+
         //Is a new unique Connection so clear the statementCache
         if ( statementCache != null )
         {
@@ -205,10 +332,13 @@ public class Table<T> implements AutoCloseable
         if ( conn != null )
         {
             statementCache = new StatementCache();
+            statementCache.setScope( stmtCacheScope );
+            statementCache.setAdmission( stmtCacheAdmission );
             if ( listeners != null )
                 for ( StatementCacheListener l : listeners )
                     statementCache.addListener( l );
             statementCache.setPerConCache_Maximums( perConCacheMaxEntries, perConCacheMaxAgeMillis );
+            prepareOnConnect();
         }
         return false;
     }
@@ -242,18 +372,19 @@ public class Table<T> implements AutoCloseable
     protected PreparedStatement prepareStatement( String sql )
         throws SQLException
     {
-        if ( stmtCacheEnabled && statementCache != null )
-        {
-            return statementCache.prepareStatement( conn, sql, supportsGeneratedKeys );
-        }
-        else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( sql ) )
-        {
-            return conn.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
-        }
-        else
-        {
-            return conn.prepareStatement( sql );
-        }
+        return prepare( sql );
+    }
+
+    /**
+     * Return a new PreparedStatement from readConn (e.g. a replica), wrapped for the SqlMonitor if set. It is never cached so it
+     * must be closed after use.
+     */
+    protected PreparedStatement prepareStatement( Connection readConn, String sql )
+        throws SQLException
+    {
+        PreparedStatement statement = readConn.prepareStatement( sql );
+
+        return sqlMonitor == null ? statement : sqlMonitor.monitor( statement, sql );
     }
 
     public String buildBasicSelectStatement( String clause )
@@ -283,18 +414,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                insStatement = statementCache.prepareStatement( conn, insertDef.getInsertSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( insertDef.getInsertSql() ) )
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            insStatement = prepare( insertDef.getInsertSql() );
             setInsertValues( insStatement, insertDef, 1, bean );
             rows = insStatement.executeUpdate();
             retrieveGeneratedKeys( insStatement, insertDef, bean );
@@ -327,18 +448,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                insStatement = statementCache.prepareStatement( conn, insertDef.getInsertSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( insertDef.getInsertSql() ) )
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            insStatement = prepare( insertDef.getInsertSql() );
 
             int paramIndex = 1;
             for ( T bean : beans )
@@ -381,18 +492,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                insStatement = statementCache.prepareStatement( conn, insertDef.getInsertSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( insertDef.getInsertSql() ) )
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                insStatement = conn.prepareStatement( insertDef.getInsertSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            insStatement = prepare( insertDef.getInsertSql() );
 
             for ( T bean : beans )
             {
@@ -429,18 +530,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                statement = statementCache.prepareStatement( conn, getUpdateSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( getUpdateSql() ) )
-            {
-                statement = conn.prepareStatement( getUpdateSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                statement = conn.prepareStatement( getUpdateSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            statement = prepare( getUpdateSql() );
             setUpdateValues( statement, bean );
             rows = statement.executeUpdate();
         }
@@ -474,18 +565,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                updateStatement = statementCache.prepareStatement( conn, getUpdateSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( getUpdateSql() ) )
-            {
-                updateStatement = conn.prepareStatement( getUpdateSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                updateStatement = conn.prepareStatement( getUpdateSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            updateStatement = prepare( getUpdateSql() );
 
             for ( T bean : beans )
             {
@@ -518,18 +599,8 @@ public class Table<T> implements AutoCloseable
         boolean cachedStm = false;
         try
         {
-            if ( ( cachedStm = stmtCacheEnabled && statementCache != null ) )
-            {
-                statement = statementCache.prepareStatement( conn, getDeleteSql(), supportsGeneratedKeys );
-            }
-            else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( getDeleteSql() ) )
-            {
-                statement = conn.prepareStatement( getDeleteSql(), Statement.RETURN_GENERATED_KEYS );
-            }
-            else
-            {
-                statement = conn.prepareStatement( getDeleteSql() );
-            }
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            statement = prepare( getDeleteSql() );
             setDeleteValues( statement, bean );
 
             deletedAtLeast1row = statement.executeUpdate() > 0;
@@ -543,6 +614,46 @@ public class Table<T> implements AutoCloseable
         return deletedAtLeast1row;
     }
 
+    /**
+     * Delete multiple beans from the database in one batched statement using a batched PreparedStatement.
+     * If StatementCache is enabled, the PreparedStatement will be closed upon
+     * the next new Connection else is closed here in a finally block.
+     * @param beans Collection of beans to be deleted.
+     * @return int[] Where each int is the number of rows deleted for a given delete statement in the batch.
+     */
+    public int[] deleteBatch( Collection<T> beans )
+        throws SQLException
+    {
+        if ( beans == null || beans.isEmpty() )
+        {
+            return new int[] {};
+        }
+
+        PreparedStatement deleteStatement = null;
+        int[] rows;
+        boolean cachedStm = false;
+        try
+        {
+            cachedStm = stmtCacheEnabled && statementCache != null;
+            deleteStatement = prepare( getDeleteSql() );
+
+            for ( T bean : beans )
+            {
+                setDeleteValues( deleteStatement, bean );
+                deleteStatement.addBatch();
+            }
+
+            rows = deleteStatement.executeBatch();
+        }
+        finally
+        {
+            if ( deleteStatement != null && !cachedStm )
+                deleteStatement.close();
+        }
+
+        return rows;
+    }
+
     public String getUpdateSql()
         throws SQLException
     {
@@ -558,7 +669,7 @@ public class Table<T> implements AutoCloseable
         {
             ColumnInfo columnInfo = getColumnInfos().get( key );
 
-            FieldDef fieldDef = BeanDefCache.getFieldDefs( beanClass ).get( key );
+            FieldDef fieldDef = BeanDefCache.getBeanDef( beanClass ).getFieldDef( key );
             if ( fieldDef != null )
             {
                 if ( fieldDef.isPrimaryKey() )
@@ -599,11 +710,11 @@ public class Table<T> implements AutoCloseable
         List<DataValue> values = new ArrayList<>();
         List<DataValue> keyValues = new ArrayList<>();
 
-        Map<String, FieldDef> beanFieldDefs = BeanDefCache.getFieldDefs( bean.getClass() );
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
         for ( String key : getColumnInfos().keySet() )
         {
             ColumnInfo columnInfo = getColumnInfos().get( key );
-            FieldDef fieldDef = beanFieldDefs.get( key );
+            FieldDef fieldDef = beanDef.getFieldDef( key );
             if ( fieldDef == null )
             {
                 continue;
@@ -623,16 +734,16 @@ public class Table<T> implements AutoCloseable
         int paramIndex = 1;
         for ( DataValue value : values )
         {
-            Object coercedValue = coercer.convertTo( value.getValue(), SqlTypeMapping.getJavaClass( value.getSqlType() ) );
-            statement.setObject( paramIndex, coercedValue, value.getSqlType() );
+            Object coercedValue = coercer.convertTo( value.getValue(), getBindClass( value.getSqlType(), value.getValue() ) );
+            bind( statement, paramIndex, coercedValue, value.getSqlType() );
 
             paramIndex++;
         }
 
         for ( DataValue value : keyValues )
         {
-            Object coercedValue = coercer.convertTo( value.getValue(), SqlTypeMapping.getJavaClass( value.getSqlType() ) );
-            statement.setObject( paramIndex, coercedValue, value.getSqlType() );
+            Object coercedValue = coercer.convertTo( value.getValue(), getBindClass( value.getSqlType(), value.getValue() ) );
+            bind( statement, paramIndex, coercedValue, value.getSqlType() );
             paramIndex++;
         }
     }
@@ -682,20 +793,20 @@ public class Table<T> implements AutoCloseable
     {
         List<DataValue> primaryKeyValues = new ArrayList<>();
 
-        Map<String, FieldDef> fieldDefs = BeanDefCache.getFieldDefs( bean.getClass() );
-        for ( String key : fieldDefs.keySet() )
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
+        for ( int i = 0; i < beanDef.getFieldCount(); i++ )
         {
-            FieldDef fieldDef = fieldDefs.get( key );
-            if ( fieldDef == null || !fieldDef.isPrimaryKey() )
+            FieldDef fieldDef = beanDef.getFieldDef( i );
+            String key = beanDef.getKey( i );
+            if ( !fieldDef.isPrimaryKey() )
             {
                 continue;
             }
 
             ColumnInfo columnInfo = getColumnInfos().get( key );
-            Class<?> targetClass = SqlTypeMapping.getJavaClass( columnInfo.getSqlType() );
 
             Object val = readValue( bean, key );
-            val = coercer.convertTo( val, targetClass );
+            val = coercer.convertTo( val, getBindClass( columnInfo.getSqlType(), val ) );
 
             primaryKeyValues.add( new DataValue( val, columnInfo.getSqlType() ) );
         }
@@ -703,12 +814,147 @@ public class Table<T> implements AutoCloseable
         int paramIndex = 1;
         for ( DataValue value : primaryKeyValues )
         {
-            Object coercedValue = coercer.convertTo( value.getValue(), SqlTypeMapping.getJavaClass( value.getSqlType() ) );
-            statement.setObject( paramIndex, coercedValue, value.getSqlType() );
+            Object coercedValue = coercer.convertTo( value.getValue(), getBindClass( value.getSqlType(), value.getValue() ) );
+            bind( statement, paramIndex, coercedValue, value.getSqlType() );
             paramIndex++;
         }
     }
 
+    /**
+     * Return the keyset pagination sql: up to ? rows (see {@link #getLimitClause()}) ordered by the primary key and, unless first, after the primary key of the
+     * previous page's last row. A composite key (a, b) seeks with "a > ? or (a = ? and b > ?)". There are only the two shapes
+     * so they are cached here and in the StatementCache however deep the paging goes.
+     */
+    public String getPageSql( boolean first )
+        throws SQLException
+    {
+        if ( first ? firstPageSql != null : nextPageSql != null )
+        {
+            return first ? firstPageSql : nextPageSql;
+        }
+
+        BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
+        if ( beanDef.getPrimaryKeyCount() == 0 )
+        {
+            throw new FauxjoException(
+                "At least one field must be identified as a primary key in order to page through the table [" + fullTableName + "]" );
+        }
+
+        StringBuilder orderBy = new StringBuilder();
+        StringBuilder whereClause = new StringBuilder();
+        String[] realNames = new String[beanDef.getPrimaryKeyCount()];
+        for ( int i = 0; i < realNames.length; i++ )
+        {
+            ColumnInfo columnInfo = getColumnInfos().get( beanDef.getPrimaryKey( i ) );
+            if ( columnInfo == null )
+            {
+                throw new FauxjoException(
+                    "Primary key field [" + beanDef.getPrimaryKey( i ) + "] has no column in the table [" + fullTableName + "]" );
+            }
+            realNames[i] = columnInfo.getRealName();
+        }
+
+        for ( int i = 0; i < realNames.length; i++ )
+        {
+            String realName = realNames[i];
+            if ( i > 0 )
+            {
+                orderBy.append( "," );
+                whereClause.append( " or " );
+            }
+            orderBy.append( realName );
+
+            whereClause.append( "(" );
+            for ( int j = 0; j < i; j++ )
+            {
+                whereClause.append( realNames[j] );
+                whereClause.append( "=? and " );
+            }
+            whereClause.append( realName );
+            whereClause.append( ">?)" );
+        }
+
+        firstPageSql = String.format( "select * from %s order by %s %s", fullTableName, orderBy, getLimitClause() );
+        nextPageSql = String.format( "select * from %s where %s order by %s %s", fullTableName, whereClause, orderBy, getLimitClause() );
+
+        return first ? firstPageSql : nextPageSql;
+    }
+
+    /**
+     * Bind the parameters of {@link #getPageSql(boolean)}: the primary key values of lastBean (none if null, the first page)
+     * followed by the pageSize.
+     */
+    public void setPageValues( PreparedStatement statement, T lastBean, int pageSize )
+        throws SQLException
+    {
+        int paramIndex = 1;
+        if ( lastBean != null )
+        {
+            BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
+            for ( int i = 0; i < beanDef.getPrimaryKeyCount(); i++ )
+            {
+                for ( int j = 0; j <= i; j++ )
+                {
+                    String key = beanDef.getPrimaryKey( j );
+                    ColumnInfo columnInfo = getColumnInfos().get( key );
+                    Object val = readValue( lastBean, key );
+                    if ( val == null )
+                    {
+                        throw new FauxjoException( "Unable to page after a bean with a null primary key [" + key + "]" );
+                    }
+
+                    val = coercer.convertTo( val, getBindClass( columnInfo.getSqlType(), val ) );
+                    bind( statement, paramIndex, val, columnInfo.getSqlType() );
+                    paramIndex++;
+                }
+            }
+        }
+
+        statement.setInt( paramIndex, pageSize );
+    }
+
+    /**
+     * Return true if any defaultable field of the bean is null and therefore must be left out of its insert. Such a
+     * bean is not inserted as intended by {@link #insertBatch}, which binds every column.
+     */
+    public boolean hasDefaultedNulls( T bean )
+        throws SQLException
+    {
+        // Only the (usually few) defaultable fields of the bean's own class are read, not every column.
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
+        Map<String, ColumnInfo> columnInfos = getColumnInfos();
+        for ( int i = 0; i < beanDef.getDefaultableCount(); i++ )
+        {
+            if ( columnInfos.containsKey( beanDef.getDefaultableKey( i ) ) && beanDef.getDefaultableDef( i ).getValue( bean ) == null )
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Resolve the column meta data (if not already known) and pre-build the insert, update and delete sql
+     * so that the first write on this Table does not have to. The update and delete sql are only built
+     * if the bean has a primary key.
+     */
+    public void warmUp()
+        throws SQLException
+    {
+        getInsertDef( null );
+
+        for ( FieldDef fieldDef : BeanDefCache.getFieldDefs( beanClass ).values() )
+        {
+            if ( fieldDef.isPrimaryKey() )
+            {
+                getUpdateSql();
+                getDeleteSql();
+                break;
+            }
+        }
+    }
+
     /** * Append json statistics about the statement cache if enabled else throws an exception. */
     public void getStatementCacheStats( StringBuilder strBldrToAppend, DateTimeFormatter optionalDtFormat )
         throws SQLException
@@ -741,6 +987,15 @@ public class Table<T> implements AutoCloseable
     // protected
     // ----------
 
+    /**
+     * Return the clause that limits the rows of a page query to its single parameter. The default is the standard
+     * "fetch first ? rows only", override for a database without it (e.g. "limit ?" for MySQL).
+     */
+    protected String getLimitClause()
+    {
+        return "fetch first ? rows only";
+    }
+
     /**
      * Optionally passing in an actual bean instant allows the insert statement to exclude columns that can have defaulted values and are
      * also null in the bean.
@@ -748,62 +1003,28 @@ public class Table<T> implements AutoCloseable
     protected InsertDef getInsertDef( T bean )
         throws SQLException
     {
-        StringBuilder columns = new StringBuilder();
-        StringBuilder questionMarks = new StringBuilder();
+        // The insert of every column is the same for all beans without defaulted nulls so it is only built once.
+        if ( fullInsertDef == null )
+        {
+            fullInsertDef = buildInsertDef( null );
+        }
 
-        Map<String, FieldDef> beanFieldDefs = BeanDefCache.getFieldDefs( beanClass );
-        Map<String, ColumnInfo> columnInfos = getColumnInfos();
-        List<String> generatedColumns = new ArrayList<>();
-        for ( String key : columnInfos.keySet() )
+        if ( bean == null || !hasDefaultedNulls( bean ) )
         {
-            FieldDef fieldDef = beanFieldDefs.get( key );
-            // If there is no field equivalent to the database column, ignore it.
-            if ( fieldDef == null )
-            {
-                continue;
-            }
+            return new InsertDef( fullInsertDef.getInsertPart(), fullInsertDef.getValuesPart(), fullInsertDef.getGeneratedKeys() );
+        }
 
-            ColumnInfo columnInfo = columnInfos.get( key );
-            boolean addColumn = true;
-
-            // If the field is defaultable check to see if the value of the bean is indeed null and may need to be excluded.
-            if ( bean != null && fieldDef.isDefaultable() )
-            {
-                Object value = readValue( bean, key );
-                if ( value == null )
-                {
-                    generatedColumns.add( key );
-                    addColumn = false;
-                }
-            }
-
-            if ( addColumn )
-            {
-                if ( columns.length() > 0 )
-                {
-                    columns.append( "," );
-                    questionMarks.append( "," );
-                }
-
-                columns.append( columnInfo.getRealName() );
-                questionMarks.append( "?" );
-            }
-        }
-
-        String insertSql = String.format( "insert into %s (%s) values ", fullTableName, columns );
-        String valuesSql = String.format( "(%s)", questionMarks );
-
-        return new InsertDef( insertSql, valuesSql, generatedColumns );
-    }
+        return buildInsertDef( bean );
+    }
 
     protected int setInsertValues( PreparedStatement insStatement, InsertDef insertDef, int paramIndex, T bean )
         throws SQLException
     {
-        Map<String, FieldDef> beanFieldDefs = BeanDefCache.getFieldDefs( bean.getClass() );
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
         for ( String key : getColumnInfos().keySet() )
         {
             ColumnInfo columnInfo = getColumnInfos().get( key );
-            FieldDef fieldDef = beanFieldDefs.get( key );
+            FieldDef fieldDef = beanDef.getFieldDef( key );
             if ( fieldDef == null )
             {
                 continue;
@@ -825,8 +1046,8 @@ public class Table<T> implements AutoCloseable
             }
             else
             {
-                Object coercedValue = coercer.convertTo( val, SqlTypeMapping.getJavaClass( sqlType ) );
-                insStatement.setObject( paramIndex, coercedValue, sqlType );
+                Object coercedValue = coercer.convertTo( val, getBindClass( sqlType, val ) );
+                bind( insStatement, paramIndex, coercedValue, sqlType );
             }
 
             paramIndex++;
@@ -849,13 +1070,13 @@ public class Table<T> implements AutoCloseable
             rs = insStatement.getGeneratedKeys();
             if ( rs.next() )
             {
-                Map<String, FieldDef> beanFieldDefs = BeanDefCache.getFieldDefs( bean.getClass() );
+                BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
                 for ( String key : insertDef.getGeneratedKeys() )
                 {
                     Object value = rs.getObject( key );
                     if ( value != null )
                     {
-                        FieldDef fieldDef = beanFieldDefs.get( key );
+                        FieldDef fieldDef = beanDef.getFieldDef( key );
                         value = coercer.convertTo( value, fieldDef.getValueClass() );
                     }
                     setBeanValue( bean, key, value );
@@ -873,6 +1094,57 @@ public class Table<T> implements AutoCloseable
     // private
     // ----------
 
+    private InsertDef buildInsertDef( T bean )
+        throws SQLException
+    {
+        StringBuilder columns = new StringBuilder();
+        StringBuilder questionMarks = new StringBuilder();
+
+        BeanDef beanDef = BeanDefCache.getBeanDef( beanClass );
+        Map<String, ColumnInfo> columnInfos = getColumnInfos();
+        List<String> generatedColumns = new ArrayList<>();
+        for ( String key : columnInfos.keySet() )
+        {
+            FieldDef fieldDef = beanDef.getFieldDef( key );
+            // If there is no field equivalent to the database column, ignore it.
+            if ( fieldDef == null )
+            {
+                continue;
+            }
+
+            ColumnInfo columnInfo = columnInfos.get( key );
+            boolean addColumn = true;
+
+            // If the field is defaultable check to see if the value of the bean is indeed null and may need to be excluded.
+            if ( bean != null && fieldDef.isDefaultable() )
+            {
+                Object value = readValue( bean, key );
+                if ( value == null )
+                {
+                    generatedColumns.add( key );
+                    addColumn = false;
+                }
+            }
+
+            if ( addColumn )
+            {
+                if ( columns.length() > 0 )
+                {
+                    columns.append( "," );
+                    questionMarks.append( "," );
+                }
+
+                columns.append( columnInfo.getRealName() );
+                questionMarks.append( "?" );
+            }
+        }
+
+        String insertSql = String.format( "insert into %s (%s) values ", fullTableName, columns );
+        String valuesSql = String.format( "(%s)", questionMarks );
+
+        return new InsertDef( insertSql, valuesSql, generatedColumns );
+    }
+
     private Map<String, ColumnInfo> getColumnInfos()
         throws SQLException
     {
@@ -884,6 +1156,60 @@ public class Table<T> implements AutoCloseable
         return columnInfos;
     }
 
+    /*
+     * Prepare the write sql and warm sql on the current Connection via the StatementCache if prepareOnConnect is set.
+     */
+    private void prepareOnConnect()
+        throws SQLException
+    {
+        if ( !prepareOnConnect || !stmtCacheEnabled || statementCache == null || conn == null )
+        {
+            return;
+        }
+
+        statementCache.prepareStatement( conn, getInsertDef( null ).getInsertSql(), supportsGeneratedKeys );
+        if ( BeanDefCache.getBeanDef( beanClass ).getPrimaryKeyCount() > 0 )
+        {
+            statementCache.prepareStatement( conn, getUpdateSql(), supportsGeneratedKeys );
+            statementCache.prepareStatement( conn, getDeleteSql(), supportsGeneratedKeys );
+        }
+
+        for ( String sql : warmSqls )
+        {
+            statementCache.prepareStatement( conn, sql, supportsGeneratedKeys );
+        }
+    }
+
+    /*
+     * Prepare sql from the StatementCache if enabled else from the Connection and wrap it for the SqlMonitor if set.
+     */
+    private PreparedStatement prepare( String sql )
+        throws SQLException
+    {
+        PreparedStatement statement;
+        if ( stmtCacheEnabled && statementCache != null )
+        {
+            statement = statementCache.prepareStatement( conn, sql, supportsGeneratedKeys );
+        }
+        else if ( supportsGeneratedKeys && SqlInspector.isInsertStatement( sql ) )
+        {
+            statement = conn.prepareStatement( sql, Statement.RETURN_GENERATED_KEYS );
+        }
+        else
+        {
+            statement = conn.prepareStatement( sql );
+        }
+
+        if ( sqlMonitor == null )
+        {
+            return statement;
+        }
+
+        // A cached statement keeps its wrapper, rather than being wrapped anew on every hit.
+        return statement instanceof StatementCache.CachedPreparedStatement ?
+            ( (StatementCache.CachedPreparedStatement) statement ).monitor( sqlMonitor, sql ) : sqlMonitor.monitor( statement, sql );
+    }
+
     /**
      * This is a really slow method to call when it actually gets the meta data.
      */
@@ -928,6 +1254,125 @@ public class Table<T> implements AutoCloseable
      */
     private RealTableName getRealTableName( String tableName )
         throws SQLException
+    {
+        List<String> tableTypes = getTableTypes( conn );
+        RealTableName bean = searchForTable( conn, tableTypes, schemaName, tableName );
+        if ( bean != null )
+        {
+            return bean;
+        }
+
+        if ( schemaName == null )
+        {
+            return null;
+        }
+
+        // Try schema all lowercase
+        bean = searchForTable( conn, tableTypes, schemaName.toLowerCase(), tableName );
+        if ( bean != null )
+        {
+            return bean;
+        }
+
+        // Try schema all uppercase
+        return searchForTable( conn, tableTypes, schemaName.toUpperCase(), tableName );
+    }
+
+    /**
+     * Resolve the column meta data of all of the given tables in the given schema with one getColumns call per schema
+     * instead of one per table. Tables that can not be found are left to be resolved (and fail) lazily as before.
+     */
+    static void cacheColumnInfos( Connection conn, String schemaName, Collection<Table<?>> tables )
+        throws SQLException
+    {
+        if ( conn == null )
+        {
+            throw new FauxjoException( "A Connection is required to resolve column meta data." );
+        }
+
+        //
+        // Find the real (case sensitive) names the same way a single table does: as given, then lowercase, then uppercase schema.
+        //
+        List<String> tableTypes = getTableTypes( conn );
+        List<String> schemaNames = new ArrayList<>();
+        schemaNames.add( schemaName );
+        if ( schemaName != null )
+        {
+            schemaNames.add( schemaName.toLowerCase() );
+            schemaNames.add( schemaName.toUpperCase() );
+        }
+
+        Map<Table<?>, RealTableName> reals = new LinkedHashMap<>();
+        for ( String name : schemaNames )
+        {
+            if ( reals.size() == tables.size() )
+            {
+                break;
+            }
+
+            Map<String, RealTableName> found = searchForTables( conn, tableTypes, name );
+            for ( Table<?> table : tables )
+            {
+                RealTableName real = found.get( table.getTableName().toLowerCase() );
+                if ( real != null && !reals.containsKey( table ) )
+                {
+                    reals.put( table, real );
+                }
+            }
+        }
+
+        //
+        // Group by the real schema name so that there is a single getColumns call per schema. Several Tables (e.g. of
+        // different Homes) may map the same real table, they all get its column meta data.
+        //
+        Map<String, Map<String, List<Table<?>>>> schemas = new LinkedHashMap<>();
+        for ( Map.Entry<Table<?>, RealTableName> entry : reals.entrySet() )
+        {
+            schemas.computeIfAbsent( entry.getValue().schemaName, k -> new HashMap<>() )
+                .computeIfAbsent( entry.getValue().tableName, k -> new ArrayList<>() ).add( entry.getKey() );
+        }
+
+        for ( Map.Entry<String, Map<String, List<Table<?>>>> entry : schemas.entrySet() )
+        {
+            Map<String, HashMap<String, ColumnInfo>> maps = new HashMap<>();
+            ResultSet rs = null;
+            try
+            {
+                rs = conn.getMetaData().getColumns( null, entry.getKey(), null, null );
+                while ( rs.next() )
+                {
+                    String realTableName = rs.getString( TABLE_NAME );
+                    if ( !entry.getValue().containsKey( realTableName ) ||
+                        ( entry.getKey() != null && !entry.getKey().equals( rs.getString( SCHEMA_NAME ) ) ) )
+                    {
+                        continue;
+                    }
+
+                    String realName = rs.getString( COLUMN_NAME );
+                    Integer type = rs.getInt( DATA_TYPE );
+
+                    maps.computeIfAbsent( realTableName, k -> new HashMap<>() ).put( realName.toLowerCase(), new ColumnInfo( realName, type ) );
+                }
+            }
+            finally
+            {
+                if ( rs != null )
+                    rs.close();
+            }
+
+            // Only set fields if all went well
+            for ( Map.Entry<String, HashMap<String, ColumnInfo>> tableEntry : maps.entrySet() )
+            {
+                for ( Table<?> table : entry.getValue().get( tableEntry.getKey() ) )
+                {
+                    table.columnInfos = tableEntry.getValue();
+                }
+            }
+        }
+    }
+
+    private static List<String> getTableTypes( Connection conn )
+        throws SQLException
     {
         ArrayList<String> tableTypes = new ArrayList<>();
         ResultSet rs = null;
@@ -947,29 +1392,11 @@ public class Table<T> implements AutoCloseable
             if ( rs != null )
                 rs.close();
         }
-        RealTableName bean = searchForTable( tableTypes, schemaName, tableName );
-        if ( bean != null )
-        {
-            return bean;
-        }
-
-        if ( schemaName == null )
-        {
-            return null;
-        }
-
-        // Try schema all lowercase
-        bean = searchForTable( tableTypes, schemaName.toLowerCase(), tableName );
-        if ( bean != null )
-        {
-            return bean;
-        }
 
-        // Try schema all uppercase
-        return searchForTable( tableTypes, schemaName.toUpperCase(), tableName );
+        return tableTypes;
     }
 
-    private RealTableName searchForTable( List<String> tableTypes, String schemaName, String tableName )
+    private static RealTableName searchForTable( Connection conn, List<String> tableTypes, String schemaName, String tableName )
         throws SQLException
     {
         ResultSet rs = null;
@@ -996,12 +1423,39 @@ public class Table<T> implements AutoCloseable
         return null;
     }
 
+    /**
+     * Same as searchForTable but collects every table in the schema, keyed by lowercase table name (first found wins).
+     */
+    private static Map<String, RealTableName> searchForTables( Connection conn, List<String> tableTypes, String schemaName )
+        throws SQLException
+    {
+        Map<String, RealTableName> map = new HashMap<>();
+        ResultSet rs = null;
+        try
+        {
+            rs = conn.getMetaData().getTables( null, schemaName, null, tableTypes.toArray( new String[tableTypes.size()] ) );
+            while ( rs.next() )
+            {
+                RealTableName bean = new RealTableName();
+                bean.schemaName = rs.getString( SCHEMA_NAME );
+                bean.tableName = rs.getString( TABLE_NAME );
+                map.putIfAbsent( bean.tableName.toLowerCase(), bean );
+            }
+        }
+        finally
+        {
+            if ( rs != null )
+                rs.close();
+        }
+
+        return map;
+    }
+
     private Object getFieldValueFromBean( Object bean, String key, ColumnInfo columnInfo )
         throws FauxjoException
     {
-        Class<?> targetClass = SqlTypeMapping.getJavaClass( columnInfo.getSqlType() );
-
         Object val = readValue( bean, key );
+        Class<?> targetClass = getBindClass( columnInfo.getSqlType(), val );
         try
         {
             val = coercer.convertTo( val, targetClass );
@@ -1016,43 +1470,72 @@ public class Table<T> implements AutoCloseable
         return val;
     }
 
-    private Object readValue( Object bean, String key )
-        throws FauxjoException
+    /*
+     * Return the class a value is coerced to before being bound to a column of sqlType.
+     */
+    private Class<?> getBindClass( int sqlType, Object value )
     {
-        try
+        if ( value != null && SqlTypeMapping.isJavaTimeClass( value.getClass() ) )
         {
-            BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
-            FieldDef fieldDef = beanDef.getFieldDef( key );
-            if ( fieldDef == null )
+            Class<?> javaTimeClass = SqlTypeMapping.getJavaTimeClass( sqlType );
+            if ( nativeJavaTime && javaTimeClass != null )
             {
-                throw new FauxjoException( "Unable to find FieldDef [" + key + "]" );
+                return javaTimeClass;
             }
 
-            Field field = fieldDef.getField();
-            if ( field != null )
+            // Otherwise a java.time value (other than an Instant, which always had a coercer) is bound to a date/time column
+            // unchanged, as it always was, see bind for drivers that reject it.
+            if ( javaTimeClass != null && !( value instanceof Instant ) )
             {
-                field.setAccessible( true );
+                return value.getClass();
+            }
+        }
+
+        return SqlTypeMapping.getJavaClass( sqlType );
+    }
 
-                return field.get( bean );
+    /*
+     * Bind value to the statement. If nativeJavaTime is off and a (pre JDBC 4.2) driver rejects a java.time value, it is bound as
+     * the java.sql class of the column instead.
+     */
+    private void bind( PreparedStatement statement, int paramIndex, Object value, int sqlType )
+        throws SQLException
+    {
+        try
+        {
+            statement.setObject( paramIndex, value, sqlType );
+        }
+        catch ( SQLException ex )
+        {
+            Class<?> legacyClass = SqlTypeMapping.getJavaClass( sqlType );
+            if ( nativeJavaTime || value == null || !SqlTypeMapping.isJavaTimeClass( value.getClass() ) || legacyClass.isInstance( value ) )
+            {
+                throw ex;
             }
 
-            Method readMethod = fieldDef.getReadMethod();
-            if ( readMethod != null )
+            try
             {
-                return readMethod.invoke( bean );
+                statement.setObject( paramIndex, coercer.convertTo( value, legacyClass ), sqlType );
             }
-        }
-        catch ( Exception ex )
-        {
-            if ( ex instanceof FauxjoException )
+            catch ( SQLException legacyEx )
             {
-                throw (FauxjoException) ex;
+                ex.addSuppressed( legacyEx );
+                throw ex;
             }
+        }
+    }
 
-            throw new FauxjoException( ex );
+    private Object readValue( Object bean, String key )
+        throws FauxjoException
+    {
+        BeanDef beanDef = BeanDefCache.getBeanDef( bean.getClass() );
+        FieldDef fieldDef = beanDef.getFieldDef( key );
+        if ( fieldDef == null || !fieldDef.isReadable() )
+        {
+            throw new FauxjoException( "Unable to find FieldDef [" + key + "]" );
         }
 
-        throw new FauxjoException( "Unable to find FieldDef [" + key + "]" );
+        return fieldDef.getValue( bean );
     }
 
     private boolean setBeanValue( T bean, String key, Object value )
@@ -1065,34 +1548,7 @@ public class Table<T> implements AutoCloseable
             return false;
         }
 
-        Field field = fieldDef.getField();
-        if ( field != null )
-        {
-            try
-            {
-                field.setAccessible( true );
-                field.set( bean, value );
-
-                return true;
-            }
-            catch ( Exception ex )
-            {
-                throw new FauxjoException( "Unable to write to field [" + field.getName() + "]", ex );
-            }
-        }
-
-        Method writeMethod = fieldDef.getWriteMethod();
-        if ( writeMethod != null )
-        {
-            try
-            {
-                writeMethod.invoke( bean, value );
-            }
-            catch ( Exception ex )
-            {
-                throw new FauxjoException( "Unable to invoke write method [" + writeMethod.getName() + "]", ex );
-            }
-        }
+        fieldDef.setValue( bean, value );
 
         return true;
     }
@@ -33,6 +33,37 @@ import net.jextra.fauxjo.beandef.*;
  */
 public abstract class Fauxjo
 {
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Classes that override getPrimaryKeyValues, whose hashCode and equals must then go through it.
+    private static final ClassValue<Boolean> overridesPrimaryKeyValues = new ClassValue<Boolean>()
+    {
+        @Override
+        protected Boolean computeValue( Class<?> cls )
+        {
+            for ( Class<?> c = cls; c != Fauxjo.class && c != null; c = c.getSuperclass() )
+            {
+                try
+                {
+                    c.getDeclaredMethod( "getPrimaryKeyValues" );
+                    return true;
+                }
+                catch ( NoSuchMethodException ex )
+                {
+                    // Keep looking in the super-class.
+                }
+            }
+
+            return false;
+        }
+    };
+
+    // Only used if isHashCodeCacheable. Zero means not cached (a zero hashCode is simply recomputed), so that a single racy read
+    // of the one field is always either unset or the complete value.
+    private transient int cachedHashCode;
+
     // ============================================================
     // Methods
     // ============================================================
@@ -44,21 +75,41 @@ public abstract class Fauxjo
     @Override
     public int hashCode()
     {
-        try
+        int hashCode = cachedHashCode;
+        if ( hashCode != 0 )
         {
-            List<Object> keys = getPrimaryKeyValues();
+            return hashCode;
+        }
 
-            // Any null keys equate to default of zero.
-            if ( keys == null )
+        try
+        {
+            boolean complete;
+            if ( overridesPrimaryKeyValues.get( getClass() ) )
             {
-                return 0;
+                List<Object> keys = getPrimaryKeyValues();
+                complete = keys != null;
+                if ( keys != null )
+                {
+                    for ( Object item : keys )
+                    {
+                        hashCode += item == null ? 0 : item.hashCode();
+                        complete &= item != null;
+                    }
+                }
+            }
+            else
+            {
+                BeanDef beanDef = BeanDefCache.getBeanDef( getClass() );
+
+                // Sum of the key item hashCodes (null items and no keys equate to zero).
+                hashCode = beanDef.hashPrimaryKey( this );
+                complete = beanDef.hasPrimaryKeyValues( this );
             }
 
-            // Just sum up the key item hashCodes for a final hashCode
-            int hashCode = 0;
-            for ( Object item : keys )
+            // Beans are typically built before their keys are assigned (e.g. by the database) so never cache a partial key.
+            if ( complete && isHashCodeCacheable() )
             {
-                hashCode += item == null ? 0 : item.hashCode();
+                cachedHashCode = hashCode;
             }
 
             return hashCode;
@@ -72,53 +123,35 @@ public abstract class Fauxjo
     @Override
     public boolean equals( Object otherObj )
     {
-        try
+        // If same object, just quickly return true.
+        if ( this == otherObj )
         {
-            // If same object, just quickly return true.
-            if ( this == otherObj )
-            {
-                return true;
-            }
-
-            // If other object is not same class as this object, quickly return false.
-            if ( otherObj == null || !otherObj.getClass().equals( getClass() ) )
-            {
-                return false;
-            }
-
-            Fauxjo other = (Fauxjo) otherObj;
-
-            List<Object> keys1 = getPrimaryKeyValues();
-            List<Object> keys2 = other.getPrimaryKeyValues();
+            return true;
+        }
 
-            // If the primary keys somehow are different lengths, they must not be the same.
-            if ( keys1.size() != keys2.size() )
-            {
-                return false;
-            }
+        // If other object is not same class as this object, quickly return false.
+        if ( otherObj == null || !otherObj.getClass().equals( getClass() ) )
+        {
+            return false;
+        }
 
-            // Check each key item, if ever different, return false;
-            for ( int i = 0; i < keys1.size(); i++ )
+        try
+        {
+            if ( overridesPrimaryKeyValues.get( getClass() ) )
             {
-                Object item1 = keys1.get( i );
-                Object item2 = keys2.get( i );
+                List<Object> keys1 = getPrimaryKeyValues();
+                List<Object> keys2 = ( (Fauxjo) otherObj ).getPrimaryKeyValues();
 
-                if ( item1 == null && item2 != null )
-                {
-                    return false;
-                }
-                else if ( !item1.equals( item2 ) )
-                {
-                    return false;
-                }
+                // Unsaved beans (any null key) are only equal to themselves.
+                return keys1 != null && keys2 != null && !keys1.contains( null ) && !keys2.contains( null ) && keys1.equals( keys2 );
             }
+
+            return BeanDefCache.getBeanDef( getClass() ).primaryKeyEquals( this, otherObj );
         }
         catch ( Exception ex )
         {
             throw new RuntimeException( ex );
         }
-
-        return true;
     }
 
     public String toString()
@@ -136,22 +169,10 @@ public abstract class Fauxjo
 
         try
         {
-            Map<String, FieldDef> map = BeanDefCache.getFieldDefs( getClass() );
-            for ( String key : map.keySet() )
+            BeanDef beanDef = BeanDefCache.getBeanDef( getClass() );
+            for ( int i = 0; i < beanDef.getPrimaryKeyCount(); i++ )
             {
-                FieldDef def = map.get( key );
-                if ( def.isPrimaryKey() )
-                {
-                    if ( def.getField() != null )
-                    {
-                        def.getField().setAccessible( true );
-                        builder.append( String.format( " %s:%s", key, def.getField().get( this ) ) );
-                    }
-                    else
-                    {
-                        builder.append( String.format( " %s:%s", key, def.getReadMethod().invoke( this, new Object[0] ) ) );
-                    }
-                }
+                builder.append( String.format( " %s:%s", beanDef.getPrimaryKey( i ), beanDef.getPrimaryKeyDef( i ).getValue( this ) ) );
             }
         }
         catch ( Exception ex )
@@ -163,49 +184,34 @@ public abstract class Fauxjo
     }
 
     /**
+     * Override and return true if the primary key values of this bean never change once they are all non-null. The hashCode is then
+     * computed only once, which is worthwhile for beans that live in large HashMaps or HashSets.
+     */
+    protected boolean isHashCodeCacheable()
+    {
+        return false;
+    }
+
+    /**
+     * Only used by hashCode and equals if overridden, otherwise they read the primary keys without building this List.
      * @return Values of primary keys in a consistent order so that it can be compared to other Fauxjo beans.
      */
     protected List<Object> getPrimaryKeyValues()
         throws FauxjoException
     {
-        try
+        // Arbitrarily ordered by keys.
+        BeanDef beanDef = BeanDefCache.getBeanDef( getClass() );
+        if ( beanDef.getPrimaryKeyCount() == 0 )
         {
-            // Arbitrarily ordered by keys.
-            TreeMap<String, Object> keys = new TreeMap<>();
-
-            Map<String, FieldDef> map = BeanDefCache.getFieldDefs( getClass() );
-            for ( String key : map.keySet() )
-            {
-                FieldDef def = map.get( key );
-                if ( def.isPrimaryKey() )
-                {
-                    if ( def.getField() != null )
-                    {
-                        def.getField().setAccessible( true );
-                        keys.put( key, def.getField().get( this ) );
-                    }
-                    else
-                    {
-                        keys.put( key, def.getReadMethod().invoke( this, new Object[0] ) );
-                    }
-                }
-            }
-
-            if ( keys.size() == 0 )
-            {
-                return null;
-            }
-
-            return new ArrayList<>( keys.values() );
+            return null;
         }
-        catch ( Exception ex )
-        {
-            if ( ex instanceof FauxjoException )
-            {
-                throw (FauxjoException) ex;
-            }
 
-            throw new FauxjoException( ex );
+        List<Object> keys = new ArrayList<>( beanDef.getPrimaryKeyCount() );
+        for ( int i = 0; i < beanDef.getPrimaryKeyCount(); i++ )
+        {
+            keys.add( beanDef.getPrimaryKeyDef( i ).getValue( this ) );
         }
+
+        return keys;
     }
 }
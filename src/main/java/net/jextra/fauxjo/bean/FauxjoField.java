@@ -37,4 +37,7 @@ public @interface FauxjoField
     String value();
 
     boolean defaultable() default false;
+
+    // Share equal String values read into this field across rows (for low-cardinality columns such as a status or country).
+    boolean dedup() default false;
 }
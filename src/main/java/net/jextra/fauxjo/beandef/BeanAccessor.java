@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.beandef;
+
+import net.jextra.fauxjo.*;
+
+/**
+ * Plain-Java access to the fields of a Fauxjo bean class, generated at compile time by the fauxjo-processor
+ * annotation processor.
+ * <p>
+ * When a class named after the bean's binary name plus {@link #CLASS_SUFFIX} is found next to the bean,
+ * {@link BeanDefCache} uses it to build the {@link BeanDef} and to read and write values instead of
+ * introspection and reflection.
+ */
+public interface BeanAccessor<T>
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    String CLASS_SUFFIX = "_FauxjoAccessor";
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Add a {@link FieldDef} for every column of the bean. Each FieldDef should be bound to this accessor with
+     * {@link FieldDef#setAccessor(BeanAccessor, int, boolean, boolean)}.
+     */
+    void define( BeanDef beanDef )
+        throws FauxjoException;
+
+    T newInstance();
+
+    Object getValue( T bean, int index );
+
+    void setValue( T bean, int index, Object value );
+}
@@ -21,12 +21,17 @@
 
 package net.jextra.fauxjo.beandef;
 
+import java.lang.reflect.*;
 import java.util.*;
+import net.jextra.fauxjo.*;
 
 /**
  * Represents the result of processing the annotations on the Fauxjo bean class.
  * <p>
  * Processing the annotations on a class is rather slow. This object stores the results so that they can be placed in a cache.
+ * <p>
+ * The FieldDefs are held in an immutable index that is replaced as a whole when a FieldDef is added, so a BeanDef that has
+ * been fully built (as by {@link BeanDefCache}) can be read from any number of threads without locking or allocating.
  */
 public class BeanDef
 {
@@ -34,7 +39,9 @@ public class BeanDef
     // Fields
     // ============================================================
 
-    private Map<String, FieldDef> fieldDefs;
+    private volatile Index index;
+    private BeanAccessor<?> accessor;
+    private Constructor<?> constructor;
 
     // ============================================================
     // Constructors
@@ -42,7 +49,7 @@ public class BeanDef
 
     public BeanDef()
     {
-        fieldDefs = new TreeMap<>();
+        index = new Index( new TreeMap<>() );
     }
 
     // ============================================================
@@ -54,44 +61,307 @@ public class BeanDef
     // ----------
 
     public FieldDef getFieldDef( String key )
+    {
+        int i = indexOf( key );
+
+        return i < 0 ? null : index.fieldDefs[i];
+    }
+
+    /**
+     * Return the position of the key in the sorted FieldDefs or -1 if there is no such key.
+     */
+    public int indexOf( String key )
     {
         if ( key == null )
         {
-            return null;
+            return -1;
         }
 
-        return fieldDefs.get( key.toLowerCase() );
+        return index.indexOf( key.toLowerCase() );
+    }
+
+    public int getFieldCount()
+    {
+        return index.fieldDefs.length;
+    }
+
+    /**
+     * @param i position (sorted by key) of the FieldDef
+     */
+    public FieldDef getFieldDef( int i )
+    {
+        return index.fieldDefs[i];
+    }
+
+    /**
+     * @param i position (sorted by key) of the FieldDef
+     */
+    public String getKey( int i )
+    {
+        return index.keys[i];
+    }
+
+    public int getPrimaryKeyCount()
+    {
+        return index.primaryKeyDefs.length;
+    }
+
+    /**
+     * @param i position of the primary key FieldDef, sorted by key like all FieldDefs
+     */
+    public FieldDef getPrimaryKeyDef( int i )
+    {
+        return index.primaryKeyDefs[i];
+    }
+
+    /**
+     * @param i position of the primary key FieldDef, sorted by key like all FieldDefs
+     */
+    public String getPrimaryKey( int i )
+    {
+        return index.primaryKeys[i];
+    }
+
+    /**
+     * Return the sum of the hashCodes of the bean's primary key values (null counts as zero).
+     */
+    /**
+     * Return the number of defaultable FieldDefs (whose column the database fills in on insert if they are null).
+     */
+    public int getDefaultableCount()
+    {
+        return index.defaultableDefs.length;
+    }
+
+    /**
+     * @param i position of the defaultable FieldDef, sorted by key like all FieldDefs
+     */
+    public FieldDef getDefaultableDef( int i )
+    {
+        return index.defaultableDefs[i];
+    }
+
+    /**
+     * @param i position of the defaultable FieldDef, sorted by key like all FieldDefs
+     */
+    public String getDefaultableKey( int i )
+    {
+        return index.defaultableKeys[i];
+    }
+
+    public int hashPrimaryKey( Object bean )
+        throws FauxjoException
+    {
+        FieldDef[] defs = index.primaryKeyDefs;
+        int hashCode = 0;
+        for ( FieldDef def : defs )
+        {
+            hashCode += def.hashValue( bean );
+        }
+
+        return hashCode;
+    }
+
+    /**
+     * Return true if all of the primary key values of the two beans are equal. Two beans without primary keys, or with any null
+     * primary key value, are not equal (unless they are the same bean) because there is nothing to identify their rows by.
+     */
+    public boolean primaryKeyEquals( Object bean1, Object bean2 )
+        throws FauxjoException
+    {
+        if ( bean1 == bean2 )
+        {
+            return true;
+        }
+
+        FieldDef[] defs = index.primaryKeyDefs;
+        if ( defs.length == 0 )
+        {
+            return false;
+        }
+
+        for ( FieldDef def : defs )
+        {
+            if ( !def.valueEquals( bean1, bean2 ) )
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Return true if the bean has primary keys and none of their values are null.
+     */
+    public boolean hasPrimaryKeyValues( Object bean )
+        throws FauxjoException
+    {
+        FieldDef[] defs = index.primaryKeyDefs;
+        if ( defs.length == 0 )
+        {
+            return false;
+        }
+
+        for ( FieldDef def : defs )
+        {
+            if ( def.getValue( bean ) == null )
+            {
+                return false;
+            }
+        }
+
+        return true;
     }
 
     public void addFieldDef( String key, FieldDef def )
     {
-        fieldDefs.put( key.toLowerCase(), def );
+        TreeMap<String, FieldDef> map = new TreeMap<>( index.map );
+        map.put( key.toLowerCase(), def );
+        index = new Index( map );
     }
 
-    public Map<String, FieldDef> getFieldDefs()
+    public BeanAccessor<?> getAccessor()
+    {
+        return accessor;
+    }
+
+    public void setAccessor( BeanAccessor<?> accessor )
     {
-        TreeMap<String, FieldDef> map = new TreeMap<>();
-        for ( String key : fieldDefs.keySet() )
+        this.accessor = accessor;
+    }
+
+    /**
+     * The no-arg constructor to create new beans with if there is no {@link BeanAccessor}.
+     */
+    public void setConstructor( Constructor<?> constructor )
+    {
+        this.constructor = constructor;
+    }
+
+    /**
+     * Create a new empty bean via the accessor if there is one, otherwise via reflection.
+     */
+    public Object newInstance()
+        throws FauxjoException
+    {
+        if ( accessor != null )
+        {
+            return accessor.newInstance();
+        }
+
+        if ( constructor == null )
         {
-            map.put( key, getFieldDef( key ) );
+            throw new FauxjoException( "There is no accessor or no-arg constructor to create a bean with" );
         }
 
-        return map;
+        try
+        {
+            return constructor.newInstance();
+        }
+        catch ( Exception ex )
+        {
+            throw new FauxjoException( ex );
+        }
     }
 
-    // ----------
-    // private
-    // ----------
+    /**
+     * @return Unmodifiable map of the FieldDefs sorted by key.
+     */
+    public Map<String, FieldDef> getFieldDefs()
+    {
+        return index.map;
+    }
 
-    private FieldDef getFieldDef2( String key )
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Immutable snapshot of the FieldDefs: sorted arrays plus an open-addressing table (linear probing) from key to
+     * position.
+     */
+    private static class Index
     {
-        FieldDef def = fieldDefs.get( key.toLowerCase() );
-        if ( def == null )
+        private final Map<String, FieldDef> map;
+        private final String[] keys;
+        private final FieldDef[] fieldDefs;
+        private final String[] primaryKeys;
+        private final FieldDef[] primaryKeyDefs;
+        private final String[] defaultableKeys;
+        private final FieldDef[] defaultableDefs;
+        private final String[] slotKeys;
+        private final int[] slotIndexes;
+        private final int mask;
+
+        public Index( TreeMap<String, FieldDef> sorted )
         {
-            def = new FieldDef();
-            fieldDefs.put( key.toLowerCase(), def );
+            map = Collections.unmodifiableMap( sorted );
+            keys = sorted.keySet().toArray( new String[sorted.size()] );
+            fieldDefs = sorted.values().toArray( new FieldDef[sorted.size()] );
+
+            List<String> pkKeys = new ArrayList<>();
+            List<FieldDef> pkDefs = new ArrayList<>();
+            List<String> dfKeys = new ArrayList<>();
+            List<FieldDef> dfDefs = new ArrayList<>();
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                if ( fieldDefs[i].isPrimaryKey() )
+                {
+                    pkKeys.add( keys[i] );
+                    pkDefs.add( fieldDefs[i] );
+                }
+                if ( fieldDefs[i].isDefaultable() )
+                {
+                    dfKeys.add( keys[i] );
+                    dfDefs.add( fieldDefs[i] );
+                }
+            }
+            primaryKeys = pkKeys.toArray( new String[pkKeys.size()] );
+            primaryKeyDefs = pkDefs.toArray( new FieldDef[pkDefs.size()] );
+            defaultableKeys = dfKeys.toArray( new String[dfKeys.size()] );
+            defaultableDefs = dfDefs.toArray( new FieldDef[dfDefs.size()] );
+
+            // At most half full so that probes stay short.
+            int capacity = 2;
+            while ( capacity < keys.length * 2 )
+            {
+                capacity <<= 1;
+            }
+            mask = capacity - 1;
+            slotKeys = new String[capacity];
+            slotIndexes = new int[capacity];
+            for ( int i = 0; i < keys.length; i++ )
+            {
+                int slot = spread( keys[i].hashCode() ) & mask;
+                while ( slotKeys[slot] != null )
+                {
+                    slot = ( slot + 1 ) & mask;
+                }
+                slotKeys[slot] = keys[i];
+                slotIndexes[slot] = i;
+            }
         }
 
-        return def;
+        public int indexOf( String key )
+        {
+            int slot = spread( key.hashCode() ) & mask;
+            String slotKey;
+            while ( ( slotKey = slotKeys[slot] ) != null )
+            {
+                if ( slotKey.equals( key ) )
+                {
+                    return slotIndexes[slot];
+                }
+                slot = ( slot + 1 ) & mask;
+            }
+
+            return -1;
+        }
+
+        private static int spread( int hash )
+        {
+            return hash ^ ( hash >>> 16 );
+        }
     }
 }
@@ -27,22 +27,32 @@ import java.util.*;
 import net.jextra.fauxjo.*;
 import net.jextra.fauxjo.bean.*;
 
+/**
+ * Caches a {@link BeanDef} per bean class. The cache is a {@link ClassValue} so that lookups are lock-free and
+ * safe while being populated concurrently, and entries go away with their class loader.
+ */
 public class BeanDefCache
 {
     // ============================================================
     // Fields
     // ============================================================
 
-    private static HashMap<Class<?>, BeanDef> beanDefCache;
-
-    // ============================================================
-    // Constructors
-    // ============================================================
-
-    static
+    private static final ClassValue<BeanDef> beanDefCache = new ClassValue<BeanDef>()
     {
-        beanDefCache = new HashMap<>();
-    }
+        @Override
+        protected BeanDef computeValue( Class<?> beanClass )
+        {
+            try
+            {
+                return buildBeanDef( beanClass );
+            }
+            catch ( FauxjoException ex )
+            {
+                // Failures are not cached, they are thrown again to every caller.
+                throw new BuildException( ex );
+            }
+        }
+    };
 
     // ============================================================
     // Methods
@@ -63,16 +73,46 @@ public class BeanDefCache
     {
         try
         {
-            BeanDef beanDef = beanDefCache.get( beanClass );
+            return beanDefCache.get( beanClass );
+        }
+        catch ( BuildException ex )
+        {
+            throw (FauxjoException) ex.getCause();
+        }
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static BeanDef buildBeanDef( Class<?> beanClass )
+        throws FauxjoException
+    {
+        try
+        {
+            BeanDef beanDef;
+
+            //
+            // Use the generated accessor if there is one.
+            //
+            beanDef = buildAccessorBeanDef( beanClass );
             if ( beanDef != null )
             {
                 return beanDef;
             }
 
             //
-            // Was not cached, collect information.
+            // Otherwise collect information via reflection.
             //
             beanDef = new BeanDef();
+            try
+            {
+                beanDef.setConstructor( beanClass.getDeclaredConstructor() );
+            }
+            catch ( NoSuchMethodException ex )
+            {
+                // Beans that are only ever written do not need a no-arg constructor.
+            }
 
             for ( Field field : buildFauxjoFields( beanClass ) )
             {
@@ -88,6 +128,7 @@ public class BeanDefCache
                 fieldDef = new FieldDef();
                 fieldDef.setField( field );
                 fieldDef.setDefaultable( ann.defaultable() );
+                fieldDef.setDedup( ann.dedup() );
 
                 // Check if FauxjoPrimaryKey.
                 if ( field.isAnnotationPresent( FauxjoPrimaryKey.class ) )
@@ -139,7 +180,7 @@ public class BeanDefCache
                         // Check if FauxjoPrimaryKey.
                         if ( prop.getReadMethod().isAnnotationPresent( FauxjoPrimaryKey.class ) )
                         {
-                            beanDef.getFieldDef( key ).setPrimaryKey( true );
+                            fieldDef.setPrimaryKey( true );
                         }
 
                         beanDef.addFieldDef( key, fieldDef );
@@ -147,9 +188,6 @@ public class BeanDefCache
                 }
             }
 
-            // Put in cache
-            beanDefCache.put( beanClass, beanDef );
-
             return beanDef;
         }
         catch ( Exception ex )
@@ -163,9 +201,34 @@ public class BeanDefCache
         }
     }
 
-    // ----------
-    // private
-    // ----------
+    /**
+     * Return a BeanDef built by the bean's generated {@link BeanAccessor} or null if it does not have one.
+     */
+    private static BeanDef buildAccessorBeanDef( Class<?> beanClass )
+        throws Exception
+    {
+        Class<?> accessorClass;
+        try
+        {
+            accessorClass = Class.forName( beanClass.getName() + BeanAccessor.CLASS_SUFFIX, true, beanClass.getClassLoader() );
+        }
+        catch ( ClassNotFoundException ex )
+        {
+            return null;
+        }
+
+        if ( !BeanAccessor.class.isAssignableFrom( accessorClass ) )
+        {
+            return null;
+        }
+
+        BeanAccessor<?> accessor = (BeanAccessor<?>) accessorClass.getDeclaredConstructor().newInstance();
+        BeanDef beanDef = new BeanDef();
+        beanDef.setAccessor( accessor );
+        accessor.define( beanDef );
+
+        return beanDef;
+    }
 
     private static Collection<Field> buildFauxjoFields( Class<?> cls )
     {
@@ -188,4 +251,19 @@ public class BeanDefCache
 
         return list;
     }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Carries a FauxjoException out of ClassValue.computeValue, which can not throw checked exceptions.
+     */
+    private static class BuildException extends RuntimeException
+    {
+        public BuildException( FauxjoException cause )
+        {
+            super( cause );
+        }
+    }
 }
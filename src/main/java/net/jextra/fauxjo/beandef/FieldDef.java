@@ -30,12 +30,22 @@ public class FieldDef
     // Fields
     // ============================================================
 
+    private static final Object[] NO_ARGS = new Object[0];
+
     private Field field;
     private Method writeMethod;
     private Method readMethod;
     private Class<?> valueClass;
     private boolean primaryKey;
     private boolean defaultable;
+    private StringDeduplicator deduplicator;
+    private BeanAccessor<Object> accessor;
+    private int accessorIndex;
+    private boolean accessorReadable;
+    private boolean accessorWritable;
+
+    // Type of the field if it is a primitive so that it can be hashed and compared without boxing.
+    private Class<?> primitiveField;
 
     // ============================================================
     // Constructors
@@ -58,6 +68,8 @@ public class FieldDef
         throws FauxjoException
     {
         this.field = field;
+        field.setAccessible( true );
+        primitiveField = field.getType().isPrimitive() ? field.getType() : null;
 
         // Calculate the valueClass from the field.
         if ( valueClass == null )
@@ -138,6 +150,229 @@ public class FieldDef
         return valueClass;
     }
 
+    /**
+     * Only needed when there is no field or method to calculate the valueClass from (e.g. for a {@link BeanAccessor}).
+     */
+    public void setValueClass( Class<?> valueClass )
+    {
+        this.valueClass = valueClass;
+    }
+
+    public BeanAccessor<?> getAccessor()
+    {
+        return accessor;
+    }
+
+    /**
+     * Read and write the value through a generated {@link BeanAccessor} instead of reflection.
+     * @param index of the value in the accessor
+     */
+    @SuppressWarnings( "unchecked" )
+    public void setAccessor( BeanAccessor<?> accessor, int index, boolean readable, boolean writable )
+    {
+        this.accessor = (BeanAccessor<Object>) accessor;
+        accessorIndex = index;
+        accessorReadable = readable;
+        accessorWritable = writable;
+    }
+
+    public boolean isReadable()
+    {
+        return accessor != null ? accessorReadable : field != null || readMethod != null;
+    }
+
+    public boolean isWritable()
+    {
+        return accessor != null ? accessorWritable : field != null || writeMethod != null;
+    }
+
+    /**
+     * Read the value from the bean via its accessor, field or read method (in that order).
+     */
+    public Object getValue( Object bean )
+        throws FauxjoException
+    {
+        if ( accessor != null && accessorReadable )
+        {
+            return accessor.getValue( bean, accessorIndex );
+        }
+
+        try
+        {
+            if ( field != null )
+            {
+                return field.get( bean );
+            }
+
+            if ( readMethod != null )
+            {
+                return readMethod.invoke( bean, NO_ARGS );
+            }
+        }
+        catch ( Exception ex )
+        {
+            throw new FauxjoException( ex );
+        }
+
+        throw new FauxjoException( "There is no field or read method to read from" );
+    }
+
+    /**
+     * Same as {@code getValue( bean ).hashCode()} (zero for null) but primitive fields are hashed without boxing.
+     */
+    public int hashValue( Object bean )
+        throws FauxjoException
+    {
+        if ( primitiveField != null && accessor == null )
+        {
+            try
+            {
+                if ( primitiveField == Long.TYPE )
+                {
+                    return Long.hashCode( field.getLong( bean ) );
+                }
+                else if ( primitiveField == Integer.TYPE )
+                {
+                    return Integer.hashCode( field.getInt( bean ) );
+                }
+                else if ( primitiveField == Short.TYPE )
+                {
+                    return Short.hashCode( field.getShort( bean ) );
+                }
+                else if ( primitiveField == Byte.TYPE )
+                {
+                    return Byte.hashCode( field.getByte( bean ) );
+                }
+                else if ( primitiveField == Character.TYPE )
+                {
+                    return Character.hashCode( field.getChar( bean ) );
+                }
+                else if ( primitiveField == Boolean.TYPE )
+                {
+                    return Boolean.hashCode( field.getBoolean( bean ) );
+                }
+                else if ( primitiveField == Double.TYPE )
+                {
+                    return Double.hashCode( field.getDouble( bean ) );
+                }
+                else if ( primitiveField == Float.TYPE )
+                {
+                    return Float.hashCode( field.getFloat( bean ) );
+                }
+            }
+            catch ( Exception ex )
+            {
+                throw new FauxjoException( ex );
+            }
+        }
+
+        Object value = getValue( bean );
+
+        return value == null ? 0 : value.hashCode();
+    }
+
+    /**
+     * Same as {@code getValue( bean1 ).equals( getValue( bean2 ) )} but primitive fields are compared without boxing. A null value
+     * is not equal to anything (not even another null), as an unassigned key does not identify a row.
+     */
+    public boolean valueEquals( Object bean1, Object bean2 )
+        throws FauxjoException
+    {
+        if ( primitiveField != null && accessor == null )
+        {
+            try
+            {
+                if ( primitiveField == Long.TYPE )
+                {
+                    return field.getLong( bean1 ) == field.getLong( bean2 );
+                }
+                else if ( primitiveField == Integer.TYPE )
+                {
+                    return field.getInt( bean1 ) == field.getInt( bean2 );
+                }
+                else if ( primitiveField == Short.TYPE )
+                {
+                    return field.getShort( bean1 ) == field.getShort( bean2 );
+                }
+                else if ( primitiveField == Byte.TYPE )
+                {
+                    return field.getByte( bean1 ) == field.getByte( bean2 );
+                }
+                else if ( primitiveField == Character.TYPE )
+                {
+                    return field.getChar( bean1 ) == field.getChar( bean2 );
+                }
+                else if ( primitiveField == Boolean.TYPE )
+                {
+                    return field.getBoolean( bean1 ) == field.getBoolean( bean2 );
+                }
+                else if ( primitiveField == Double.TYPE )
+                {
+                    // Same as Double.equals.
+                    return Double.doubleToLongBits( field.getDouble( bean1 ) ) == Double.doubleToLongBits( field.getDouble( bean2 ) );
+                }
+                else if ( primitiveField == Float.TYPE )
+                {
+                    // Same as Float.equals.
+                    return Float.floatToIntBits( field.getFloat( bean1 ) ) == Float.floatToIntBits( field.getFloat( bean2 ) );
+                }
+            }
+            catch ( Exception ex )
+            {
+                throw new FauxjoException( ex );
+            }
+        }
+
+        Object value1 = getValue( bean1 );
+        Object value2 = getValue( bean2 );
+
+        return value1 != null && value2 != null && value1.equals( value2 );
+    }
+
+    /**
+     * Write the value to the bean via its accessor, field or write method (in that order). Does nothing if the
+     * value is not writable.
+     */
+    public void setValue( Object bean, Object value )
+        throws FauxjoException
+    {
+        if ( accessor != null )
+        {
+            if ( accessorWritable )
+            {
+                accessor.setValue( bean, accessorIndex, value );
+            }
+
+            return;
+        }
+
+        if ( field != null )
+        {
+            try
+            {
+                field.set( bean, value );
+
+                return;
+            }
+            catch ( Exception ex )
+            {
+                throw new FauxjoException( "Unable to write to field [" + field.getName() + "]", ex );
+            }
+        }
+
+        if ( writeMethod != null )
+        {
+            try
+            {
+                writeMethod.invoke( bean, value );
+            }
+            catch ( Exception ex )
+            {
+                throw new FauxjoException( "Unable to invoke write method [" + writeMethod.getName() + "]", ex );
+            }
+        }
+    }
+
     public boolean isDefaultable()
     {
         return defaultable;
@@ -147,4 +382,28 @@ public class FieldDef
     {
         this.defaultable = defaultable;
     }
+
+    public boolean isDedup()
+    {
+        return deduplicator != null;
+    }
+
+    /**
+     * Share equal String values read into this field through a {@link StringDeduplicator} of its own.
+     */
+    public void setDedup( boolean dedup )
+    {
+        if ( dedup != isDedup() )
+        {
+            deduplicator = dedup ? new StringDeduplicator() : null;
+        }
+    }
+
+    /**
+     * Return the deduplicator of the field or null if it is not deduplicated.
+     */
+    public StringDeduplicator getDeduplicator()
+    {
+        return deduplicator;
+    }
 }
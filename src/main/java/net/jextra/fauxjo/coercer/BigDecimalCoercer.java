@@ -37,34 +37,41 @@ public class BigDecimalCoercer implements TypeCoercer<BigDecimal>
     @Override
     public Object convertTo( BigDecimal value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( Byte.class ) )
         {
-            return value.byteValue();
+            return value -> ( (BigDecimal) value ).byteValue();
         }
         else if ( targetClass.equals( Short.class ) )
         {
-            return value.shortValue();
+            return value -> ( (BigDecimal) value ).shortValue();
         }
         else if ( targetClass.equals( Integer.class ) )
         {
-            return value.intValue();
+            return value -> ( (BigDecimal) value ).intValue();
         }
         else if ( targetClass.equals( Long.class ) )
         {
-            return value.longValue();
+            return value -> ( (BigDecimal) value ).longValue();
         }
         else if ( targetClass.equals( BigInteger.class ) )
         {
-            return value.toBigInteger();
+            return value -> ( (BigDecimal) value ).toBigInteger();
         }
         else if ( targetClass.equals( Float.class ) )
         {
-            return value.floatValue();
+            return value -> ( (BigDecimal) value ).floatValue();
         }
         else if ( targetClass.equals( Double.class ) )
         {
-            return value.doubleValue();
+            return value -> ( (BigDecimal) value ).doubleValue();
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
@@ -29,6 +29,9 @@ import net.jextra.fauxjo.*;
 /**
  * General use tool that coerces one value type to another value type. For example from a
  * String to an Integer.
+ * <p>
+ * The Converter of each (source class, target class) pair is resolved once and cached. All Coercers without added TypeCoercers share
+ * the default TypeCoercers and their cache, so creating one is cheap. Adding a TypeCoercer gives the Coercer its own copy.
  */
 public class Coercer
 {
@@ -36,7 +39,11 @@ public class Coercer
     // Fields
     // ============================================================
 
-    private Map<Class<?>, TypeCoercer<?>> coercerMap = new HashMap<>();
+    private static final Matrix DEFAULT_MATRIX = new Matrix( createDefaultCoercers() );
+    private static final Converter IDENTITY = value -> value;
+
+    // Replaced (copy-on-write) when a TypeCoercer is added.
+    private volatile Matrix matrix = DEFAULT_MATRIX;
 
     // ============================================================
     // Constructors
@@ -44,23 +51,6 @@ public class Coercer
 
     public Coercer()
     {
-        coercerMap.put( Object.class, new ObjectCoercer() );
-        coercerMap.put( String.class, new StringCoercer() );
-        coercerMap.put( Byte.class, new ByteCoercer() );
-        coercerMap.put( Short.class, new ShortCoercer() );
-        coercerMap.put( Integer.class, new IntegerCoercer() );
-        coercerMap.put( Long.class, new LongCoercer() );
-        coercerMap.put( BigInteger.class, new BigIntegerCoercer() );
-        coercerMap.put( BigDecimal.class, new BigDecimalCoercer() );
-        coercerMap.put( Float.class, new FloatCoercer() );
-        coercerMap.put( Double.class, new DoubleCoercer() );
-        coercerMap.put( java.util.Date.class, new UtilDateCoercer() );
-        coercerMap.put( java.sql.Date.class, new DateCoercer() );
-        coercerMap.put( java.sql.Time.class, new TimeCoercer() );
-        coercerMap.put( java.sql.Timestamp.class, new TimestampCoercer() );
-        coercerMap.put( Instant.class, new InstantCoercer() );
-        coercerMap.put( UUID.class, new UuidCoercer() );
-        coercerMap.put( byte[].class, new ByteArrayCoercer() );
     }
 
     // ============================================================
@@ -71,18 +61,28 @@ public class Coercer
     // public
     // ----------
 
-    public <T> void addTypeCoercer( Class<T> coercerClass, TypeCoercer<T> coercer )
+    public synchronized <T> void addTypeCoercer( Class<T> coercerClass, TypeCoercer<T> coercer )
     {
+        Map<Class<?>, TypeCoercer<?>> coercerMap = new HashMap<>( matrix.coercerMap );
         coercerMap.put( (Class<?>) coercerClass, (TypeCoercer<?>) coercer );
+        matrix = new Matrix( coercerMap );
     }
 
     @SuppressWarnings( "unchecked" )
     public <T> TypeCoercer<T> getTypeCoercer( Class<T> coercerClass )
     {
-        return (TypeCoercer<T>) coercerMap.get( coercerClass );
+        return (TypeCoercer<T>) matrix.coercerMap.get( coercerClass );
+    }
+
+    /**
+     * Return the cached Converter of non-null values of exactly sourceClass to targetClass (primitive target classes are treated as
+     * their wrapper class). Unsupported pairs return a Converter that throws.
+     */
+    public Converter getConverter( Class<?> sourceClass, Class<?> targetClass )
+    {
+        return matrix.get( sourceClass, targetClass );
     }
 
-    @SuppressWarnings( "unchecked" )
     public <T> Object convertTo( T value, Class<?> targetClass )
         throws FauxjoException
     {
@@ -92,56 +92,150 @@ public class Coercer
             return null;
         }
 
-        if ( targetClass.isPrimitive() )
+        return matrix.get( value.getClass(), targetClass ).convert( value );
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static Map<Class<?>, TypeCoercer<?>> createDefaultCoercers()
+    {
+        Map<Class<?>, TypeCoercer<?>> coercerMap = new HashMap<>();
+        coercerMap.put( Object.class, new ObjectCoercer() );
+        coercerMap.put( String.class, new StringCoercer() );
+        coercerMap.put( Byte.class, new ByteCoercer() );
+        coercerMap.put( Short.class, new ShortCoercer() );
+        coercerMap.put( Integer.class, new IntegerCoercer() );
+        coercerMap.put( Long.class, new LongCoercer() );
+        coercerMap.put( BigInteger.class, new BigIntegerCoercer() );
+        coercerMap.put( BigDecimal.class, new BigDecimalCoercer() );
+        coercerMap.put( Float.class, new FloatCoercer() );
+        coercerMap.put( Double.class, new DoubleCoercer() );
+        coercerMap.put( java.util.Date.class, new UtilDateCoercer() );
+        coercerMap.put( java.sql.Date.class, new DateCoercer() );
+        coercerMap.put( java.sql.Time.class, new TimeCoercer() );
+        coercerMap.put( java.sql.Timestamp.class, new TimestampCoercer() );
+        coercerMap.put( Instant.class, new InstantCoercer() );
+        coercerMap.put( LocalDate.class, new LocalDateCoercer() );
+        coercerMap.put( LocalDateTime.class, new LocalDateTimeCoercer() );
+        coercerMap.put( OffsetDateTime.class, new OffsetDateTimeCoercer() );
+        coercerMap.put( UUID.class, new UuidCoercer() );
+        coercerMap.put( byte[].class, new ByteArrayCoercer() );
+
+        return coercerMap;
+    }
+
+    private static Class<?> toWrapperClass( Class<?> targetClass )
+    {
+        if ( !targetClass.isPrimitive() )
         {
-            if ( targetClass == Boolean.TYPE )
-            {
-                targetClass = Boolean.class;
-            }
-            else if ( targetClass == Byte.TYPE )
-            {
-                targetClass = Byte.class;
-            }
-            else if ( targetClass == Character.TYPE )
-            {
-                targetClass = Character.class;
-            }
-            else if ( targetClass == Double.TYPE )
+            return targetClass;
+        }
+
+        if ( targetClass == Boolean.TYPE )
+        {
+            return Boolean.class;
+        }
+        else if ( targetClass == Byte.TYPE )
+        {
+            return Byte.class;
+        }
+        else if ( targetClass == Character.TYPE )
+        {
+            return Character.class;
+        }
+        else if ( targetClass == Double.TYPE )
+        {
+            return Double.class;
+        }
+        else if ( targetClass == Float.TYPE )
+        {
+            return Float.class;
+        }
+        else if ( targetClass == Integer.TYPE )
+        {
+            return Integer.class;
+        }
+        else if ( targetClass == Long.TYPE )
+        {
+            return Long.class;
+        }
+        else if ( targetClass == Short.TYPE )
+        {
+            return Short.class;
+        }
+
+        return targetClass;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    /**
+     * Immutable TypeCoercers plus the Converters resolved from them by source class then target class.
+     */
+    private static class Matrix
+    {
+        private final Map<Class<?>, TypeCoercer<?>> coercerMap;
+        private final ClassValue<ClassValue<Converter>> converters;
+
+        public Matrix( Map<Class<?>, TypeCoercer<?>> coercerMap )
+        {
+            this.coercerMap = coercerMap;
+            converters = new ClassValue<ClassValue<Converter>>()
             {
-                targetClass = Double.class;
-            }
-            else if ( targetClass == Float.TYPE )
+                @Override
+                protected ClassValue<Converter> computeValue( Class<?> sourceClass )
+                {
+                    return new ClassValue<Converter>()
+                    {
+                        @Override
+                        protected Converter computeValue( Class<?> targetClass )
+                        {
+                            return resolve( sourceClass, targetClass );
+                        }
+                    };
+                }
+            };
+        }
+
+        public Converter get( Class<?> sourceClass, Class<?> targetClass )
+        {
+            return converters.get( sourceClass ).get( targetClass );
+        }
+
+        private Converter resolve( Class<?> sourceClass, Class<?> targetClass )
+        {
+            Class<?> wrapperClass = toWrapperClass( targetClass );
+
+            // Short-circuit if given value is the same as the target class
+            if ( sourceClass.equals( wrapperClass ) )
             {
-                targetClass = Float.class;
+                return IDENTITY;
             }
-            else if ( targetClass == Integer.TYPE )
+
+            TypeCoercer<?> coercer = coercerMap.get( sourceClass );
+
+            // Use default coercer if none is found
+            if ( coercer == null )
             {
-                targetClass = Integer.class;
+                coercer = coercerMap.get( Object.class );
             }
-            else if ( targetClass == Long.TYPE )
+
+            try
             {
-                targetClass = Long.class;
+                return coercer.getConverter( wrapperClass );
             }
-            else if ( targetClass == Short.TYPE )
+            catch ( FauxjoException ex )
             {
-                targetClass = Short.class;
+                String message = ex.getMessage();
+                return value ->
+                {
+                    throw new FauxjoException( message );
+                };
             }
         }
-
-        // Short-circuit if given value is the same as the target class
-        if ( value.getClass().equals( targetClass ) )
-        {
-            return value;
-        }
-
-        TypeCoercer<T> coercer = (TypeCoercer<T>) coercerMap.get( value.getClass() );
-
-        // Use default coercer if none is found
-        if ( coercer == null )
-        {
-            coercer = (TypeCoercer<T>) coercerMap.get( Object.class );
-        }
-
-        return coercer.convertTo( value, targetClass );
     }
 }
@@ -38,18 +38,41 @@ public class InstantCoercer implements TypeCoercer<Instant>
     @Override
     public Object convertTo( Instant value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( java.util.Date.class ) )
         {
-            return java.util.Date.from( value );
+            return value -> java.util.Date.from( (Instant) value );
         }
         else if ( targetClass.equals( Date.class ) )
         {
-            return Date.from( value );
+            return value -> Date.from( (Instant) value );
         }
         else if ( targetClass.equals( Timestamp.class ) )
         {
-            return Timestamp.from( value );
+            return value -> Timestamp.from( (Instant) value );
+        }
+        else if ( targetClass.equals( LocalDateTime.class ) )
+        {
+            return value -> LocalDateTime.ofInstant( (Instant) value, ZoneId.systemDefault() );
+        }
+        else if ( targetClass.equals( LocalDate.class ) )
+        {
+            return value -> ( (Instant) value ).atZone( ZoneId.systemDefault() ).toLocalDate();
+        }
+        else if ( targetClass.equals( OffsetDateTime.class ) )
+        {
+            return value -> ( (Instant) value ).atZone( ZoneId.systemDefault() ).toOffsetDateTime();
+        }
+        else if ( targetClass.equals( String.class ) )
+        {
+            return value -> value.toString();
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
@@ -37,39 +37,51 @@ public class IntegerCoercer implements TypeCoercer<Integer>
     @Override
     public Object convertTo( Integer value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( Byte.class ) )
         {
-            assert value <= Byte.MAX_VALUE && value >= Byte.MIN_VALUE;
-            return value.byteValue();
+            return value ->
+            {
+                assert (Integer) value <= Byte.MAX_VALUE && (Integer) value >= Byte.MIN_VALUE;
+                return ( (Integer) value ).byteValue();
+            };
         }
         else if ( targetClass.equals( Short.class ) )
         {
-            assert value <= Short.MAX_VALUE && value >= Short.MIN_VALUE;
-            return value.shortValue();
+            return value ->
+            {
+                assert (Integer) value <= Short.MAX_VALUE && (Integer) value >= Short.MIN_VALUE;
+                return ( (Integer) value ).shortValue();
+            };
         }
         else if ( targetClass.equals( Long.class ) )
         {
-            return value.longValue();
+            return value -> ( (Integer) value ).longValue();
         }
         else if ( targetClass.equals( Float.class ) )
         {
-            return (float) value;
+            return value -> ( (Integer) value ).floatValue();
         }
         else if ( targetClass.equals( Double.class ) )
         {
-            return (double) value;
+            return value -> ( (Integer) value ).doubleValue();
         }
         else if ( targetClass.equals( ZoneOffset.class ) )
         {
-            return ZoneOffset.ofTotalSeconds( value );
+            return value -> ZoneOffset.ofTotalSeconds( (Integer) value );
         }
         else if ( targetClass.equals( String.class ) )
         {
-            return value.toString();
+            return value -> value.toString();
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
     }
-
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.coercer;
+
+import java.sql.*;
+import java.time.*;
+import net.jextra.fauxjo.*;
+
+public class LocalDateTimeCoercer implements TypeCoercer<LocalDateTime>
+{
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    @Override
+    public Object convertTo( LocalDateTime value, Class<?> targetClass )
+        throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
+    {
+        if ( targetClass.equals( LocalDate.class ) )
+        {
+            return value -> ( (LocalDateTime) value ).toLocalDate();
+        }
+        else if ( targetClass.equals( LocalTime.class ) )
+        {
+            return value -> ( (LocalDateTime) value ).toLocalTime();
+        }
+        else if ( targetClass.equals( OffsetDateTime.class ) )
+        {
+            return value -> ( (LocalDateTime) value ).atZone( ZoneId.systemDefault() ).toOffsetDateTime();
+        }
+        else if ( targetClass.equals( Instant.class ) )
+        {
+            return value -> ( (LocalDateTime) value ).atZone( ZoneId.systemDefault() ).toInstant();
+        }
+        else if ( targetClass.equals( java.sql.Date.class ) )
+        {
+            return value -> java.sql.Date.valueOf( ( (LocalDateTime) value ).toLocalDate() );
+        }
+        else if ( targetClass.equals( Timestamp.class ) )
+        {
+            return value -> Timestamp.valueOf( (LocalDateTime) value );
+        }
+        else if ( targetClass.equals( String.class ) )
+        {
+            return value -> value.toString();
+        }
+        else if ( targetClass.equals( Object.class ) )
+        {
+            return value -> value;
+        }
+
+        throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
+    }
+}
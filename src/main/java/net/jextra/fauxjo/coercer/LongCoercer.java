@@ -36,32 +36,47 @@ public class LongCoercer implements TypeCoercer<Long>
     @Override
     public Object convertTo( Long value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( Byte.class ) )
         {
-            assert value <= Byte.MAX_VALUE && value >= Byte.MIN_VALUE;
-            return value.byteValue();
+            return value ->
+            {
+                assert (Long) value <= Byte.MAX_VALUE && (Long) value >= Byte.MIN_VALUE;
+                return ( (Long) value ).byteValue();
+            };
         }
         else if ( targetClass.equals( Short.class ) )
         {
-            assert value <= Short.MAX_VALUE && value >= Short.MIN_VALUE;
-            return value.shortValue();
+            return value ->
+            {
+                assert (Long) value <= Short.MAX_VALUE && (Long) value >= Short.MIN_VALUE;
+                return ( (Long) value ).shortValue();
+            };
         }
         else if ( targetClass.equals( Integer.class ) )
         {
-            assert value <= Integer.MAX_VALUE && value >= Integer.MIN_VALUE;
-            return value.intValue();
+            return value ->
+            {
+                assert (Long) value <= Integer.MAX_VALUE && (Long) value >= Integer.MIN_VALUE;
+                return ( (Long) value ).intValue();
+            };
         }
         else if ( targetClass.equals( Float.class ) )
         {
-            return (float) value;
+            return value -> ( (Long) value ).floatValue();
         }
         else if ( targetClass.equals( Double.class ) )
         {
-            return (double) value;
+            return value -> ( (Long) value ).doubleValue();
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
     }
-
 }
@@ -24,10 +24,21 @@ package net.jextra.fauxjo.coercer;
 import java.nio.charset.*;
 import java.sql.*;
 import java.time.*;
+import java.time.format.*;
+import java.util.*;
 import net.jextra.fauxjo.*;
 
 public class StringCoercer implements TypeCoercer<String>
 {
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // The Timestamp.valueOf format (yyyy-mm-dd hh:mm:ss[.f...]) plus the ISO 'T' separator.
+    private static final DateTimeFormatter LOCAL_DATE_TIME = new DateTimeFormatterBuilder().append( DateTimeFormatter.ISO_LOCAL_DATE )
+        .optionalStart().appendLiteral( 'T' ).optionalEnd().optionalStart().appendLiteral( ' ' ).optionalEnd().append(
+            DateTimeFormatter.ISO_LOCAL_TIME ).toFormatter();
+
     // ============================================================
     // Methods
     // ============================================================
@@ -39,65 +50,119 @@ public class StringCoercer implements TypeCoercer<String>
     @Override
     public Object convertTo( String value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( Boolean.class ) )
         {
-            return Boolean.parseBoolean( value );
+            return value -> Boolean.parseBoolean( (String) value );
         }
         else if ( targetClass.equals( Integer.class ) )
         {
-            return Integer.parseInt( value );
+            return value -> Integer.parseInt( (String) value );
         }
         else if ( targetClass.equals( Long.class ) )
         {
-            return Long.parseLong( value );
+            return value -> Long.parseLong( (String) value );
         }
         else if ( targetClass.equals( Float.class ) )
         {
-            return Float.parseFloat( value );
+            return value -> Float.parseFloat( (String) value );
         }
         else if ( targetClass.equals( Double.class ) )
         {
-            return Double.parseDouble( value );
+            return value -> Double.parseDouble( (String) value );
         }
         else if ( targetClass.equals( java.sql.Date.class ) )
         {
-            return java.sql.Date.valueOf( value );
+            return value -> java.sql.Date.valueOf( (String) value );
         }
         else if ( targetClass.equals( Timestamp.class ) )
         {
-            return Timestamp.valueOf( value );
+            return value -> Timestamp.valueOf( (String) value );
         }
         else if ( targetClass.equals( ZoneId.class ) )
         {
-            return ZoneId.of( value );
+            return value -> ZoneId.of( (String) value );
         }
         else if ( targetClass.equals( ZoneOffset.class ) )
         {
-            return ZoneOffset.of( value );
+            return value -> ZoneOffset.of( (String) value );
         }
         else if ( targetClass.equals( Instant.class ) )
         {
-            return Timestamp.valueOf( value ).toInstant();
+            return value -> parseLocalDateTime( (String) value ).atZone( ZoneId.systemDefault() ).toInstant();
+        }
+        else if ( targetClass.equals( LocalDateTime.class ) )
+        {
+            return value -> parseLocalDateTime( (String) value );
+        }
+        else if ( targetClass.equals( LocalDate.class ) )
+        {
+            return value -> LocalDate.parse( (String) value );
+        }
+        else if ( targetClass.equals( OffsetDateTime.class ) )
+        {
+            return value -> OffsetDateTime.parse( (String) value );
         }
         else if ( targetClass.equals( byte[].class ) )
         {
-            return value.getBytes( StandardCharsets.UTF_8 );
+            return value -> ( (String) value ).getBytes( StandardCharsets.UTF_8 );
         }
         else if ( targetClass.isEnum() )
         {
             @SuppressWarnings( "unchecked" )
             Class<? extends Enum> clss = (Class<? extends Enum>) targetClass;
-            @SuppressWarnings( "unchecked" )
-            Object obj = Enum.valueOf( clss, value );
 
-            return obj;
+            // Resolved once per converter, Enum.valueOf is only left to report unknown names.
+            Map<String, Object> constants = new HashMap<>();
+            for ( Enum<?> constant : clss.getEnumConstants() )
+            {
+                constants.put( constant.name(), constant );
+            }
+
+            return value ->
+            {
+                Object obj = constants.get( value );
+                if ( obj == null )
+                {
+                    @SuppressWarnings( "unchecked" )
+                    Object valueOf = Enum.valueOf( clss, (String) value );
+                    obj = valueOf;
+                }
+
+                return obj;
+            };
         }
         else if ( targetClass.equals( Object.class ) )
         {
-            return value;
+            return value -> value;
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
     }
+
+    // ----------
+    // private
+    // ----------
+
+    /*
+     * Parse straight into a LocalDateTime, only falling back to Timestamp.valueOf for its lenient forms (e.g. single digit months).
+     */
+    private static LocalDateTime parseLocalDateTime( String value )
+    {
+        try
+        {
+            return LocalDateTime.parse( value, LOCAL_DATE_TIME );
+        }
+        catch ( DateTimeParseException ex )
+        {
+            return Timestamp.valueOf( value ).toLocalDateTime();
+        }
+    }
 }
@@ -38,30 +38,41 @@ public class TimestampCoercer implements TypeCoercer<Timestamp>
     @Override
     public Object convertTo( Timestamp value, Class<?> targetClass )
         throws FauxjoException
+    {
+        return getConverter( targetClass ).convert( value );
+    }
+
+    @Override
+    public Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
     {
         if ( targetClass.equals( java.util.Date.class ) )
         {
-            return new java.util.Date( value.getTime() );
+            return value -> new java.util.Date( ( (Timestamp) value ).getTime() );
         }
         else if ( targetClass.equals( java.sql.Date.class ) )
         {
-            return new java.sql.Date( value.getTime() );
+            return value -> new java.sql.Date( ( (Timestamp) value ).getTime() );
         }
         else if ( targetClass.equals( LocalDateTime.class ) )
         {
-            return value.toLocalDateTime();
+            return value -> ( (Timestamp) value ).toLocalDateTime();
         }
         else if ( targetClass.equals( LocalDate.class ) )
         {
-            return value.toLocalDateTime().toLocalDate();
+            return value -> ( (Timestamp) value ).toLocalDateTime().toLocalDate();
         }
         else if ( targetClass.equals( Instant.class ) )
         {
-            return value.toInstant();
+            return value -> ( (Timestamp) value ).toInstant();
+        }
+        else if ( targetClass.equals( OffsetDateTime.class ) )
+        {
+            return value -> ( (Timestamp) value ).toInstant().atZone( ZoneId.systemDefault() ).toOffsetDateTime();
         }
         else if ( targetClass.equals( String.class ) )
         {
-            return value.toInstant().toString();
+            return value -> ( (Timestamp) value ).toInstant().toString();
         }
 
         throw new FauxjoException( String.format( ERROR_MSG, getClass().getName(), targetClass ) );
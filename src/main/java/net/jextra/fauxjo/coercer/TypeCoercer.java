@@ -47,4 +47,16 @@ public interface TypeCoercer<T>
 
     Object convertTo( T value, Class<?> targetClass )
         throws FauxjoException;
+
+    /**
+     * Return a Converter of values of this type to the targetClass. Called once per target class by the Coercer so implementations
+     * should resolve the target class here rather than on every value.
+     * @throws FauxjoException if values cannot be converted to targetClass
+     */
+    @SuppressWarnings( "unchecked" )
+    default Converter getConverter( Class<?> targetClass )
+        throws FauxjoException
+    {
+        return value -> convertTo( (T) value, targetClass );
+    }
 }
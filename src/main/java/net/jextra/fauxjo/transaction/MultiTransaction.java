@@ -23,9 +23,16 @@ package net.jextra.fauxjo.transaction;
 
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import javax.sql.*;
 
 /**
- * Multiple {@link TransactionInterface}s tied together. All should be committed and rolled back together.
+ * Multiple {@link TransactionInterface}s tied together. All should be committed and rolled back together.<p>
+ *
+ * By default the transactions are committed, rolled back and closed one after another and the first failure is thrown. With an
+ * executor set they are all issued in parallel (so a commit takes as long as the slowest database rather than the sum of them) and
+ * every failure is reported in one {@link MultiTransactionException}. With two-phase commit enabled (only for
+ * {@link XaTransaction}s), all transactions are prepared before any is committed and all are rolled back if any prepare fails.
  */
 public class MultiTransaction implements TransactionInterface
 {
@@ -34,6 +41,8 @@ public class MultiTransaction implements TransactionInterface
     // ============================================================
 
     private ArrayList<TransactionInterface> transactions;
+    private Executor executor;
+    private boolean twoPhase;
 
     // ============================================================
     // Constructors
@@ -49,6 +58,11 @@ public class MultiTransaction implements TransactionInterface
         }
     }
 
+    public MultiTransaction( Collection<? extends TransactionInterface> transactions )
+    {
+        this.transactions = new ArrayList<>( transactions );
+    }
+
     // ============================================================
     // Methods
     // ============================================================
@@ -57,6 +71,79 @@ public class MultiTransaction implements TransactionInterface
     // public
     // ----------
 
+    /**
+     * Return a MultiTransaction of one {@link XaTransaction} branch (of the same global transaction) per XAConnection, with two-phase
+     * commit enabled.
+     */
+    public static MultiTransaction forXa( XAConnection... xaConnections )
+    {
+        byte[] globalId = XaTransaction.newGlobalId();
+        List<XaTransaction> branches = new ArrayList<>();
+        try
+        {
+            for ( int i = 0; i < xaConnections.length; i++ )
+            {
+                branches.add( new XaTransaction( xaConnections[i], XaTransaction.createXid( globalId, i ) ) );
+            }
+        }
+        catch ( RuntimeException ex )
+        {
+            for ( XaTransaction branch : branches )
+            {
+                try
+                {
+                    branch.rollback();
+                }
+                catch ( RuntimeException rollbackEx )
+                {
+                    ex.addSuppressed( rollbackEx );
+                }
+            }
+            throw ex;
+        }
+
+        return new MultiTransaction( branches ).setTwoPhase( true );
+    }
+
+    /**
+     * Issue commit, rollback and close to all transactions in parallel on executor (null to go back to one after another).
+     */
+    public MultiTransaction setExecutor( Executor executor )
+    {
+        this.executor = executor;
+        return this;
+    }
+
+    public Executor getExecutor()
+    {
+        return executor;
+    }
+
+    /**
+     * Prepare all transactions before committing any of them. All transactions must be {@link XaTransaction}s.
+     */
+    public MultiTransaction setTwoPhase( boolean twoPhase )
+    {
+        if ( twoPhase )
+        {
+            for ( TransactionInterface trans : transactions )
+            {
+                if ( !( trans instanceof XaTransaction ) )
+                {
+                    throw new IllegalStateException( "Two-phase commit requires every transaction to be an XaTransaction" );
+                }
+            }
+        }
+
+        this.twoPhase = twoPhase;
+        return this;
+    }
+
+    public boolean isTwoPhase()
+    {
+        return twoPhase;
+    }
+
     @Override
     public void finish( boolean commit )
     {
@@ -73,28 +160,25 @@ public class MultiTransaction implements TransactionInterface
     @Override
     public void rollback()
     {
-        for ( TransactionInterface trans : transactions )
-        {
-            trans.rollback();
-        }
+        forEach( "rollback", ( i, trans ) -> trans.rollback() );
     }
 
     @Override
     public void commit()
     {
-        for ( TransactionInterface trans : transactions )
+        if ( twoPhase )
         {
-            trans.commit();
+            commitTwoPhase();
+            return;
         }
+
+        forEach( "commit", ( i, trans ) -> trans.commit() );
     }
 
     @Override
     public void close()
     {
-        for ( TransactionInterface trans : transactions )
-        {
-            trans.close();
-        }
+        forEach( "close", ( i, trans ) -> trans.close() );
     }
 
     public TransactionInterface getTransaction( int index )
@@ -114,4 +198,140 @@ public class MultiTransaction implements TransactionInterface
 
         return trans == null ? null : trans.getConnection();
     }
+
+    // ----------
+    // private
+    // ----------
+
+    private void forEach( String operation, Action action )
+    {
+        if ( executor == null && !twoPhase )
+        {
+            for ( int i = 0; i < transactions.size(); i++ )
+            {
+                action.apply( i, transactions.get( i ) );
+            }
+
+            return;
+        }
+
+        Map<Integer, Throwable> failures = runAll( action );
+        if ( !failures.isEmpty() )
+        {
+            throw new MultiTransactionException( operation, transactions.size(), failures );
+        }
+    }
+
+    private void commitTwoPhase()
+    {
+        Set<Integer> toCommit = ConcurrentHashMap.newKeySet();
+        Map<Integer, Throwable> failures = runAll( ( i, trans ) ->
+        {
+            if ( ( (XaTransaction) trans ).prepare() )
+            {
+                toCommit.add( i );
+            }
+        } );
+
+        if ( !failures.isEmpty() )
+        {
+            // Roll back every branch, prepared or not. Failures of that are attached to the prepare failure.
+            MultiTransactionException ex = new MultiTransactionException( "prepare", transactions.size(), failures );
+            for ( Throwable rollbackFailure : runAll( ( i, trans ) -> trans.rollback() ).values() )
+            {
+                ex.addSuppressed( rollbackFailure );
+            }
+            throw ex;
+        }
+
+        failures = runAll( ( i, trans ) ->
+        {
+            if ( toCommit.contains( i ) )
+            {
+                ( (XaTransaction) trans ).commitPrepared();
+            }
+        } );
+
+        if ( !failures.isEmpty() )
+        {
+            throw new MultiTransactionException( "commit", transactions.size(), failures );
+        }
+    }
+
+    /*
+     * Apply action to every transaction (in parallel if there is an executor) and return the failures by index.
+     */
+    private Map<Integer, Throwable> runAll( Action action )
+    {
+        Map<Integer, Throwable> failures = new ConcurrentHashMap<>();
+        if ( executor == null )
+        {
+            for ( int i = 0; i < transactions.size(); i++ )
+            {
+                try
+                {
+                    action.apply( i, transactions.get( i ) );
+                }
+                catch ( RuntimeException ex )
+                {
+                    failures.put( i, ex );
+                }
+            }
+
+            return failures;
+        }
+
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[transactions.size()];
+        for ( int i = 0; i < transactions.size(); i++ )
+        {
+            int index = i;
+            TransactionInterface trans = transactions.get( i );
+            try
+            {
+                futures[i] = CompletableFuture.runAsync( () ->
+                {
+                    try
+                    {
+                        action.apply( index, trans );
+                    }
+                    catch ( RuntimeException ex )
+                    {
+                        failures.put( index, ex );
+                    }
+                }, executor );
+            }
+            catch ( RejectedExecutionException ex )
+            {
+                failures.put( i, ex );
+                futures[i] = CompletableFuture.completedFuture( null );
+            }
+        }
+
+        try
+        {
+            CompletableFuture.allOf( futures ).join();
+        }
+        catch ( CompletionException ex )
+        {
+            // Only an Error thrown by a transaction gets here.
+            for ( int i = 0; i < futures.length; i++ )
+            {
+                if ( futures[i].isCompletedExceptionally() )
+                {
+                    failures.putIfAbsent( i, ex.getCause() );
+                }
+            }
+        }
+
+        return failures;
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private interface Action
+    {
+        void apply( int index, TransactionInterface trans );
+    }
 }
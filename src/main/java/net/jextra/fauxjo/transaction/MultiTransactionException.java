@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.transaction;
+
+import java.util.*;
+
+/**
+ * Thrown when a {@link MultiTransaction} operation failed on some of its transactions. Every failure is kept (by transaction index)
+ * so that the ones that did and did not commit or roll back can be told apart.
+ */
+public class MultiTransactionException extends RuntimeException
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private final String operation;
+    private final int transactionCount;
+    private final SortedMap<Integer, Throwable> failures;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public MultiTransactionException( String operation, int transactionCount, Map<Integer, Throwable> failures )
+    {
+        super( buildMessage( operation, transactionCount, failures ), failures.isEmpty() ? null : failures.values().iterator().next() );
+        this.operation = operation;
+        this.transactionCount = transactionCount;
+        this.failures = Collections.unmodifiableSortedMap( new TreeMap<>( failures ) );
+
+        boolean first = true;
+        for ( Throwable failure : this.failures.values() )
+        {
+            if ( !first )
+            {
+                addSuppressed( failure );
+            }
+            first = false;
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * The operation that failed (e.g. commit, rollback, close or prepare).
+     */
+    public String getOperation()
+    {
+        return operation;
+    }
+
+    public int getTransactionCount()
+    {
+        return transactionCount;
+    }
+
+    /**
+     * Failure by index of the transaction in the MultiTransaction.
+     */
+    public SortedMap<Integer, Throwable> getFailures()
+    {
+        return failures;
+    }
+
+    /**
+     * Indexes of the transactions the operation succeeded on.
+     */
+    public List<Integer> getSucceeded()
+    {
+        List<Integer> succeeded = new ArrayList<>();
+        for ( int i = 0; i < transactionCount; i++ )
+        {
+            if ( !failures.containsKey( i ) )
+            {
+                succeeded.add( i );
+            }
+        }
+
+        return succeeded;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static String buildMessage( String operation, int transactionCount, Map<Integer, Throwable> failures )
+    {
+        StringBuilder builder = new StringBuilder();
+        builder.append( String.format( "%s failed on %d of %d transactions", operation, failures.size(), transactionCount ) );
+        for ( Map.Entry<Integer, Throwable> entry : new TreeMap<>( failures ).entrySet() )
+        {
+            builder.append( String.format( "; [%d] %s", entry.getKey(), entry.getValue() ) );
+        }
+
+        return builder.toString();
+    }
+}
@@ -36,6 +36,8 @@ public class Transaction implements TransactionInterface
     private Connection connection;
     private boolean savedAutoCommit;
     private Savepoint savepoint;
+    // Read-only state of the connection before setReadOnly (null if not called).
+    private Boolean savedReadOnly;
 
     // ============================================================
     // Constructors
@@ -103,6 +105,64 @@ public class Transaction implements TransactionInterface
         return savepoint;
     }
 
+    /**
+     * Release the savepoint (if any) once it is no longer needed to roll back to. Not all drivers support it, the savepoint otherwise
+     * lives until the end of the enclosing transaction.
+     */
+    public void releaseSavepoint()
+    {
+        if ( savepoint == null )
+        {
+            return;
+        }
+
+        try
+        {
+            connection.releaseSavepoint( savepoint );
+            savepoint = null;
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Mark the connection read-only (a hint the driver and database may use to optimize) until the transaction ends. Must be called
+     * before the first statement of the transaction.
+     */
+    public Transaction setReadOnly( boolean readOnly )
+    {
+        try
+        {
+            boolean wasReadOnly = connection.isReadOnly();
+            connection.setReadOnly( readOnly );
+            // Only once it is actually changed, so a failed call leaves nothing for close to restore.
+            if ( savedReadOnly == null )
+            {
+                savedReadOnly = wasReadOnly;
+            }
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+
+        return this;
+    }
+
+    public boolean isReadOnly()
+    {
+        try
+        {
+            return connection.isReadOnly();
+        }
+        catch ( SQLException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
     @Override
     public void rollback()
     {
@@ -122,6 +182,7 @@ public class Transaction implements TransactionInterface
                 connection.rollback();
             }
             connection.setAutoCommit( savedAutoCommit );
+            restoreReadOnly();
         }
         catch ( SQLException ex )
         {
@@ -141,6 +202,7 @@ public class Transaction implements TransactionInterface
 
             connection.commit();
             connection.setAutoCommit( savedAutoCommit );
+            restoreReadOnly();
         }
         catch ( SQLException ex )
         {
@@ -169,6 +231,17 @@ public class Transaction implements TransactionInterface
                 connection.rollback();
                 connection.setAutoCommit( savedAutoCommit );
             }
+            else if ( connection != null && savedReadOnly != null && connection.isReadOnly() )
+            {
+                // Neither committed nor rolled back on a connection that was already in manual commit mode. End the
+                // read-only transaction (it has nothing to lose) so its read-only state can be restored.
+                connection.rollback();
+            }
+
+            if ( connection != null )
+            {
+                restoreReadOnly();
+            }
         }
         catch ( SQLException ex )
         {
@@ -182,6 +255,22 @@ public class Transaction implements TransactionInterface
         return connection;
     }
 
+    // ----------
+    // private
+    // ----------
+
+    private void restoreReadOnly()
+        throws SQLException
+    {
+        // Only called at a transaction boundary (the read-only state can not be changed inside a transaction), whatever the
+        // autocommit mode the connection is restored to.
+        if ( savedReadOnly != null )
+        {
+            connection.setReadOnly( savedReadOnly );
+            savedReadOnly = null;
+        }
+    }
+
     // ============================================================
     // Inner Classes
     // ============================================================
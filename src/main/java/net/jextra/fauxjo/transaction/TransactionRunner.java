@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.transaction;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Runs a unit of work in a {@link Transaction} and, when it fails with a serialization failure (SQLSTATE 40001) or a deadlock
+ * (40P01), rolls back and runs it again after a jittered exponential backoff.<p>
+ *
+ * Parts of the work can be wrapped in a {@link #section} which runs under a savepoint. A deadlock inside a section only rolls back
+ * to that savepoint and retries the section in place. A serialization failure always retries the whole transaction because its
+ * snapshot is what is stale. The work must not commit or roll back the Transaction itself.
+ * <pre>
+ * TransactionRunner runner = new TransactionRunner();
+ * runner.run( conn, trans -&gt;
+ * {
+ *     orderHome.insert( order );
+ *     return runner.section( trans, "stock", t -&gt; stockHome.update( stock ) );
+ * } );
+ * </pre>
+ */
+public class TransactionRunner
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    public static final String SERIALIZATION_FAILURE = "40001";
+    public static final String DEADLOCK_DETECTED = "40P01";
+
+    private int maxAttempts = 5;
+    private int maxSectionAttempts = 3;
+    private long initialBackoffMillis = 10;
+    private long maxBackoffMillis = 1000;
+    private Set<String> retrySqlStates = new HashSet<>( Arrays.asList( SERIALIZATION_FAILURE, DEADLOCK_DETECTED ) );
+    private Set<String> sectionRetrySqlStates = new HashSet<>( Collections.singletonList( DEADLOCK_DETECTED ) );
+    private Transaction.TransactionListener listener;
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public int getMaxAttempts()
+    {
+        return maxAttempts;
+    }
+
+    /**
+     * Number of times (including the first) the whole transaction is run before the failure is thrown.
+     */
+    public TransactionRunner setMaxAttempts( int maxAttempts )
+    {
+        this.maxAttempts = Math.max( 1, maxAttempts );
+        return this;
+    }
+
+    public int getMaxSectionAttempts()
+    {
+        return maxSectionAttempts;
+    }
+
+    /**
+     * Number of times (including the first) a section is run in place before its failure escalates to the whole transaction.
+     */
+    public TransactionRunner setMaxSectionAttempts( int maxSectionAttempts )
+    {
+        this.maxSectionAttempts = Math.max( 1, maxSectionAttempts );
+        return this;
+    }
+
+    /**
+     * The backoff before retry n is a random delay up to min( maxBackoffMillis, initialBackoffMillis * 2^(n-1) ).
+     */
+    public TransactionRunner setBackoff( long initialBackoffMillis, long maxBackoffMillis )
+    {
+        this.initialBackoffMillis = Math.max( 0, initialBackoffMillis );
+        this.maxBackoffMillis = Math.max( this.initialBackoffMillis, maxBackoffMillis );
+        return this;
+    }
+
+    /**
+     * SQLSTATEs that retry the whole transaction (default 40001 and 40P01).
+     */
+    public TransactionRunner setRetrySqlStates( String... sqlStates )
+    {
+        retrySqlStates = new HashSet<>( Arrays.asList( sqlStates ) );
+        return this;
+    }
+
+    /**
+     * SQLSTATEs that retry just the failed section after rolling back to its savepoint (default 40P01).
+     */
+    public TransactionRunner setSectionRetrySqlStates( String... sqlStates )
+    {
+        sectionRetrySqlStates = new HashSet<>( Arrays.asList( sqlStates ) );
+        return this;
+    }
+
+    public TransactionRunner setListener( Transaction.TransactionListener listener )
+    {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Run work in a new Transaction on conn and commit it, retrying the whole of it on a retryable failure (including one thrown by
+     * the commit).
+     */
+    public <R> R run( Connection conn, Work<R> work )
+        throws SQLException
+    {
+        for ( int attempt = 1; ; attempt++ )
+        {
+            Transaction trans = new Transaction( conn, listener );
+            R result;
+            try
+            {
+                result = work.execute( trans );
+                trans.commit();
+            }
+            catch ( SQLException | RuntimeException ex )
+            {
+                // A failing rollback or close must neither hide ex nor stop the retry.
+                rollbackQuietly( trans, ex );
+                closeQuietly( trans, ex );
+                // Not when interrupted (e.g. out of a section's backoff), even though the failure carries the retryable cause.
+                String sqlState = findSqlState( ex, retrySqlStates );
+                if ( sqlState == null || attempt >= maxAttempts || Thread.currentThread().isInterrupted() )
+                {
+                    throw ex;
+                }
+
+                backoff( trans, "transaction", sqlState, attempt, ex );
+                continue;
+            }
+
+            trans.close();
+
+            return result;
+        }
+    }
+
+    /**
+     * Run work under a savepoint of trans. On a failure with one of the section retry SQLSTATEs, roll back to the savepoint and run
+     * it again, otherwise (or once out of section attempts) throw so that the whole transaction is retried by {@link #run}. If the
+     * driver does not support savepoints, work is simply run.
+     */
+    public <R> R section( Transaction trans, String name, Work<R> work )
+        throws SQLException
+    {
+        for ( int attempt = 1; ; attempt++ )
+        {
+            Transaction savepoint;
+            try
+            {
+                savepoint = new Transaction( trans.getConnection(), name );
+            }
+            catch ( RuntimeException ex )
+            {
+                if ( ex.getCause() instanceof SQLFeatureNotSupportedException )
+                {
+                    return work.execute( trans );
+                }
+                throw ex;
+            }
+
+            try
+            {
+                R result = work.execute( trans );
+                releaseQuietly( savepoint );
+
+                return result;
+            }
+            catch ( SQLException | RuntimeException ex )
+            {
+                String sqlState = findSqlState( ex, sectionRetrySqlStates );
+                if ( sqlState == null || attempt >= maxSectionAttempts )
+                {
+                    throw ex;
+                }
+
+                try
+                {
+                    // Rolls back to the savepoint only, trans stays open (and in manual commit mode).
+                    savepoint.rollback();
+                }
+                catch ( RuntimeException rollbackEx )
+                {
+                    // The savepoint is unusable, leave it to the whole transaction retry.
+                    ex.addSuppressed( rollbackEx );
+                    throw ex;
+                }
+
+                backoff( trans, "section [" + name + "]", sqlState, attempt, ex );
+            }
+        }
+    }
+
+    /**
+     * Return true if ex (or any of its causes or chained SQLExceptions) has one of the SQLSTATEs that retry the whole transaction.
+     */
+    public boolean isRetryable( Throwable ex )
+    {
+        return findSqlState( ex, retrySqlStates ) != null;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private static String findSqlState( Throwable ex, Set<String> sqlStates )
+    {
+        Set<Throwable> seen = Collections.newSetFromMap( new IdentityHashMap<>() );
+        for ( Throwable t = ex; t != null && seen.add( t ); t = t.getCause() )
+        {
+            if ( t instanceof SQLException )
+            {
+                for ( SQLException sqlEx = (SQLException) t; sqlEx != null && ( sqlEx == t || seen.add( sqlEx ) );
+                      sqlEx = sqlEx.getNextException() )
+                {
+                    if ( sqlEx.getSQLState() != null && sqlStates.contains( sqlEx.getSQLState() ) )
+                    {
+                        return sqlEx.getSQLState();
+                    }
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /*
+     * Sleep before retrying after failure. If interrupted, the failure is thrown on (wrapped, with the interrupt suppressed).
+     */
+    private void backoff( Transaction trans, String what, String sqlState, int attempt, Exception failure )
+        throws FauxjoException
+    {
+        long ceiling = Math.min( maxBackoffMillis, initialBackoffMillis << Math.min( attempt - 1, 30 ) );
+        long millis = ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong( ceiling + 1 );
+        if ( listener != null )
+        {
+            listener.trace( trans, String.format( "Retrying %s after SQLSTATE %s (attempt %d) in %dms", what, sqlState, attempt + 1,
+                millis ) );
+        }
+
+        try
+        {
+            Thread.sleep( millis );
+        }
+        catch ( InterruptedException ex )
+        {
+            Thread.currentThread().interrupt();
+            FauxjoException interrupted = new FauxjoException( "Interrupted while backing off to retry " + what, failure );
+            interrupted.addSuppressed( ex );
+            throw interrupted;
+        }
+    }
+
+    private static void rollbackQuietly( Transaction trans, Exception ex )
+    {
+        try
+        {
+            trans.rollback();
+        }
+        catch ( RuntimeException rollbackEx )
+        {
+            ex.addSuppressed( rollbackEx );
+        }
+    }
+
+    private static void closeQuietly( Transaction trans, Exception ex )
+    {
+        try
+        {
+            trans.close();
+        }
+        catch ( RuntimeException closeEx )
+        {
+            ex.addSuppressed( closeEx );
+        }
+    }
+
+    private static void releaseQuietly( Transaction savepoint )
+    {
+        try
+        {
+            savepoint.releaseSavepoint();
+        }
+        catch ( RuntimeException ex )
+        {
+            // Not all drivers support releasing, the savepoint then lives until the end of the transaction.
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    public interface Work<R>
+    {
+        R execute( Transaction trans )
+            throws SQLException;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.transaction;
+
+import java.sql.*;
+import java.util.*;
+import net.jextra.fauxjo.*;
+
+/**
+ * Write-behind buffer tied to a transaction. Inserts, updates and deletes are queued per {@link Home} instead of executed, coalesced
+ * per bean (e.g. an insert then update of a bean is one insert, an insert then delete is nothing) and flushed as JDBC batches
+ * right before the transaction commits. Beans are written in the state they are in at flush time.<p>
+ *
+ * The flush writes the inserts of every Home, then the updates, in the order the Homes were first used, then the deletes in the
+ * reverse order so that parents are inserted before and deleted after their children. Queries do not see queued writes, call
+ * {@link #flush} first if they need to. Beans that leave a defaultable column to the database (so need its generated keys back) are
+ * inserted one by one at flush time.
+ * <pre>
+ * try ( UnitOfWork work = new UnitOfWork( conn ) )
+ * {
+ *     work.insert( orderHome, order );
+ *     work.update( stockHome, stock );
+ *     work.commit();
+ * }
+ * </pre>
+ */
+public class UnitOfWork implements TransactionInterface
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    private TransactionInterface transaction;
+
+    // In the order the Homes were first written to.
+    private Map<Home<?>, Queue<?>> queues;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public UnitOfWork( Connection connection )
+    {
+        this( new Transaction( connection ) );
+    }
+
+    public UnitOfWork( TransactionInterface transaction )
+    {
+        this.transaction = transaction;
+        queues = new LinkedHashMap<>();
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    public <T> void insert( Home<T> home, T bean )
+        throws SQLException
+    {
+        queue( home, bean, Op.INSERT );
+    }
+
+    public <T> void update( Home<T> home, T bean )
+        throws SQLException
+    {
+        queue( home, bean, Op.UPDATE );
+    }
+
+    public <T> void delete( Home<T> home, T bean )
+        throws SQLException
+    {
+        queue( home, bean, Op.DELETE );
+    }
+
+    /**
+     * Return the number of writes queued (after coalescing).
+     */
+    public int getPendingCount()
+    {
+        int count = 0;
+        for ( Queue<?> queue : queues.values() )
+        {
+            count += queue.beans.size();
+        }
+
+        return count;
+    }
+
+    /**
+     * Execute the queued writes now (still within the transaction).
+     */
+    public void flush()
+        throws SQLException
+    {
+        if ( queues.isEmpty() )
+        {
+            return;
+        }
+
+        // Each write leaves its queue only once executed, so if one fails the rest stay queued.
+        List<Queue<?>> ordered = new ArrayList<>( queues.values() );
+        try
+        {
+            for ( Queue<?> queue : ordered )
+            {
+                queue.flush( Op.INSERT );
+            }
+
+            for ( Queue<?> queue : ordered )
+            {
+                queue.flush( Op.UPDATE );
+            }
+
+            for ( int i = ordered.size() - 1; i >= 0; i-- )
+            {
+                ordered.get( i ).flush( Op.DELETE );
+            }
+        }
+        finally
+        {
+            queues.values().removeIf( queue -> queue.beans.isEmpty() );
+        }
+    }
+
+    /**
+     * Flush the queued writes then commit the transaction.
+     */
+    @Override
+    public void commit()
+    {
+        try
+        {
+            flush();
+        }
+        catch ( SQLException ex )
+        {
+            // Wrap in RuntimeException to be consistent with Transaction.commit.
+            throw new RuntimeException( ex );
+        }
+
+        transaction.commit();
+    }
+
+    /**
+     * Discard the queued writes and roll back the transaction.
+     */
+    @Override
+    public void rollback()
+    {
+        queues.clear();
+        transaction.rollback();
+    }
+
+    /**
+     * Discard any queued writes not yet flushed and close the transaction.
+     */
+    @Override
+    public void close()
+    {
+        queues.clear();
+        transaction.close();
+    }
+
+    @Override
+    public Connection getConnection()
+    {
+        return transaction.getConnection();
+    }
+
+    public TransactionInterface getTransaction()
+    {
+        return transaction;
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private <T> void queue( Home<T> home, T bean, Op op )
+        throws SQLException
+    {
+        @SuppressWarnings( "unchecked" )
+        Queue<T> queue = (Queue<T>) queues.get( home );
+        if ( queue == null )
+        {
+            queue = new Queue<>( home );
+            queues.put( home, queue );
+        }
+
+        Op pending = queue.ops.get( bean );
+        if ( pending == null )
+        {
+            queue.add( bean, op );
+        }
+        else if ( pending == Op.INSERT && op == Op.UPDATE || pending == Op.UPDATE && op == Op.UPDATE )
+        {
+            // The pending write will already write the latest state of the bean.
+        }
+        else if ( pending == Op.INSERT && op == Op.DELETE )
+        {
+            queue.remove( bean );
+        }
+        else if ( pending == Op.UPDATE && op == Op.DELETE )
+        {
+            queue.remove( bean );
+            queue.add( bean, Op.DELETE );
+        }
+        else
+        {
+            // Cannot be coalesced (e.g. re-inserting a deleted bean), write everything so far to keep the order.
+            flush();
+            queue( home, bean, op );
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private enum Op
+    {
+        INSERT, UPDATE, DELETE
+    }
+
+    /**
+     * The pending writes of one Home. Beans are matched by identity as their primary key may not be known (or may change) yet.
+     */
+    private static class Queue<T>
+    {
+        private final Home<T> home;
+        private final Map<T, Op> ops = new IdentityHashMap<>();
+        private final List<T> beans = new ArrayList<>();
+
+        public Queue( Home<T> home )
+        {
+            this.home = home;
+        }
+
+        public void add( T bean, Op op )
+        {
+            ops.put( bean, op );
+            beans.add( bean );
+        }
+
+        public void remove( T bean )
+        {
+            ops.remove( bean );
+            for ( int i = beans.size() - 1; i >= 0; i-- )
+            {
+                if ( beans.get( i ) == bean )
+                {
+                    beans.remove( i );
+                    break;
+                }
+            }
+        }
+
+        @SuppressWarnings( "unchecked" )
+        public void flush( Op op )
+            throws SQLException
+        {
+            try
+            {
+                List<T> batch = new ArrayList<>();
+                for ( T bean : beans )
+                {
+                    if ( ops.get( bean ) != op )
+                    {
+                        continue;
+                    }
+
+                    if ( op == Op.INSERT && ( (Table<T>) home.getTable() ).hasDefaultedNulls( bean ) )
+                    {
+                        home.insert( bean );
+                        ops.remove( bean );
+                    }
+                    else
+                    {
+                        batch.add( bean );
+                    }
+                }
+
+                if ( batch.isEmpty() )
+                {
+                    return;
+                }
+
+                if ( op == Op.INSERT )
+                {
+                    home.insertBatch( batch );
+                }
+                else if ( op == Op.UPDATE )
+                {
+                    home.update( batch );
+                }
+                else
+                {
+                    home.deleteBatch( batch );
+                }
+
+                for ( T bean : batch )
+                {
+                    ops.remove( bean );
+                }
+            }
+            finally
+            {
+                // Drop the beans written above (even if a later one failed).
+                beans.removeIf( bean -> !ops.containsKey( bean ) );
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * Copyright (C) jextra.net.
+ *
+ * This file is part of the jextra.net software.
+ *
+ * The jextra software is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * The jextra software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with the jextra software; if not, write to the Free
+ * Software Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA
+ * 02111-1307 USA.
+ */
+
+package net.jextra.fauxjo.transaction;
+
+import java.nio.*;
+import java.sql.*;
+import java.util.*;
+import javax.sql.*;
+import javax.transaction.xa.*;
+
+/**
+ * One branch of a distributed (XA) transaction on an {@link XAConnection}. On its own it commits in one phase, in a
+ * {@link MultiTransaction} with two-phase commit enabled all branches are prepared before any is committed.
+ */
+public class XaTransaction implements TransactionInterface
+{
+    // ============================================================
+    // Fields
+    // ============================================================
+
+    // Arbitrary (non OSI-CCR) format identifier of the Xids created here.
+    private static final int FORMAT_ID = 0x46584a4f;
+
+    private XAConnection xaConnection;
+    private Connection connection;
+    private XAResource resource;
+    private Xid xid;
+    private boolean ended;
+    private boolean finished;
+
+    // ============================================================
+    // Constructors
+    // ============================================================
+
+    public XaTransaction( XAConnection xaConnection )
+    {
+        this( xaConnection, createXid( newGlobalId(), 0 ) );
+    }
+
+    public XaTransaction( XAConnection xaConnection, Xid xid )
+    {
+        this.xaConnection = xaConnection;
+        this.xid = xid;
+
+        try
+        {
+            connection = xaConnection.getConnection();
+            resource = xaConnection.getXAResource();
+            resource.start( xid, XAResource.TMNOFLAGS );
+        }
+        catch ( SQLException | XAException ex )
+        {
+            // Wrap in RuntimeException to be consistent with Transaction.
+            throw new RuntimeException( ex );
+        }
+    }
+
+    // ============================================================
+    // Methods
+    // ============================================================
+
+    // ----------
+    // public
+    // ----------
+
+    /**
+     * Return a random global transaction id to create the Xids of the branches of one distributed transaction with.
+     */
+    public static byte[] newGlobalId()
+    {
+        UUID uuid = UUID.randomUUID();
+
+        return ByteBuffer.allocate( 16 ).putLong( uuid.getMostSignificantBits() ).putLong( uuid.getLeastSignificantBits() ).array();
+    }
+
+    public static Xid createXid( byte[] globalId, int branch )
+    {
+        return new SimpleXid( FORMAT_ID, globalId, ByteBuffer.allocate( 4 ).putInt( branch ).array() );
+    }
+
+    public Xid getXid()
+    {
+        return xid;
+    }
+
+    public XAConnection getXaConnection()
+    {
+        return xaConnection;
+    }
+
+    @Override
+    public Connection getConnection()
+    {
+        return connection;
+    }
+
+    /**
+     * First phase of a two-phase commit. Return false if the branch was read-only and is therefore already finished (it must not be
+     * committed).
+     */
+    public boolean prepare()
+    {
+        try
+        {
+            end( XAResource.TMSUCCESS );
+            if ( resource.prepare( xid ) == XAResource.XA_RDONLY )
+            {
+                finished = true;
+                return false;
+            }
+
+            return true;
+        }
+        catch ( XAException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Second phase of a two-phase commit of a branch that was {@link #prepare}d.
+     */
+    public void commitPrepared()
+    {
+        try
+        {
+            resource.commit( xid, false );
+            finished = true;
+        }
+        catch ( XAException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Commit this branch on its own (one-phase).
+     */
+    @Override
+    public void commit()
+    {
+        try
+        {
+            end( XAResource.TMSUCCESS );
+            resource.commit( xid, true );
+            finished = true;
+        }
+        catch ( XAException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    @Override
+    public void rollback()
+    {
+        if ( finished )
+        {
+            return;
+        }
+
+        try
+        {
+            end( XAResource.TMFAIL );
+            resource.rollback( xid );
+            finished = true;
+        }
+        catch ( XAException ex )
+        {
+            throw new RuntimeException( ex );
+        }
+    }
+
+    /**
+     * Roll back if neither committed nor rolled back yet. The XAConnection itself is left open.
+     */
+    @Override
+    public void close()
+    {
+        rollback();
+    }
+
+    // ----------
+    // private
+    // ----------
+
+    private void end( int flags )
+        throws XAException
+    {
+        if ( !ended )
+        {
+            ended = true;
+            resource.end( xid, flags );
+        }
+    }
+
+    // ============================================================
+    // Inner Classes
+    // ============================================================
+
+    private static class SimpleXid implements Xid
+    {
+        private final int formatId;
+        private final byte[] globalTransactionId;
+        private final byte[] branchQualifier;
+
+        public SimpleXid( int formatId, byte[] globalTransactionId, byte[] branchQualifier )
+        {
+            this.formatId = formatId;
+            this.globalTransactionId = globalTransactionId.clone();
+            this.branchQualifier = branchQualifier.clone();
+        }
+
+        @Override
+        public int getFormatId()
+        {
+            return formatId;
+        }
+
+        @Override
+        public byte[] getGlobalTransactionId()
+        {
+            return globalTransactionId.clone();
+        }
+
+        @Override
+        public byte[] getBranchQualifier()
+        {
+            return branchQualifier.clone();
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if ( !( o instanceof Xid ) )
+            {
+                return false;
+            }
+
+            Xid other = (Xid) o;
+
+            return formatId == other.getFormatId() && Arrays.equals( globalTransactionId, other.getGlobalTransactionId() ) && Arrays.equals(
+                branchQualifier, other.getBranchQualifier() );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Arrays.hashCode( globalTransactionId ) + Arrays.hashCode( branchQualifier );
+        }
+    }
+}